@@ -0,0 +1,64 @@
+package com.twitter.bench;
+
+import com.twitter.TwitterAltApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BenchmarkContext - Boots the application against a seeded in-memory H2 database
+ * SOLID: Single Responsibility - Only prepares the Spring context a benchmark runs in
+ *
+ * Boots twice: the first context creates the schema and inserts the
+ * SyntheticDataset, the second starts on the populated database, so the
+ * social graph index, counters and search index load it exactly as they
+ * would in production. No web server is started; benchmarks call beans.
+ */
+public final class BenchmarkContext {
+    
+    private static final String[] DEFAULTS = {
+        "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "--spring.jpa.show-sql=false",
+        "--spring.main.banner-mode=off",
+        // DevTools would shut the in-memory database down with the seeding context
+        "--spring.autoconfigure.exclude=org.springframework.boot.devtools.autoconfigure.DevToolsDataSourceAutoConfiguration",
+        "--logging.level.root=WARN",
+        "--search.index.path=",
+        "--feed.fanout.celebrity-threshold=" + Integer.getInteger("bench.celebrity-threshold", 1000),
+        "--notifications.retention.interval-ms=86400000",
+        "--counters.reconcile-interval-ms=86400000"
+    };
+    
+    private BenchmarkContext() {
+    }
+    
+    /**
+     * Seed the database and start the application
+     * @param overrides - Extra properties, e.g. "--notifications.fanout.workers=0"
+     * @return Running context (close it in the benchmark's tear-down)
+     */
+    public static ConfigurableApplicationContext start(String... overrides) {
+        List<String> args = new ArrayList<>(List.of(DEFAULTS));
+        args.addAll(List.of(overrides));
+        String[] argArray = args.toArray(new String[0]);
+        
+        try (ConfigurableApplicationContext schema = run(argArray)) {
+            JdbcTemplate jdbc = schema.getBean(JdbcTemplate.class);
+            Integer users = jdbc.queryForObject("select count(*) from users", Integer.class);
+            if (users == null || users == 0) {
+                SyntheticDataset.insert(jdbc);
+            }
+        }
+        return run(argArray);
+    }
+    
+    private static ConfigurableApplicationContext run(String[] args) {
+        SpringApplication application = new SpringApplication(TwitterAltApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        return application.run(args);
+    }
+}
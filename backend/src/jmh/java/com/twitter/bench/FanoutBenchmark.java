@@ -0,0 +1,65 @@
+package com.twitter.bench;
+
+import com.twitter.model.Post;
+import com.twitter.service.PostService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FanoutBenchmark - Post creation and notification fan-out (PostService.createPost)
+ *
+ * - async: the request path only, fan-out runs on the engine's workers.
+ * - inline: no workers and a one-slot queue, so after the first post every
+ *   fan-out (timeline pushes, coalescing, batch insert, listeners) runs on
+ *   the calling thread through the engine's backpressure path and is measured.
+ *
+ * Authors rotate over all users; celebrities skip fan-out as in production.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FanoutBenchmark {
+    
+    @Param({"async", "inline"})
+    public String mode;
+    
+    private ConfigurableApplicationContext context;
+    private PostService postService;
+    
+    @Setup(Level.Trial)
+    public void start() {
+        context = "inline".equals(mode)
+                ? BenchmarkContext.start("--notifications.fanout.workers=0",
+                                         "--notifications.fanout.queue-capacity=1",
+                                         "--notifications.fanout.offer-timeout-ms=0")
+                : BenchmarkContext.start();
+        postService = context.getBean(PostService.class);
+        // Inline mode: this post occupies the only queue slot for good
+        postService.createPost(SyntheticDataset.userId(SyntheticDataset.USERS - 1), "warm-up post");
+    }
+    
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+    
+    @State(Scope.Thread)
+    public static class Author {
+        private int next;
+        
+        long nextUserId() {
+            next = (next + 104729) % SyntheticDataset.USERS;
+            return SyntheticDataset.userId(next);
+        }
+    }
+    
+    @Benchmark
+    public Post createPost(Author author) {
+        return postService.createPost(author.nextUserId(), "Benchmark post about #java and #spring");
+    }
+}
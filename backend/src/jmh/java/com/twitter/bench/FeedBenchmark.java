@@ -0,0 +1,73 @@
+package com.twitter.bench;
+
+import com.twitter.pagination.CursorPage;
+import com.twitter.pagination.PageQuery;
+import com.twitter.projection.PostView;
+import com.twitter.service.FeedService;
+import com.twitter.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FeedBenchmark - Home feed assembly as served by GET /api/posts/feed/{userId}
+ *
+ * First page of 50 posts for a rotating set of readers: timeline slice,
+ * hydration, merge of followed celebrities' posts and, with expandAuthors,
+ * the ?expand=author side map.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FeedBenchmark {
+    
+    @Param({"false", "true"})
+    public boolean expandAuthors;
+    
+    private ConfigurableApplicationContext context;
+    private FeedService feedService;
+    private UserService userService;
+    
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start();
+        feedService = context.getBean(FeedService.class);
+        userService = context.getBean(UserService.class);
+    }
+    
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+    
+    @State(Scope.Thread)
+    public static class Reader {
+        private int next;
+        
+        long nextUserId() {
+            // Stride through all users so every reader's timeline gets warm
+            next = (next + 7919) % SyntheticDataset.USERS;
+            return SyntheticDataset.userId(next);
+        }
+    }
+    
+    @Benchmark
+    public void homeFeed(Reader reader, Blackhole blackhole) {
+        CursorPage<PostView> page = feedService.getHomeFeed(reader.nextUserId(), PageQuery.of(null, null, 50));
+        blackhole.consume(page);
+        if (expandAuthors) {
+            Set<Long> authorIds = new LinkedHashSet<>();
+            for (PostView post : page.getItems()) {
+                authorIds.add(post.getUserId());
+            }
+            blackhole.consume(userService.getUserSummaries(authorIds));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.twitter.bench;
+
+import com.twitter.service.FollowService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FollowBenchmark - FollowService.isFollowing and the follower/following counts
+ *
+ * Served from the social graph index and the materialized counters;
+ * user pairs come from a fixed-seed random stream per thread.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FollowBenchmark {
+    
+    private ConfigurableApplicationContext context;
+    private FollowService followService;
+    
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start();
+        followService = context.getBean(FollowService.class);
+    }
+    
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+    
+    @State(Scope.Thread)
+    public static class Users {
+        private final SplittableRandom random = new SplittableRandom(SyntheticDataset.SEED);
+        
+        long next() {
+            return SyntheticDataset.userId(random.nextInt(SyntheticDataset.USERS));
+        }
+    }
+    
+    @Benchmark
+    public boolean isFollowing(Users users) {
+        return followService.isFollowing(users.next(), users.next());
+    }
+    
+    @Benchmark
+    public long followerCount(Users users) {
+        return followService.getFollowerCount(users.next());
+    }
+    
+    @Benchmark
+    public long followingCount(Users users) {
+        return followService.getFollowingCount(users.next());
+    }
+}
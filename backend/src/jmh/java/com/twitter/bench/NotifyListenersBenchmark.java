@@ -0,0 +1,71 @@
+package com.twitter.bench;
+
+import com.twitter.model.Notification;
+import com.twitter.notification.NotificationManager;
+import com.twitter.pagination.PageQuery;
+import com.twitter.service.NotificationService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * NotifyListenersBenchmark - NotificationManager.notifyListeners under contention
+ *
+ * Four threads deliver notifications to either one recipient (every thread
+ * on the same cached ring buffer) or many, through the notification store
+ * and every registered listener.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class NotifyListenersBenchmark {
+    
+    @Param({"1", "256"})
+    public int recipients;
+    
+    private ConfigurableApplicationContext context;
+    private NotificationManager notificationManager;
+    private final AtomicInteger threads = new AtomicInteger();
+    
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start();
+        notificationManager = context.getBean(NotificationManager.class);
+        // Load the recipients' buffers, so deliveries update the store as for active users
+        NotificationService notificationService = context.getBean(NotificationService.class);
+        for (int i = 0; i < recipients; i++) {
+            notificationService.getUserNotifications(SyntheticDataset.userId(i), PageQuery.of(null, null, 20));
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+    
+    @State(Scope.Thread)
+    public static class Sender {
+        private long nextId;
+        private int next;
+        
+        @Setup(Level.Trial)
+        public void start(NotifyListenersBenchmark benchmark) {
+            // Disjoint ID ranges per thread
+            nextId = (long) (benchmark.threads.incrementAndGet()) << 40;
+        }
+    }
+    
+    @Benchmark
+    public void notifyListeners(Sender sender) {
+        sender.next = (sender.next + 1) % recipients;
+        Notification notification = new Notification(sender.nextId++, SyntheticDataset.userId(sender.next),
+                "User 1 posted: benchmark", "POST", false, System.currentTimeMillis());
+        notificationManager.notifyListeners(notification);
+    }
+}
@@ -0,0 +1,73 @@
+package com.twitter.bench;
+
+import com.twitter.model.Post;
+import com.twitter.projection.PostView;
+import com.twitter.repository.PostRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProjectionBenchmark - Loading a page of posts as read-only projections vs managed entities
+ *
+ * The same 50 post IDs (a sliding window over the newest posts) through
+ * PostRepository.findViewsByIdIn, as feed hydration does now, and through
+ * findAllById, which builds managed entities with persistence-context
+ * snapshots. Run with -prof gc to compare allocation per page.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+    
+    private static final int PAGE = 50;
+    
+    private ConfigurableApplicationContext context;
+    private PostRepository postRepository;
+    private long[] postIds;
+    
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start();
+        postRepository = context.getBean(PostRepository.class);
+        List<Long> ids = context.getBean(JdbcTemplate.class)
+                .queryForList("select id from posts order by id desc limit 5000", Long.class);
+        postIds = ids.stream().mapToLong(Long::longValue).toArray();
+    }
+    
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+    
+    @State(Scope.Thread)
+    public static class Window {
+        private int offset;
+        
+        List<Long> next(long[] postIds) {
+            offset = (offset + PAGE) % (postIds.length - PAGE);
+            List<Long> ids = new ArrayList<>(PAGE);
+            for (int i = offset; i < offset + PAGE; i++) {
+                ids.add(postIds[i]);
+            }
+            return ids;
+        }
+    }
+    
+    @Benchmark
+    public List<PostView> views(Window window) {
+        return postRepository.findViewsByIdIn(window.next(postIds));
+    }
+    
+    @Benchmark
+    public List<Post> entities(Window window) {
+        return postRepository.findAllById(window.next(postIds));
+    }
+}
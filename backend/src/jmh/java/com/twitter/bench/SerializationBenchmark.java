@@ -0,0 +1,81 @@
+package com.twitter.bench;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.twitter.model.Notification;
+import com.twitter.model.Post;
+import com.twitter.projection.NotificationView;
+import com.twitter.projection.PostView;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SerializationBenchmark - Jackson serialization of a page of posts and notifications
+ *
+ * Entities as they were returned before the read projections, and the
+ * projections the endpoints return now. Uses an ObjectMapper configured
+ * like Spring Boot's; no application context is needed.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+    
+    @Param({"50"})
+    public int pageSize;
+    
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private List<Post> posts;
+    private List<PostView> postViews;
+    private List<Notification> notifications;
+    private List<NotificationView> notificationViews;
+    
+    @Setup(Level.Trial)
+    public void build() {
+        posts = new ArrayList<>(pageSize);
+        postViews = new ArrayList<>(pageSize);
+        notifications = new ArrayList<>(pageSize);
+        notificationViews = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            long id = SyntheticDataset.userId(i) + 1;
+            long userId = SyntheticDataset.userId(i % 7);
+            String content = "Post " + i + " about java and spring #java";
+            Post post = new Post(userId, content);
+            post.setId(id);
+            posts.add(post);
+            postViews.add(new PostView(id, userId, content, post.getTimestamp()));
+            
+            Notification notification = new Notification(id, userId, "User " + userId + " posted: " + content,
+                    "POST", i % 3 == 0, 1735689600000L + i);
+            notifications.add(notification);
+            notificationViews.add(NotificationView.of(notification));
+        }
+    }
+    
+    @Benchmark
+    public byte[] postEntities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(posts);
+    }
+    
+    @Benchmark
+    public byte[] postViews() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(postViews);
+    }
+    
+    @Benchmark
+    public byte[] notificationEntities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(notifications);
+    }
+    
+    @Benchmark
+    public byte[] notificationViews() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(notificationViews);
+    }
+}
@@ -0,0 +1,116 @@
+package com.twitter.bench;
+
+import com.twitter.id.SnowflakeIdGenerator;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * SyntheticDataset - Deterministic users, follows and posts for benchmarks
+ * SOLID: Single Responsibility - Only generates and inserts benchmark data
+ *
+ * The same seed always produces the same rows with the same IDs, so runs are
+ * comparable across commits and machines. Follow targets are skewed towards
+ * low user indexes (user 0 is the most followed), giving a few accounts
+ * above the benchmark celebrity threshold and a long tail of small ones.
+ *
+ * Sizes can be changed with -Dbench.users, -Dbench.follows-per-user,
+ * -Dbench.posts-per-user and -Dbench.seed (pass them with -jvmArgsAppend).
+ */
+public final class SyntheticDataset {
+    
+    public static final int USERS = Integer.getInteger("bench.users", 5000);
+    public static final int FOLLOWS_PER_USER = Integer.getInteger("bench.follows-per-user", 30);
+    public static final int POSTS_PER_USER = Integer.getInteger("bench.posts-per-user", 10);
+    public static final long SEED = Long.getLong("bench.seed", 42L);
+    
+    /** Fixed clock for all generated rows: 2025-01-01T00:00:00Z */
+    private static final long BASE_TIME = 1735689600000L;
+    private static final long POSTS_TIME = BASE_TIME + 10_000_000L;
+    private static final long FOLLOWS_TIME = BASE_TIME + 20_000_000L;
+    
+    private static final String[] WORDS = {
+        "java", "spring", "coffee", "release", "weekend", "music", "football", "design",
+        "database", "morning", "travel", "books", "deploy", "latency", "garden", "movie"
+    };
+    
+    private static final int BATCH = 5000;
+    
+    private SyntheticDataset() {
+    }
+    
+    /**
+     * ID of the i-th generated user (time-ordered like every other ID)
+     * @param index - 0 .. USERS - 1
+     */
+    public static long userId(int index) {
+        return SnowflakeIdGenerator.minIdAt(BASE_TIME + index);
+    }
+    
+    /**
+     * Insert the whole dataset (the tables must exist and be empty)
+     * @param jdbc - Template on the benchmark database
+     */
+    public static void insert(JdbcTemplate jdbc) {
+        Random random = new Random(SEED);
+        
+        List<Object[]> rows = new ArrayList<>(BATCH);
+        for (int i = 0; i < USERS; i++) {
+            rows.add(new Object[] {userId(i), "user" + i, "user" + i + "@bench.local", "Synthetic user " + i, BASE_TIME + i});
+            rows = flushIfFull(jdbc, "insert into users (id, username, email, bio, created_at) values (?, ?, ?, ?, ?)", rows);
+        }
+        flush(jdbc, "insert into users (id, username, email, bio, created_at) values (?, ?, ?, ?, ?)", rows);
+        
+        String followSql = "insert into follows (id, follower_id, following_id, created_at) values (?, ?, ?, ?)";
+        rows = new ArrayList<>(BATCH);
+        long follow = 0;
+        for (int i = 0; i < USERS; i++) {
+            int count = FOLLOWS_PER_USER / 2 + random.nextInt(FOLLOWS_PER_USER + 1);
+            Set<Integer> targets = new HashSet<>();
+            while (targets.size() < Math.min(count, USERS - 1)) {
+                int target = (int) (USERS * Math.pow(random.nextDouble(), 2.5));
+                if (target != i) {
+                    targets.add(target);
+                }
+            }
+            for (int target : targets) {
+                long createdAt = FOLLOWS_TIME + follow++;
+                rows.add(new Object[] {SnowflakeIdGenerator.minIdAt(createdAt), userId(i), userId(target), createdAt});
+                rows = flushIfFull(jdbc, followSql, rows);
+            }
+        }
+        flush(jdbc, followSql, rows);
+        
+        String postSql = "insert into posts (id, user_id, content, timestamp) values (?, ?, ?, ?)";
+        rows = new ArrayList<>(BATCH);
+        long post = 0;
+        for (int round = 0; round < POSTS_PER_USER; round++) {
+            for (int i = 0; i < USERS; i++) {
+                long timestamp = POSTS_TIME + post++;
+                String content = "Post " + post + " about " + WORDS[random.nextInt(WORDS.length)]
+                        + " and " + WORDS[random.nextInt(WORDS.length)] + " #" + WORDS[random.nextInt(WORDS.length)];
+                rows.add(new Object[] {SnowflakeIdGenerator.minIdAt(timestamp), userId(i), content, timestamp});
+                rows = flushIfFull(jdbc, postSql, rows);
+            }
+        }
+        flush(jdbc, postSql, rows);
+    }
+    
+    private static List<Object[]> flushIfFull(JdbcTemplate jdbc, String sql, List<Object[]> rows) {
+        if (rows.size() < BATCH) {
+            return rows;
+        }
+        flush(jdbc, sql, rows);
+        return new ArrayList<>(BATCH);
+    }
+    
+    private static void flush(JdbcTemplate jdbc, String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbc.batchUpdate(sql, rows);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.twitter.loadgen;
+
+import java.util.Random;
+
+/**
+ * Content - Random post texts with Zipf-distributed hashtags
+ * SOLID: Single Responsibility - Only produces post content
+ *
+ * A skewed hashtag vocabulary gives the trending engine and the search
+ * index realistic hot and cold terms. Texts stay under the 250 character limit.
+ */
+final class Content {
+
+    private static final String[] WORDS = {
+        "java", "spring", "coffee", "release", "weekend", "music", "football", "design",
+        "database", "morning", "travel", "books", "deploy", "latency", "garden", "movie",
+        "night", "city", "launch", "team", "today", "finally", "great", "news"
+    };
+
+    private static final int HASHTAGS = 2000;
+
+    private final ZipfSampler hashtags = new ZipfSampler(HASHTAGS, 1.1);
+
+    /**
+     * Post text of 4 to 20 words, with a hashtag in about a third of the posts
+     */
+    String next(Random random) {
+        StringBuilder text = new StringBuilder();
+        int words = 4 + random.nextInt(17);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        if (random.nextInt(3) == 0) {
+            text.append(" #tag").append(hashtags.sample(random));
+        }
+        return text.toString();
+    }
+}
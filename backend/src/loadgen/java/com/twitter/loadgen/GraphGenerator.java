@@ -0,0 +1,299 @@
+package com.twitter.loadgen;
+
+import com.twitter.id.SnowflakeIdGenerator;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GraphGenerator - Writes a synthetic power-law social graph straight into the H2 schema
+ * SOLID: Single Responsibility - Only generates and inserts the dataset
+ *
+ * - Users sign up evenly over the 30 days before the posting history starts.
+ * - Each user follows an exponentially distributed number of accounts right
+ *   after signing up. Targets are drawn from a Zipf distribution over a
+ *   shuffled popularity ranking, so a handful of accounts get most followers.
+ * - Posts are spread over the last {@code --days} days with a daily cycle and
+ *   random bursts of several minutes at {@code --burst-factor} times the rate.
+ *   Authors are drawn from a second Zipf ranking, so a few users post a lot.
+ *
+ * Rows get snowflake-shaped IDs for their creation time, exactly like rows the
+ * application writes, so time ranges still map to ID ranges. The same seed
+ * always produces the same dataset.
+ *
+ * The application must be stopped (H2 file databases allow one process) and
+ * must have run once, so Hibernate has created the tables. The tables must be
+ * empty. Counters, the social graph index and the search index are rebuilt
+ * from these rows when the application starts.
+ */
+final class GraphGenerator {
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final long SIGNUP_WINDOW = 30 * DAY;
+    private static final int MAX_SEQUENCE = 512;
+
+    private final String jdbcUrl;
+    private final String jdbcUser;
+    private final String jdbcPassword;
+    private final int users;
+    private final double followExponent;
+    private final double meanFollows;
+    private final int maxFollows;
+    private final double activityExponent;
+    private final double meanPosts;
+    private final int days;
+    private final double burstProbability;
+    private final double burstFactor;
+    private final int batchSize;
+    private final long seed;
+
+    GraphGenerator(Options options) {
+        jdbcUrl = options.getString("jdbc-url", "jdbc:h2:file:./data/twitterdb");
+        jdbcUser = options.getString("jdbc-user", "sa");
+        jdbcPassword = options.getString("jdbc-password", "");
+        users = options.getInt("users", 100_000);
+        followExponent = options.getDouble("follow-exponent", 1.0);
+        meanFollows = options.getDouble("mean-follows", 40);
+        maxFollows = options.getInt("max-follows", 5000);
+        activityExponent = options.getDouble("activity-exponent", 0.8);
+        meanPosts = options.getDouble("mean-posts", 10);
+        days = options.getInt("days", 30);
+        burstProbability = options.getDouble("burst-probability", 0.002);
+        burstFactor = options.getDouble("burst-factor", 8);
+        batchSize = options.getInt("batch-size", 10_000);
+        seed = options.getLong("seed", 42L);
+        options.checkAllUsed();
+        if (users < 2 || days < 1 || meanFollows < 1 || meanPosts < 0 || batchSize < 1) {
+            throw new IllegalArgumentException("Need --users >= 2, --days >= 1, --mean-follows >= 1, "
+                    + "--mean-posts >= 0 and --batch-size >= 1");
+        }
+    }
+
+    void run() throws SQLException {
+        long started = System.currentTimeMillis();
+        long postsStart = started - days * DAY;
+        long usersStart = postsStart - SIGNUP_WINDOW;
+
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, jdbcUser, jdbcPassword)) {
+            connection.setAutoCommit(false);
+            checkEmpty(connection);
+
+            long[] userIds = insertUsers(connection, usersStart);
+            int[] followers = new int[users];
+            long follows = insertFollows(connection, userIds, followers);
+            long posts = insertPosts(connection, userIds, postsStart, started);
+
+            Arrays.sort(followers);
+            System.out.printf("Generated %d users, %d follows, %d posts in %d s%n",
+                    users, follows, posts, (System.currentTimeMillis() - started) / 1000);
+            System.out.printf("Followers per user: median %d, p99 %d, max %d%n",
+                    followers[users / 2], followers[(int) (users * 0.99)], followers[users - 1]);
+        }
+    }
+
+    private void checkEmpty(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String table : new String[] {"users", "follows", "posts"}) {
+                try (ResultSet rs = statement.executeQuery("select count(*) from " + table)) {
+                    rs.next();
+                    if (rs.getLong(1) > 0) {
+                        throw new IllegalStateException("Table " + table + " is not empty; "
+                                + "point --jdbc-url at a fresh database");
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot read the schema at " + jdbcUrl + "; start the "
+                    + "application against it once so the tables are created, then stop it", e);
+        }
+    }
+
+    private long[] insertUsers(Connection connection, long usersStart) throws SQLException {
+        long[] userIds = new long[users];
+        IdAllocator ids = new IdAllocator();
+        try (Batch batch = new Batch(connection, "users",
+                "insert into users (id, username, email, bio, created_at) values (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < users; i++) {
+                long id = ids.next(usersStart + i * SIGNUP_WINDOW / users);
+                userIds[i] = id;
+                batch.add(id, "user" + i, "user" + i + "@loadgen.local", "Synthetic user " + i,
+                        SnowflakeIdGenerator.timestampOf(id));
+            }
+        }
+        return userIds;
+    }
+
+    private long insertFollows(Connection connection, long[] userIds, int[] followers) throws SQLException {
+        Random random = new Random(seed);
+        int[] popularity = ZipfSampler.permutation(users, random);
+        ZipfSampler zipf = new ZipfSampler(users, followExponent);
+        int cap = Math.min(maxFollows, users - 1);
+        IdAllocator ids = new IdAllocator();
+        try (Batch batch = new Batch(connection, "follows",
+                "insert into follows (id, follower_id, following_id, created_at) values (?, ?, ?, ?)")) {
+            Set<Integer> targets = new HashSet<>();
+            for (int i = 0; i < users; i++) {
+                // Exponential out-degree: most users follow a few accounts, some follow many
+                int count = (int) Math.min(cap, Math.max(1, Math.round(-meanFollows * Math.log(1 - random.nextDouble()))));
+                targets.clear();
+                for (int attempt = 0; targets.size() < count && attempt < count * 10; attempt++) {
+                    int target = popularity[zipf.sample(random)];
+                    if (target != i) {
+                        targets.add(target);
+                    }
+                }
+                long signedUp = SnowflakeIdGenerator.timestampOf(userIds[i]);
+                for (int target : targets) {
+                    long id = ids.next(signedUp);
+                    batch.add(id, userIds[i], userIds[target], SnowflakeIdGenerator.timestampOf(id));
+                    followers[target]++;
+                }
+            }
+            return batch.rows;
+        }
+    }
+
+    private long insertPosts(Connection connection, long[] userIds, long postsStart, long postsEnd)
+            throws SQLException {
+        Random random = new Random(seed + 1);
+        int[] activity = ZipfSampler.permutation(users, random);
+        ZipfSampler zipf = new ZipfSampler(users, activityExponent);
+        Content content = new Content();
+        double[] rates = minuteRates(random, (int) ((postsEnd - postsStart) / MINUTE), postsStart);
+        IdAllocator ids = new IdAllocator();
+        try (Batch batch = new Batch(connection, "posts",
+                "insert into posts (id, user_id, content, timestamp) values (?, ?, ?, ?)")) {
+            for (int minute = 0; minute < rates.length; minute++) {
+                int[] offsets = new int[poisson(random, rates[minute])];
+                for (int i = 0; i < offsets.length; i++) {
+                    offsets[i] = random.nextInt((int) MINUTE);
+                }
+                Arrays.sort(offsets);
+                for (int offset : offsets) {
+                    long id = ids.next(postsStart + minute * MINUTE + offset);
+                    batch.add(id, userIds[activity[zipf.sample(random)]], content.next(random),
+                            SnowflakeIdGenerator.timestampOf(id));
+                }
+            }
+            return batch.rows;
+        }
+    }
+
+    /**
+     * Expected posts per minute: a daily cycle plus bursts of 1 to 10 minutes,
+     * scaled so the total is users * mean-posts
+     */
+    private double[] minuteRates(Random random, int minutes, long start) {
+        double[] rates = new double[minutes];
+        double total = 0;
+        int burstLeft = 0;
+        for (int m = 0; m < minutes; m++) {
+            if (burstLeft == 0 && random.nextDouble() < burstProbability) {
+                burstLeft = 1 + random.nextInt(10);
+            }
+            double timeOfDay = (double) ((start + m * MINUTE) % DAY) / DAY;
+            rates[m] = (1 + 0.6 * Math.sin(2 * Math.PI * timeOfDay)) * (burstLeft > 0 ? burstFactor : 1);
+            burstLeft = Math.max(0, burstLeft - 1);
+            total += rates[m];
+        }
+        double scale = users * meanPosts / total;
+        for (int m = 0; m < minutes; m++) {
+            rates[m] *= scale;
+        }
+        return rates;
+    }
+
+    private static int poisson(Random random, double mean) {
+        if (mean > 30) {
+            return (int) Math.max(0, Math.round(mean + Math.sqrt(mean) * random.nextGaussian()));
+        }
+        double limit = Math.exp(-mean);
+        double product = random.nextDouble();
+        int count = 0;
+        while (product > limit) {
+            product *= random.nextDouble();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Snowflake-shaped IDs (node 0) for non-decreasing timestamps: rows in the
+     * same millisecond get consecutive sequence numbers, like the live generator
+     */
+    private static final class IdAllocator {
+        private long lastTimestamp = -1;
+        private int sequence;
+
+        long next(long timestamp) {
+            if (timestamp > lastTimestamp) {
+                lastTimestamp = timestamp;
+                sequence = 0;
+            } else if (++sequence == MAX_SEQUENCE) {
+                lastTimestamp++;
+                sequence = 0;
+            }
+            return SnowflakeIdGenerator.minIdAt(lastTimestamp) + sequence;
+        }
+    }
+
+    /**
+     * JDBC batch insert committing every batch-size rows
+     */
+    private final class Batch implements AutoCloseable {
+        private final Connection connection;
+        private final String table;
+        private final PreparedStatement statement;
+        private final long started = System.currentTimeMillis();
+        private int pending;
+        private long rows;
+
+        Batch(Connection connection, String table, String sql) throws SQLException {
+            this.connection = connection;
+            this.table = table;
+            this.statement = connection.prepareStatement(sql);
+        }
+
+        void add(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+            statement.addBatch();
+            rows++;
+            if (++pending == batchSize) {
+                flush();
+                if (rows % 1_000_000 < batchSize) {
+                    System.out.printf("  %s: %d rows%n", table, rows);
+                }
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (pending > 0) {
+                statement.executeBatch();
+                connection.commit();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+            } finally {
+                statement.close();
+            }
+            System.out.printf("Inserted %d %s in %d ms%n", rows, table, System.currentTimeMillis() - started);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.twitter.loadgen;
+
+import java.util.Arrays;
+
+/**
+ * LoadGen - Entry point of the load generation tools
+ * SOLID: Single Responsibility - Only dispatches to the requested tool
+ *
+ * Run through the loadgen Maven profile:
+ *   mvn -Ploadgen verify -Dloadgen.args="generate --users 1000000"
+ *   mvn -Ploadgen verify -Dloadgen.args="replay --rate 500 --duration 120 --label baseline"
+ *   mvn -Ploadgen verify -Dloadgen.args="compare --baseline target/loadgen/baseline/report.json
+ *                                                --candidate target/loadgen/change/report.json"
+ */
+public final class LoadGen {
+
+    private static final String USAGE = String.join("\n",
+            "Usage: LoadGen <tool> [--option value ...]",
+            "",
+            "generate  Write a synthetic social graph into an empty H2 database (application stopped)",
+            "          --jdbc-url jdbc:h2:file:./data/twitterdb  --jdbc-user sa  --jdbc-password ''",
+            "          --users 100000  --mean-follows 40  --max-follows 5000  --follow-exponent 1.0",
+            "          --mean-posts 10  --activity-exponent 0.8  --days 30",
+            "          --burst-probability 0.002  --burst-factor 8  --batch-size 10000  --seed 42",
+            "",
+            "replay    Replay a request mix against a running instance and record latencies",
+            "          --base-url http://localhost:8080/api  --rate 200  --duration 60  --warmup 10",
+            "          --mix post:5,feed:60,follow:5,notifications:30  --max-in-flight 256",
+            "          --user-exponent 1.0  --max-users 0 (all)  --feed-limit 20  --conditional true",
+            "          --burst-every 0 (off)  --burst-length 5  --burst-factor 5  --timeout-ms 30000",
+            "          --seed 42  --out target/loadgen  --label <timestamp>",
+            "",
+            "compare   Compare two replay reports",
+            "          --baseline <report.json>  --candidate <report.json>",
+            "          --max-regression <percent> (exit with 1 if any p99 got worse by more)");
+
+    private LoadGen() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String tool = args.length == 0 ? "help" : args[0];
+        try {
+            Options options = new Options(Arrays.copyOfRange(args, Math.min(1, args.length), args.length));
+            switch (tool) {
+                case "generate":
+                    new GraphGenerator(options).run();
+                    break;
+                case "replay":
+                    new ReplayHarness(options).run();
+                    break;
+                case "compare":
+                    if (!new LoadReport(options).compare()) {
+                        System.out.println("p99 regression above the allowed maximum");
+                        System.exit(1);
+                    }
+                    break;
+                default:
+                    System.out.println(USAGE);
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
+        System.exit(0);
+    }
+}
@@ -0,0 +1,96 @@
+package com.twitter.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * LoadReport - Prints replay reports and compares two runs
+ * SOLID: Single Responsibility - Only reads and presents report.json files
+ */
+final class LoadReport {
+
+    private static final String[] PERCENTILES = {"p50", "p90", "p99", "p99.9", "max"};
+
+    private final String baseline;
+    private final String candidate;
+    private final double maxRegressionPercent;
+
+    LoadReport(Options options) {
+        baseline = options.getString("baseline", null);
+        candidate = options.getString("candidate", null);
+        maxRegressionPercent = options.getDouble("max-regression", -1);
+        options.checkAllUsed();
+        if (baseline == null || candidate == null) {
+            throw new IllegalArgumentException("compare needs --baseline and --candidate report.json files");
+        }
+    }
+
+    /**
+     * Print per-operation deltas of the candidate against the baseline
+     * @return false if --max-regression is set and some operation's p99 got worse by more than that
+     */
+    boolean compare() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode before = mapper.readTree(Paths.get(baseline).toFile());
+        JsonNode after = mapper.readTree(Paths.get(candidate).toFile());
+        System.out.printf("Baseline  %s (%s)%nCandidate %s (%s)%n",
+                before.path("label").asText(), baseline, after.path("label").asText(), candidate);
+        System.out.printf("%-14s %-10s %12s %12s %9s%n", "operation", "metric", "baseline", "candidate", "change");
+
+        boolean ok = compareOperation("all", before.path("all"), after.path("all"));
+        Iterator<Map.Entry<String, JsonNode>> operations = after.path("operations").fields();
+        while (operations.hasNext()) {
+            Map.Entry<String, JsonNode> operation = operations.next();
+            JsonNode old = before.path("operations").path(operation.getKey());
+            if (!old.isMissingNode()) {
+                ok &= compareOperation(operation.getKey(), old, operation.getValue());
+            }
+        }
+        return ok;
+    }
+
+    private boolean compareOperation(String name, JsonNode before, JsonNode after) {
+        row(name, "ops/s", before.path("throughput").asDouble(), after.path("throughput").asDouble());
+        for (String percentile : PERCENTILES) {
+            row(name, percentile, before.path("latencyMs").path(percentile).asDouble(),
+                    after.path("latencyMs").path(percentile).asDouble());
+        }
+        double p99Before = before.path("latencyMs").path("p99").asDouble();
+        double p99After = after.path("latencyMs").path("p99").asDouble();
+        return maxRegressionPercent < 0 || change(p99Before, p99After) <= maxRegressionPercent;
+    }
+
+    private static void row(String operation, String metric, double before, double after) {
+        System.out.printf("%-14s %-10s %12.2f %12.2f %+8.1f%%%n", operation, metric, before, after, change(before, after));
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) * 100 / before;
+    }
+
+    /**
+     * Human-readable summary of a freshly written report
+     */
+    @SuppressWarnings("unchecked")
+    static void print(Map<String, Object> report) {
+        System.out.printf("%-14s %9s %9s %7s %7s %9s %9s %9s %9s%n",
+                "operation", "count", "ops/s", "304", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        Map<String, Object> operations = (Map<String, Object>) report.get("operations");
+        operations.forEach((name, summary) -> printRow(name, (Map<String, Object>) summary));
+        printRow("all", (Map<String, Object>) report.get("all"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void printRow(String name, Map<String, Object> summary) {
+        Map<String, Object> latency = (Map<String, Object>) summary.get("latencyMs");
+        long errors = (long) summary.get("clientErrors") + (long) summary.get("serverErrors") + (long) summary.get("failures");
+        System.out.printf("%-14s %9d %9.1f %7d %7d %9.2f %9.2f %9.2f %9.2f%n", name,
+                summary.get("count"), summary.get("throughput"), summary.get("notModified"), errors,
+                latency.get("p50"), latency.get("p99"), latency.get("p99.9"), latency.get("max"));
+    }
+}
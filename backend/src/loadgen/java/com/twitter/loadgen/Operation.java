@@ -0,0 +1,82 @@
+package com.twitter.loadgen;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Operation - The REST calls the replay harness issues
+ * SOLID: Single Responsibility - Only names the operations and parses the mix
+ */
+enum Operation {
+    /** POST /api/posts */
+    POST,
+    /** GET /api/posts/feed/{userId} (conditional with If-None-Match) */
+    FEED,
+    /** POST /api/follows/follow */
+    FOLLOW,
+    /** GET /api/notifications/{userId} (conditional with If-None-Match) */
+    NOTIFICATIONS;
+
+    String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Weighted choice of operations
+     */
+    static final class Mix {
+        private final Operation[] operations;
+        private final double[] cumulative;
+        private final Map<Operation, Double> weights;
+
+        /**
+         * @param spec - Comma-separated weights, e.g. "post:5,feed:60,follow:5,notifications:30"
+         */
+        Mix(String spec) {
+            weights = new EnumMap<>(Operation.class);
+            for (String part : spec.split(",")) {
+                String[] pair = part.trim().split(":");
+                try {
+                    Operation operation = Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT));
+                    double weight = Double.parseDouble(pair[1].trim());
+                    if (weight < 0 || pair.length != 2) {
+                        throw new IllegalArgumentException();
+                    }
+                    weights.put(operation, weight);
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException("Invalid mix entry '" + part
+                            + "', expected name:weight with name one of post, feed, follow, notifications");
+                }
+            }
+            operations = weights.keySet().toArray(new Operation[0]);
+            cumulative = new double[operations.length];
+            double sum = 0;
+            for (int i = 0; i < operations.length; i++) {
+                sum += weights.get(operations[i]);
+                cumulative[i] = sum;
+            }
+            if (sum <= 0) {
+                throw new IllegalArgumentException("The mix needs at least one positive weight");
+            }
+            for (int i = 0; i < cumulative.length; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        Operation pick(Random random) {
+            double r = random.nextDouble();
+            for (int i = 0; i < operations.length - 1; i++) {
+                if (r < cumulative[i]) {
+                    return operations[i];
+                }
+            }
+            return operations[operations.length - 1];
+        }
+
+        Map<Operation, Double> getWeights() {
+            return weights;
+        }
+    }
+}
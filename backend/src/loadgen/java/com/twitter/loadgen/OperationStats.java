@@ -0,0 +1,124 @@
+package com.twitter.loadgen;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * OperationStats - Latencies and outcomes of one operation type during a replay
+ * SOLID: Single Responsibility - Only records measurements
+ *
+ * Latencies are recorded in microseconds into an HdrHistogram Recorder, which
+ * response threads write to without locking. The reporter thread takes an
+ * interval histogram every tick and adds it to the run total.
+ */
+final class OperationStats {
+
+    /** Highest trackable latency: 10 minutes in microseconds */
+    static final long MAX_LATENCY_MICROS = 600_000_000L;
+
+    private final Operation operation;
+    private final Recorder recorder = new Recorder(MAX_LATENCY_MICROS, 3);
+    private final Histogram total = new Histogram(MAX_LATENCY_MICROS, 3);
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    OperationStats(Operation operation) {
+        this.operation = operation;
+    }
+
+    /**
+     * @param latencyMicros - Time from the intended send time to the response
+     * @param status - HTTP status, or -1 if the request failed without a response
+     */
+    void record(long latencyMicros, int status) {
+        recorder.recordValue(Math.min(latencyMicros, MAX_LATENCY_MICROS));
+        if (status == 304) {
+            notModified.increment();
+        } else if (status >= 200 && status < 300) {
+            ok.increment();
+        } else if (status >= 400 && status < 500) {
+            clientErrors.increment();
+        } else if (status >= 500) {
+            serverErrors.increment();
+        } else {
+            failures.increment();
+        }
+    }
+
+    /**
+     * Latencies recorded since the previous call, also added to the run total
+     * (call from one thread only)
+     */
+    Histogram takeInterval() {
+        Histogram interval = recorder.getIntervalHistogram();
+        interval.setTag(operation.key());
+        total.add(interval);
+        return interval;
+    }
+
+    Histogram getTotal() {
+        return total;
+    }
+
+    /**
+     * Counts, throughput and latency percentiles (milliseconds) of the run so far
+     * @param seconds - Measured duration
+     */
+    Map<String, Object> summary(double seconds) {
+        return summary(total, seconds, ok.sum(), notModified.sum(), clientErrors.sum(), serverErrors.sum(), failures.sum());
+    }
+
+    static Map<String, Object> summary(Histogram histogram, double seconds, long ok, long notModified,
+                                       long clientErrors, long serverErrors, long failures) {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("mean", histogram.getMean() / 1000.0);
+        latency.put("p50", millis(histogram, 50));
+        latency.put("p90", millis(histogram, 90));
+        latency.put("p99", millis(histogram, 99));
+        latency.put("p99.9", millis(histogram, 99.9));
+        latency.put("p99.99", millis(histogram, 99.99));
+        latency.put("max", histogram.getMaxValue() / 1000.0);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", histogram.getTotalCount());
+        summary.put("throughput", seconds > 0 ? histogram.getTotalCount() / seconds : 0.0);
+        summary.put("ok", ok);
+        summary.put("notModified", notModified);
+        summary.put("clientErrors", clientErrors);
+        summary.put("serverErrors", serverErrors);
+        summary.put("failures", failures);
+        summary.put("latencyMs", latency);
+        return summary;
+    }
+
+    long getOk() {
+        return ok.sum();
+    }
+
+    long getNotModified() {
+        return notModified.sum();
+    }
+
+    long getClientErrors() {
+        return clientErrors.sum();
+    }
+
+    long getServerErrors() {
+        return serverErrors.sum();
+    }
+
+    long getFailures() {
+        return failures.sum();
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
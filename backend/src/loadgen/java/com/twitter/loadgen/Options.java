@@ -0,0 +1,81 @@
+package com.twitter.loadgen;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Options - "--name value" command line options of a load generation tool
+ * SOLID: Single Responsibility - Only parses and type-checks options
+ *
+ * Every option a tool reads is remembered, so {@link #checkAllUsed} can
+ * reject typos instead of silently running with the defaults.
+ */
+public final class Options {
+
+    private final Map<String, String> values = new LinkedHashMap<>();
+    private final Set<String> used = new HashSet<>();
+
+    /**
+     * @param args - Arguments after the tool name, e.g. ["--users", "1000000"]
+     */
+    public Options(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 == args.length) {
+                throw new IllegalArgumentException("Expected --name value, got: " + args[i]);
+            }
+            values.put(args[i].substring(2), args[++i]);
+        }
+    }
+
+    public String getString(String name, String defaultValue) {
+        used.add(name);
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    public int getInt(String name, int defaultValue) {
+        String value = getString(name, null);
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " must be an integer: " + value);
+        }
+    }
+
+    public long getLong(String name, long defaultValue) {
+        String value = getString(name, null);
+        try {
+            return value == null ? defaultValue : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " must be an integer: " + value);
+        }
+    }
+
+    public double getDouble(String name, double defaultValue) {
+        String value = getString(name, null);
+        try {
+            return value == null ? defaultValue : Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " must be a number: " + value);
+        }
+    }
+
+    /**
+     * Fail on options no getter asked for (call after reading all options)
+     */
+    public void checkAllUsed() {
+        for (String name : values.keySet()) {
+            if (!used.contains(name)) {
+                throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+    }
+
+    /**
+     * Options as given on the command line, for reports
+     */
+    public Map<String, String> asMap() {
+        return new LinkedHashMap<>(values);
+    }
+}
@@ -0,0 +1,349 @@
+package com.twitter.loadgen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * ReplayHarness - Replays a mix of API calls against a running instance and records latencies
+ * SOLID: Single Responsibility - Only drives load and collects measurements
+ *
+ * Open loop: requests are scheduled at a fixed rate (multiplied by
+ * {@code --burst-factor} during periodic bursts) regardless of how fast the
+ * server answers, and latency is measured from each request's intended send
+ * time. A slow server therefore shows up as queueing in the percentiles
+ * instead of silently lowering the offered load (coordinated omission).
+ * At most {@code --max-in-flight} requests are outstanding; beyond that the
+ * scheduler waits, and the wait is part of the recorded latency. The run
+ * still ends on time; whatever could not be sent is reported as unsent.
+ *
+ * User IDs come from GET /api/export/users. Readers, authors and follow
+ * targets are picked through Zipf rankings, so a few hot users read, write
+ * and gain followers much more than the rest; followers are picked uniformly.
+ * A follow of an account that is already followed is counted as a client error.
+ * Feed and notification polls send If-None-Match with the last ETag seen for
+ * the user, like the clients do, so 304s are counted separately.
+ *
+ * Results go to {@code --out}/{@code --label}: report.json (counts,
+ * throughput and percentiles per operation), latency.hlog (per-second
+ * HdrHistogram interval log tagged by operation) and one percentile
+ * distribution (.hgrm) per operation. Compare runs with the compare tool.
+ */
+final class ReplayHarness {
+
+    private static final DateTimeFormatter LABEL_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Options options;
+    private final String baseUrl;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final double rate;
+    private final int maxInFlight;
+    private final Operation.Mix mix;
+    private final double userExponent;
+    private final int maxUsers;
+    private final int feedLimit;
+    private final boolean conditional;
+    private final int burstEverySeconds;
+    private final int burstSeconds;
+    private final double burstFactor;
+    private final long timeoutMs;
+    private final long seed;
+    private final Path outDir;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final Map<Long, String> feedETags = new ConcurrentHashMap<>();
+    private final Map<Long, String> notificationETags = new ConcurrentHashMap<>();
+    private final Content content = new Content();
+
+    private HttpClient client;
+    private int ticks;
+    private long unsent;
+    private long[] userIds;
+    private int[] activity;
+    private int[] popularity;
+    private ZipfSampler users;
+
+    ReplayHarness(Options options) {
+        this.options = options;
+        baseUrl = options.getString("base-url", "http://localhost:8080/api");
+        durationSeconds = options.getInt("duration", 60);
+        warmupSeconds = options.getInt("warmup", 10);
+        rate = options.getDouble("rate", 200);
+        maxInFlight = options.getInt("max-in-flight", 256);
+        mix = new Operation.Mix(options.getString("mix", "post:5,feed:60,follow:5,notifications:30"));
+        userExponent = options.getDouble("user-exponent", 1.0);
+        maxUsers = options.getInt("max-users", 0);
+        feedLimit = options.getInt("feed-limit", 20);
+        conditional = Boolean.parseBoolean(options.getString("conditional", "true"));
+        burstEverySeconds = options.getInt("burst-every", 0);
+        burstSeconds = options.getInt("burst-length", 5);
+        burstFactor = options.getDouble("burst-factor", 5);
+        timeoutMs = options.getLong("timeout-ms", 30_000);
+        seed = options.getLong("seed", 42L);
+        String label = options.getString("label", LocalDateTime.now().format(LABEL_FORMAT));
+        outDir = Paths.get(options.getString("out", "target/loadgen"), label);
+        options.checkAllUsed();
+        if (durationSeconds < 1 || warmupSeconds < 0 || rate <= 0 || maxInFlight < 1 || burstFactor <= 0) {
+            throw new IllegalArgumentException("Need --duration >= 1, --warmup >= 0, --rate > 0, "
+                    + "--max-in-flight >= 1 and --burst-factor > 0");
+        }
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats(operation));
+        }
+    }
+
+    void run() throws IOException, InterruptedException {
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        loadUsers();
+
+        Files.createDirectories(outDir);
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        Instant startedAt = Instant.now();
+        try (PrintStream hlog = new PrintStream(Files.newOutputStream(outDir.resolve("latency.hlog")))) {
+            HistogramLogWriter logWriter = new HistogramLogWriter(hlog);
+            logWriter.outputLogFormatVersion();
+            logWriter.outputStartTime(startedAt.toEpochMilli());
+            logWriter.outputLegend();
+            reporter.scheduleAtFixedRate(() -> writeIntervals(logWriter), 1, 1, TimeUnit.SECONDS);
+
+            drive();
+
+            reporter.shutdown();
+            reporter.awaitTermination(10, TimeUnit.SECONDS);
+            writeIntervals(logWriter);
+        }
+        writeReport(startedAt, durationSeconds);
+    }
+
+    /**
+     * Issue requests on schedule until the run is over and all responses are in.
+     * If max-in-flight requests are still outstanding when the run ends, the
+     * rest of the schedule is counted as unsent instead of being sent late.
+     */
+    private void drive() throws InterruptedException {
+        Random random = new Random(seed + 2);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+        long measuredSince = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measuredSince + TimeUnit.SECONDS.toNanos(durationSeconds);
+        System.out.printf("Replaying %.0f ops/s for %d s (+%d s warm-up) against %s%n",
+                rate, durationSeconds, warmupSeconds, baseUrl);
+
+        long intended = start;
+        while (intended < end) {
+            long delay = intended - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+                continue;
+            }
+            Operation operation = mix.pick(random);
+            long userId = operation == Operation.FOLLOW
+                    ? userIds[random.nextInt(userIds.length)]
+                    : pickUser(random, activity);
+            HttpRequest request = request(operation, userId, random);
+            boolean measured = intended >= measuredSince;
+            long sentAt = intended;
+            if (!inFlight.tryAcquire(Math.max(0, end - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                break;  // stalled until the end of the run
+            }
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        inFlight.release();
+                        long latency = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sentAt);
+                        if (response != null) {
+                            rememberETag(operation, userId, response);
+                        }
+                        if (measured) {
+                            stats.get(operation).record(latency, response != null ? response.statusCode() : -1);
+                        }
+                    });
+            intended += inBurst(intended - start) ? (long) (interval / burstFactor) : interval;
+        }
+        // Requests the schedule called for but that could not be sent before the end
+        for (; intended < end; unsent++) {
+            intended += inBurst(intended - start) ? (long) (interval / burstFactor) : interval;
+        }
+        if (!inFlight.tryAcquire(maxInFlight, timeoutMs, TimeUnit.MILLISECONDS)) {
+            System.out.println("Gave up waiting for " + (maxInFlight - inFlight.availablePermits()) + " responses");
+        }
+    }
+
+    private boolean inBurst(long elapsedNanos) {
+        if (burstEverySeconds <= 0) {
+            return false;
+        }
+        long second = TimeUnit.NANOSECONDS.toSeconds(elapsedNanos) % burstEverySeconds;
+        return second >= burstEverySeconds - burstSeconds;
+    }
+
+    private HttpRequest request(Operation operation, long userId, Random random) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(Duration.ofMillis(timeoutMs));
+        switch (operation) {
+            case POST:
+                return builder.uri(URI.create(baseUrl + "/posts"))
+                        .header("Content-Type", "application/json")
+                        .POST(json(Map.of("userId", userId, "content", content.next(random))))
+                        .build();
+            case FOLLOW:
+                long followingId = pickUser(random, popularity);
+                return builder.uri(URI.create(baseUrl + "/follows/follow"))
+                        .header("Content-Type", "application/json")
+                        .POST(json(Map.of("followerId", userId, "followingId", followingId)))
+                        .build();
+            case FEED:
+                builder.uri(URI.create(baseUrl + "/posts/feed/" + userId + "?limit=" + feedLimit + "&expand=author"));
+                return conditional(builder, feedETags.get(userId)).GET().build();
+            case NOTIFICATIONS:
+                builder.uri(URI.create(baseUrl + "/notifications/" + userId + "?limit=" + feedLimit));
+                return conditional(builder, notificationETags.get(userId)).GET().build();
+            default:
+                throw new IllegalStateException("Unknown operation " + operation);
+        }
+    }
+
+    private HttpRequest.Builder conditional(HttpRequest.Builder builder, String etag) {
+        if (conditional && etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+        return builder;
+    }
+
+    private void rememberETag(Operation operation, long userId, HttpResponse<?> response) {
+        Map<Long, String> etags = operation == Operation.FEED ? feedETags
+                : operation == Operation.NOTIFICATIONS ? notificationETags : null;
+        if (etags != null) {
+            response.headers().firstValue("ETag").ifPresent(etag -> etags.put(userId, etag));
+        }
+    }
+
+    private HttpRequest.BodyPublisher json(Map<String, Object> body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long pickUser(Random random, int[] ranking) {
+        return userIds[ranking[users.sample(random)]];
+    }
+
+    /**
+     * Read user IDs from the NDJSON export and build the Zipf rankings
+     */
+    private void loadUsers() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/export/users")).build();
+        HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET /export/users returned " + response.statusCode());
+        }
+        List<Long> ids = new ArrayList<>();
+        try (Stream<String> lines = response.body()) {
+            Iterator<String> it = lines.iterator();
+            while (it.hasNext() && (maxUsers <= 0 || ids.size() < maxUsers)) {
+                ids.add(mapper.readTree(it.next()).get("id").asLong());
+            }
+        }
+        if (ids.size() < 2) {
+            throw new IllegalStateException("Need at least 2 users at " + baseUrl + ", run generate first");
+        }
+        userIds = ids.stream().mapToLong(Long::longValue).toArray();
+        Random random = new Random(seed + 3);
+        activity = ZipfSampler.permutation(userIds.length, random);
+        popularity = ZipfSampler.permutation(userIds.length, random);
+        users = new ZipfSampler(userIds.length, userExponent);
+        System.out.printf("Loaded %d user IDs%n", userIds.length);
+    }
+
+    private void writeIntervals(HistogramLogWriter logWriter) {
+        long count = 0;
+        for (OperationStats operationStats : stats.values()) {
+            Histogram interval = operationStats.takeInterval();
+            count += interval.getTotalCount();
+            logWriter.outputIntervalHistogram(interval);
+        }
+        if (count > 0 && ++ticks % 10 == 0) {
+            OperationStats feed = stats.get(Operation.FEED);
+            System.out.printf("  %d ops in the last second, feed p99 so far %.1f ms%n",
+                    count, feed.getTotal().getValueAtPercentile(99) / 1000.0);
+        }
+    }
+
+    private void writeReport(Instant startedAt, double seconds) throws IOException {
+        Histogram all = new Histogram(OperationStats.MAX_LATENCY_MICROS, 3);
+        long ok = 0, notModified = 0, clientErrors = 0, serverErrors = 0, failures = 0;
+        Map<String, Object> operations = new LinkedHashMap<>();
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats s = entry.getValue();
+            if (s.getTotal().getTotalCount() == 0) {
+                continue;
+            }
+            operations.put(entry.getKey().key(), s.summary(seconds));
+            all.add(s.getTotal());
+            ok += s.getOk();
+            notModified += s.getNotModified();
+            clientErrors += s.getClientErrors();
+            serverErrors += s.getServerErrors();
+            failures += s.getFailures();
+            try (PrintStream out = new PrintStream(Files.newOutputStream(outDir.resolve(entry.getKey().key() + ".hgrm")))) {
+                s.getTotal().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+
+        Map<String, Object> mixWeights = new LinkedHashMap<>();
+        mix.getWeights().forEach((operation, weight) -> mixWeights.put(operation.key(), weight));
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", outDir.getFileName().toString());
+        report.put("startedAt", startedAt.toString());
+        report.put("baseUrl", baseUrl);
+        report.put("options", options.asMap());
+        report.put("users", userIds.length);
+        report.put("targetRate", rate);
+        report.put("mix", mixWeights);
+        report.put("measuredSeconds", seconds);
+        report.put("unsent", unsent);
+        report.put("all", OperationStats.summary(all, seconds, ok, notModified, clientErrors, serverErrors, failures));
+        report.put("operations", operations);
+        mapper.writerWithDefaultPrettyPrinter().writeValue(outDir.resolve("report.json").toFile(), report);
+
+        LoadReport.print(report);
+        if (unsent > 0) {
+            System.out.println(unsent + " scheduled requests were not sent: the server fell behind by max-in-flight requests");
+        }
+        System.out.println("Report written to " + outDir.toAbsolutePath());
+    }
+}
@@ -0,0 +1,63 @@
+package com.twitter.loadgen;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * ZipfSampler - Draws ranks 0 .. n - 1 with P(rank k) proportional to 1 / (k + 1)^s
+ * SOLID: Single Responsibility - Only samples a Zipf distribution
+ *
+ * Keeps the cumulative distribution (8 bytes per rank) and binary-searches
+ * it, so a draw is O(log n) and exactly reproducible for a given Random.
+ * Rank 0 is the most popular; callers map ranks to entities through a
+ * shuffled permutation so popularity is not tied to creation order.
+ */
+public final class ZipfSampler {
+
+    private final double[] cumulative;
+
+    /**
+     * @param n - Number of ranks
+     * @param exponent - Skew s (0 is uniform, around 1 matches follower counts)
+     */
+    public ZipfSampler(int n, double exponent) {
+        if (n <= 0 || exponent < 0) {
+            throw new IllegalArgumentException("Zipf needs n > 0 and exponent >= 0");
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= sum;
+        }
+    }
+
+    /**
+     * @return Rank in 0 .. n - 1
+     */
+    public int sample(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cumulative.length - 1);
+    }
+
+    /**
+     * Random permutation of 0 .. n - 1 (Fisher-Yates), mapping ranks to entities
+     */
+    public static int[] permutation(int n, Random random) {
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) {
+            perm[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = perm[i];
+            perm[i] = perm[j];
+            perm[j] = swap;
+        }
+        return perm;
+    }
+}
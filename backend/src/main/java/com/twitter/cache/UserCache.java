@@ -0,0 +1,200 @@
+package com.twitter.cache;
+
+import com.twitter.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * UserCache - Bounded in-memory cache of users by ID and by username
+ * SOLID: Single Responsibility - Only keeps recently read users in memory
+ *
+ * Users are the most re-read rows (clients resolve the author of every
+ * rendered post), and they almost never change.
+ *
+ * - Entries expire a fixed time after they were loaded.
+ * - A global entry budget; when it is exceeded the least recently read users
+ *   are evicted.
+ * - Usernames map to IDs, so both lookups share one copy of each user.
+ * - Callers get their own copy, so mutating a returned User never changes the cache.
+ * - Loads race with invalidations: a load started before an invalidation is
+ *   not cached (see {@link #beginLoad}), so a stale row can never be put back.
+ */
+@Component
+public class UserCache {
+    
+    @Value("${users.cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${users.cache.max-entries:100000}")
+    private int maxEntries;
+    
+    @Value("${users.cache.ttl-ms:600000}")
+    private long ttlMs;
+    
+    private final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+    private final Map<String, Long> idByUsername = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    
+    /**
+     * Cached user by ID
+     * @param id - User ID
+     * @return Copy of the user, or null on a miss
+     */
+    public User get(Long id) {
+        Entry entry = enabled ? byId.get(id) : null;
+        return hit(entry);
+    }
+    
+    /**
+     * Cached user by username
+     * @param username - Username
+     * @return Copy of the user, or null on a miss
+     */
+    public User getByUsername(String username) {
+        Long id = enabled ? idByUsername.get(username) : null;
+        Entry entry = id == null ? null : byId.get(id);
+        if (entry != null && !entry.user.getUsername().equals(username)) {
+            entry = null;
+        }
+        return hit(entry);
+    }
+    
+    /**
+     * Take a token before reading a user from the database; pass it to {@link #put}
+     */
+    public long beginLoad() {
+        return invalidationCount.get();
+    }
+    
+    /**
+     * Cache a user read from the database, unless something was invalidated since the read began
+     * @param user - User as loaded
+     * @param loadToken - Token from {@link #beginLoad}
+     */
+    public void put(User user, long loadToken) {
+        if (!enabled || user == null || user.getId() == null) {
+            return;
+        }
+        Entry entry = new Entry(copy(user), System.currentTimeMillis() + ttlMs);
+        entry.lastAccess = clock.incrementAndGet();
+        synchronized (this) {
+            if (invalidationCount.get() != loadToken) {
+                return;
+            }
+            byId.put(user.getId(), entry);
+            idByUsername.put(user.getUsername(), user.getId());
+        }
+        evictIfNeeded();
+    }
+    
+    /**
+     * Drop a user after it changed
+     * @param id - User ID
+     */
+    public void invalidate(Long id) {
+        synchronized (this) {
+            invalidationCount.incrementAndGet();
+            Entry entry = byId.remove(id);
+            if (entry != null) {
+                idByUsername.remove(entry.user.getUsername(), id);
+                invalidations.increment();
+            }
+        }
+    }
+    
+    /**
+     * Hit/miss/eviction counters and current size
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("entries", byId.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlMs", ttlMs);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+    
+    private User hit(Entry entry) {
+        if (entry != null && entry.expiresAt < System.currentTimeMillis()) {
+            if (byId.remove(entry.user.getId(), entry)) {
+                idByUsername.remove(entry.user.getUsername(), entry.user.getId());
+                expirations.increment();
+            }
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        entry.lastAccess = clock.incrementAndGet();
+        hits.increment();
+        return copy(entry.user);
+    }
+    
+    /**
+     * Evict the least recently read users once the entry budget is exceeded.
+     * Only one thread evicts at a time; it frees a tenth of the budget so the scan is amortized.
+     */
+    private void evictIfNeeded() {
+        if (byId.size() <= maxEntries || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int target = maxEntries - maxEntries / 10;
+            List<Map.Entry<Long, Entry>> entries = new ArrayList<>(byId.entrySet());
+            entries.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+            for (Map.Entry<Long, Entry> entry : entries) {
+                if (byId.size() <= target) {
+                    break;
+                }
+                if (byId.remove(entry.getKey(), entry.getValue())) {
+                    idByUsername.remove(entry.getValue().user.getUsername(), entry.getKey());
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+    
+    private static User copy(User user) {
+        return new User(user.getId(), user.getUsername(), user.getEmail(), user.getBio(), user.getCreatedAt());
+    }
+    
+    private static final class Entry {
+        private final User user;
+        private final long expiresAt;
+        private volatile long lastAccess;
+        
+        Entry(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.twitter.config;
 
+import com.twitter.pagination.CursorPage;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.cors.CorsConfiguration;
@@ -26,6 +27,10 @@ public class CorsConfig {
         // Allow all headers
         configuration.addAllowedHeader("*");
         
+        // Let clients read pagination cursors
+        configuration.addExposedHeader(CursorPage.NEXT_CURSOR_HEADER);
+        configuration.addExposedHeader(CursorPage.PREV_CURSOR_HEADER);
+        
         // Allow credentials (cookies, auth headers)
         configuration.setAllowCredentials(true);
         
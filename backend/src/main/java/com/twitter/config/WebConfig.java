@@ -21,7 +21,9 @@
 
 package com.twitter.config;
 
+import com.twitter.pagination.CursorPage;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -34,6 +36,7 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedOrigins("http://localhost:3000")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
-                .allowCredentials(true);
+                .allowCredentials(true)
+                .exposedHeaders(CursorPage.NEXT_CURSOR_HEADER, CursorPage.PREV_CURSOR_HEADER, HttpHeaders.ETAG);
     }
 }
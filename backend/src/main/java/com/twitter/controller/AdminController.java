@@ -0,0 +1,106 @@
+package com.twitter.controller;
+
+import com.twitter.cache.UserCache;
+import com.twitter.counter.UserCounterStore;
+import com.twitter.feed.HomeTimelineStore;
+import com.twitter.graph.SocialGraphIndex;
+import com.twitter.notification.NotificationCoalescer;
+import com.twitter.notification.NotificationCompactor;
+import com.twitter.notification.NotificationFanoutEngine;
+import com.twitter.notification.NotificationStore;
+import com.twitter.notification.NotificationStreamHub;
+import com.twitter.search.PostSearchIndex;
+import com.twitter.trends.TrendingEngine;
+import com.twitter.version.ResourceVersions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * AdminController - Read-only operational endpoints
+ * SOLID: Single Responsibility - Only exposes internal cache/queue statistics
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+    
+    @Autowired
+    private NotificationStore notificationStore;
+    
+    @Autowired
+    private HomeTimelineStore timelineStore;
+    
+    @Autowired
+    private NotificationFanoutEngine fanoutEngine;
+    
+    @Autowired
+    private NotificationStreamHub notificationStreamHub;
+    
+    @Autowired
+    private NotificationCoalescer notificationCoalescer;
+    
+    @Autowired
+    private NotificationCompactor notificationCompactor;
+    
+    @Autowired
+    private UserCounterStore userCounterStore;
+    
+    @Autowired
+    private UserCache userCache;
+    
+    @Autowired
+    private SocialGraphIndex socialGraphIndex;
+    
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+    
+    @Autowired
+    private TrendingEngine trendingEngine;
+    
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
+    /**
+     * GET /api/admin/stats
+     * Hit/miss/eviction stats of the in-memory stores and fan-out queue depth
+     */
+    @GetMapping("/stats")
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("notificationStore", notificationStore.getStats());
+        stats.put("homeTimelines", Map.of("users", timelineStore.size()));
+        stats.put("fanoutQueueDepth", fanoutEngine.getQueueDepth());
+        stats.put("notificationStreams", notificationStreamHub.getConnectionCount());
+        stats.put("notificationCoalescer", notificationCoalescer.getStats());
+        stats.put("notificationRetention", notificationCompactor.getStats());
+        stats.put("userCounters", userCounterStore.getStats());
+        stats.put("userCache", userCache.getStats());
+        stats.put("socialGraph", socialGraphIndex.getStats());
+        stats.put("searchIndex", postSearchIndex.getStats());
+        stats.put("trends", trendingEngine.getStats());
+        stats.put("resourceVersions", resourceVersions.getStats());
+        return stats;
+    }
+    
+    /**
+     * POST /api/admin/counters/reconcile
+     * Recompute all materialized counters from the source tables now
+     */
+    @PostMapping("/counters/reconcile")
+    public Map<String, Object> reconcileCounters() {
+        userCounterStore.reconcile();
+        return userCounterStore.getStats();
+    }
+    
+    /**
+     * POST /api/admin/notifications/compact
+     * Delete notifications past their retention TTL now
+     */
+    @PostMapping("/notifications/compact")
+    public Map<String, Object> compactNotifications() {
+        notificationCompactor.compact();
+        return notificationCompactor.getStats();
+    }
+}
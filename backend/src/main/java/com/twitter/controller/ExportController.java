@@ -0,0 +1,83 @@
+package com.twitter.controller;
+
+import com.twitter.export.NdjsonExporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ExportController - Bulk export of whole tables as newline-delimited JSON
+ * SOLID: Single Responsibility - Only handles export HTTP requests
+ *
+ * Rows are streamed straight from the database to the response, one JSON
+ * object per line, so an export of any size runs in constant memory.
+ * Compressed with gzip when the client sends {@code Accept-Encoding: gzip}.
+ */
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+    
+    private static final String NDJSON = "application/x-ndjson";
+    
+    @Autowired
+    private NdjsonExporter exporter;
+    
+    /**
+     * GET /api/export/posts?since={epochMillis}
+     * All posts (oldest first), optionally only those created since a time
+     */
+    @GetMapping("/posts")
+    public void exportPosts(@RequestParam(defaultValue = "0") long since,
+                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                            HttpServletResponse response) throws IOException {
+        try (OutputStream out = open(response, acceptEncoding, "posts")) {
+            exporter.exportPosts(since, out);
+        }
+    }
+    
+    /**
+     * GET /api/export/users?since={epochMillis}
+     * All users (oldest first), optionally only those created since a time
+     */
+    @GetMapping("/users")
+    public void exportUsers(@RequestParam(defaultValue = "0") long since,
+                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                            HttpServletResponse response) throws IOException {
+        try (OutputStream out = open(response, acceptEncoding, "users")) {
+            exporter.exportUsers(since, out);
+        }
+    }
+    
+    /**
+     * GET /api/export/follows?since={epochMillis}
+     * All follow relationships (oldest first), optionally only those created since a time
+     */
+    @GetMapping("/follows")
+    public void exportFollows(@RequestParam(defaultValue = "0") long since,
+                              @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                              HttpServletResponse response) throws IOException {
+        try (OutputStream out = open(response, acceptEncoding, "follows")) {
+            exporter.exportFollows(since, out);
+        }
+    }
+    
+    /**
+     * Set the export headers and return the (possibly gzip-wrapped) body stream
+     */
+    private OutputStream open(HttpServletResponse response, String acceptEncoding, String name) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + ".ndjson\"");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip")) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new GZIPOutputStream(response.getOutputStream(), 8192);
+        }
+        return response.getOutputStream();
+    }
+}
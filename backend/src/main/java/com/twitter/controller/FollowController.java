@@ -1,11 +1,11 @@
 package com.twitter.controller;
 
 import com.twitter.service.FollowService;
-import com.twitter.model.Post;
+import com.twitter.service.PostService;
+import com.twitter.pagination.PageQuery;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -19,6 +19,9 @@ public class FollowController {
     @Autowired
     private FollowService followService;
     
+    @Autowired
+    private PostService postService;
+    
     /**
      * POST /api/follows/follow
      * Follow a user
@@ -54,40 +57,66 @@ public class FollowController {
     }
     
     /**
-     * GET /api/follows/{userId}/following
-     * Get list of users this person is following
+     * GET /api/follows/{userId}/following?after={userId}&limit=1000
+     * Get list of users this person is following (paged by user ID; all of them when no limit is given)
      */
     @GetMapping("/{userId}/following")
-    public ResponseEntity<?> getFollowing(@PathVariable Long userId) {
+    public ResponseEntity<?> getFollowing(@PathVariable Long userId,
+                                          @RequestParam(defaultValue = "0") long after,
+                                          @RequestParam(required = false) Integer limit) {
         try {
-            return ResponseEntity.ok(followService.getFollowing(userId));
+            int pageSize = limit != null ? Math.max(0, limit) : Integer.MAX_VALUE;
+            return ResponseEntity.ok(followService.getFollowing(userId, after, pageSize));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
     
     /**
-     * GET /api/follows/{userId}/followers
-     * Get followers of this user
+     * GET /api/follows/{userId}/followers?after={userId}&limit=1000
+     * Get followers of this user (paged by user ID; all of them when no limit is given)
      */
     @GetMapping("/{userId}/followers")
-    public ResponseEntity<?> getFollowers(@PathVariable Long userId) {
+    public ResponseEntity<?> getFollowers(@PathVariable Long userId,
+                                          @RequestParam(defaultValue = "0") long after,
+                                          @RequestParam(required = false) Integer limit) {
+        try {
+            int pageSize = limit != null ? Math.max(0, limit) : Integer.MAX_VALUE;
+            return ResponseEntity.ok(followService.getFollowers(userId, after, pageSize));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * GET /api/follows/{userId}/counts
+     * Get follower, following and post counts (materialized counters, constant time)
+     */
+    @GetMapping("/{userId}/counts")
+    public ResponseEntity<?> getCounts(@PathVariable Long userId) {
         try {
-            return ResponseEntity.ok(followService.getFollowers(userId));
+            return ResponseEntity.ok(Map.of(
+                    "userId", userId,
+                    "followers", followService.getFollowerCount(userId),
+                    "following", followService.getFollowingCount(userId),
+                    "posts", postService.getPostCount(userId)));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
     
     /**
-     * GET /api/follows/{userId}/feed
+     * GET /api/follows/{userId}/feed?limit=50&before={cursor}
      * Get feed (posts from followed users) - OBSERVER PATTERN IN ACTION
+     * Assembled by the feed query engine, without the home timeline cache
      */
     @GetMapping("/{userId}/feed")
-    public ResponseEntity<?> getUserFeed(@PathVariable Long userId) {
+    public ResponseEntity<?> getUserFeed(@PathVariable Long userId,
+                                         @RequestParam(required = false) String before,
+                                         @RequestParam(required = false) String after,
+                                         @RequestParam(required = false) Integer limit) {
         try {
-            List<Post> feed = followService.getUserFeed(userId);
-            return ResponseEntity.ok(feed);
+            return followService.getUserFeed(userId, PageQuery.of(before, after, limit)).toResponseEntity();
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -1,10 +1,22 @@
 package com.twitter.controller;
 
+import com.twitter.id.SnowflakeIdGenerator;
 import com.twitter.model.Notification;
+import com.twitter.notification.NotificationStreamHub;
+import com.twitter.pagination.Cursor;
+import com.twitter.pagination.PageQuery;
+import com.twitter.projection.NotificationView;
 import com.twitter.service.NotificationService;
+import com.twitter.version.ResourceType;
+import com.twitter.version.ResourceVersions;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
@@ -20,15 +32,66 @@ public class NotificationController {
     @Autowired
     private NotificationService notificationService;
     
+    @Autowired
+    private NotificationStreamHub notificationStreamHub;
+    
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
     /**
-     * Get all notifications for a user
-     * GET /api/notifications/{userId}
+     * Get notifications for a user (newest first, cursor-paginated)
+     * GET /api/notifications/{userId}?limit=50&before={cursor}
      * @param userId - User ID
-     * @return List of notifications
+     * @param before - Cursor for older notifications (optional)
+     * @param after - Cursor for newer notifications (optional)
+     * @param limit - Page size (optional)
+     * @return List of notifications, with X-Next-Cursor / X-Prev-Cursor headers and an ETag
+     *         (304 without a body when If-None-Match matches)
      */
     @GetMapping("/{userId}")
-    public List<Notification> getUserNotifications(@PathVariable Long userId) {
-        return notificationService.getUserNotifications(userId);
+    public ResponseEntity<?> getUserNotifications(@PathVariable Long userId,
+                                                  @RequestParam(required = false) String before,
+                                                  @RequestParam(required = false) String after,
+                                                  @RequestParam(required = false) Integer limit,
+                                                  WebRequest webRequest) {
+        String etag = resourceVersions.etag(ResourceType.NOTIFICATIONS, userId);
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        try {
+            return notificationService.getUserNotifications(userId, PageQuery.of(before, after, limit))
+                    .toResponseEntity();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Stream new notifications and unread-count changes (Server-Sent Events)
+     * GET /api/notifications/{userId}/stream
+     * Events: "notification" (id = opaque stream position), "unread-count", "resync"
+     * @param userId - User ID
+     * @param lastEventId - Last-Event-ID header sent by reconnecting clients (optional)
+     * @param lastEventIdParam - Same as a query parameter, for clients that cannot set headers (optional)
+     * @return Open event stream (400 on a malformed event ID, 503 when the stream limit is reached)
+     */
+    @GetMapping("/{userId}/stream")
+    public ResponseEntity<SseEmitter> streamNotifications(@PathVariable Long userId,
+                                                 @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                                 @RequestParam(value = "lastEventId", required = false) String lastEventIdParam) {
+        String resumeFrom = lastEventId != null ? lastEventId : lastEventIdParam;
+        try {
+            SseEmitter emitter = notificationStreamHub.open(userId, parseEventId(resumeFrom));
+            return ResponseEntity.ok()
+                    .header("Cache-Control", "no-cache")
+                    .header("X-Accel-Buffering", "no")
+                    .body(emitter);
+        } catch (IllegalArgumentException e) {
+            // An event stream response cannot carry a JSON error body
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
     }
     
     /**
@@ -52,7 +115,7 @@ public class NotificationController {
      * @return List of unread notifications
      */
     @GetMapping("/{userId}/unread")
-    public List<Notification> getUnreadNotifications(@PathVariable Long userId) {
+    public List<NotificationView> getUnreadNotifications(@PathVariable Long userId) {
         return notificationService.getUnreadNotifications(userId);
     }
     
@@ -67,6 +130,59 @@ public class NotificationController {
         return notificationService.markAsRead(id);
     }
     
+    /**
+     * Mark all of a user's notifications as read
+     * POST /api/notifications/{userId}/read-all
+     * @param userId - User ID
+     * @return Number of notifications marked
+     */
+    @PostMapping("/{userId}/read-all")
+    public Map<String, Object> markAllAsRead(@PathVariable Long userId) {
+        return Map.of("userId", userId, "marked", notificationService.markAllAsRead(userId));
+    }
+    
+    /**
+     * Mark a user's notifications up to (and including) an ID as read
+     * POST /api/notifications/{userId}/read-up-to/{id}
+     * @param userId - User ID
+     * @param id - Newest notification ID the client has seen
+     * @return Number of notifications marked
+     */
+    @PostMapping("/{userId}/read-up-to/{id}")
+    public Map<String, Object> markAsReadUpTo(@PathVariable Long userId, @PathVariable Long id) {
+        return Map.of("userId", userId, "marked", notificationService.markAsReadUpTo(userId, id));
+    }
+    
+    /**
+     * Delete many notifications of a user at once
+     * POST /api/notifications/{userId}/delete
+     * Body: {"ids": [1, 2, 3]} or {"olderThan": epochMillis}
+     * @param userId - User ID
+     * @param request - IDs to delete, or a cut-off time
+     * @return Number of notifications deleted
+     */
+    @PostMapping("/{userId}/delete")
+    public ResponseEntity<?> deleteNotifications(@PathVariable Long userId, @RequestBody Map<String, Object> request) {
+        try {
+            int deleted;
+            if (request.get("ids") instanceof List) {
+                List<Long> ids = new ArrayList<>();
+                for (Object id : (List<?>) request.get("ids")) {
+                    ids.add(Long.parseLong(id.toString()));
+                }
+                deleted = notificationService.deleteNotifications(userId, ids);
+            } else if (request.get("olderThan") != null) {
+                long olderThan = Long.parseLong(request.get("olderThan").toString());
+                deleted = notificationService.deleteNotificationsOlderThan(userId, olderThan);
+            } else {
+                return ResponseEntity.badRequest().body(Map.of("error", "Provide \"ids\" or \"olderThan\""));
+            }
+            return ResponseEntity.ok(Map.of("userId", userId, "deleted", deleted));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid number: " + e.getMessage()));
+        }
+    }
+    
     /**
      * Delete a notification
      * DELETE /api/notifications/{id}
@@ -80,4 +196,20 @@ public class NotificationController {
         response.put("message", "Notification deleted successfully");
         return response;
     }
+
+    /**
+     * Stream position from a Last-Event-ID. Streams opened before event IDs
+     * became cursors sent plain notification IDs; a generated ID encodes its
+     * creation time, which is close enough to resume from.
+     */
+    private static Cursor parseEventId(String eventId) {
+        if (eventId == null || eventId.isEmpty()) {
+            return null;
+        }
+        if (eventId.chars().allMatch(Character::isDigit)) {
+            long id = Long.parseLong(eventId);
+            return Cursor.of(SnowflakeIdGenerator.isGenerated(id) ? SnowflakeIdGenerator.timestampOf(id) : 0, id);
+        }
+        return Cursor.decode(eventId);
+    }
 }
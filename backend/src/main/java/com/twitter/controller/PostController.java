@@ -1,22 +1,29 @@
 package com.twitter.controller;
 
 import com.twitter.model.Post;
-import com.twitter.model.Follow;
+import com.twitter.projection.PostView;
 import com.twitter.service.PostService;
-import com.twitter.service.FollowService;
-import com.twitter.notification.NotificationManager;
-import com.twitter.model.Notification;
+import com.twitter.service.FeedService;
+import com.twitter.service.UserService;
+import com.twitter.pagination.CursorPage;
+import com.twitter.pagination.PageQuery;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.util.ArrayList;
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * PostController - REST API Endpoints for Posts
  * SOLID: Single Responsibility - Only handles post HTTP requests
  * Triggers Observer Pattern: When post is created, notifies followers
+ *
+ * List endpoints accept {@code ?expand=author}: the body becomes
+ * {"items": [...], "authors": {userId: {id, username, bio}}} so a page renders
+ * without one /api/users/{id} call per post.
  */
 @RestController
 @RequestMapping("/api/posts")
@@ -26,15 +33,15 @@ public class PostController {
     private PostService postService;
     
     @Autowired
-    private FollowService followService;
+    private FeedService feedService;
     
     @Autowired
-    private NotificationManager notificationManager;
+    private UserService userService;
     
     /**
      * POST /api/posts
      * Create a new post
-     * OBSERVER PATTERN: Notifies all followers of this post
+     * OBSERVER PATTERN: Followers are notified asynchronously by NotificationFanoutEngine
      */
     @PostMapping
     public ResponseEntity<?> createPost(@RequestBody Map<String, Object> request) {
@@ -42,22 +49,9 @@ public class PostController {
             Long userId = Long.parseLong(request.get("userId").toString());
             String content = request.get("content").toString();
             
-            // Create post
+            // Create post (returns once it is durable; fan-out is queued)
             Post post = postService.createPost(userId, content);
             
-            // OBSERVER PATTERN: Notify all followers
-            // ✅ FIX: Convert List<Follow> to List<Long>
-            List<Follow> followersList = followService.getFollowers(userId);
-            for (Follow follow : followersList) {
-                Long followerId = follow.getFollowerId();
-                Notification notification = new Notification(
-                    followerId,
-                    "New post from user " + userId + ": " + content,
-                    "POST"
-                );
-                notificationManager.notifyListeners(notification);
-            }
-            
             return ResponseEntity.ok(post);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -65,56 +59,96 @@ public class PostController {
     }
     
     /**
-     * GET /api/posts
-     * Get all posts
+     * GET /api/posts?limit=50&before={cursor}&expand=author
+     * Get all posts (newest first, cursor-paginated)
+     * Cursors for the next/previous page are returned in X-Next-Cursor / X-Prev-Cursor
      */
     @GetMapping
-    public ResponseEntity<List<Post>> getAllPosts() {
-        return ResponseEntity.ok(postService.getAllPosts());
+    public ResponseEntity<?> getAllPosts(@RequestParam(required = false) String before,
+                                         @RequestParam(required = false) String after,
+                                         @RequestParam(required = false) Integer limit,
+                                         @RequestParam(required = false) String expand) {
+        try {
+            return respond(postService.getAllPosts(PageQuery.of(before, after, limit)), expand);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
     
     /**
-     * GET /api/posts/user/{userId}
-     * Get posts by specific user
+     * GET /api/posts/search?q=java "hello world"&limit=20&before={cursor}
+     * Search post content: all words and quoted phrases must match (newest first, cursor-paginated)
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchPosts(@RequestParam String q,
+                                         @RequestParam(required = false) String before,
+                                         @RequestParam(required = false) String after,
+                                         @RequestParam(required = false) Integer limit,
+                                         @RequestParam(required = false) String expand) {
+        try {
+            return respond(postService.searchPosts(q, PageQuery.of(before, after, limit)), expand);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * GET /api/posts/user/{userId}?limit=50&before={cursor}&expand=author
+     * Get posts by specific user (newest first, cursor-paginated)
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<?> getUserPosts(@PathVariable Long userId) {
+    public ResponseEntity<?> getUserPosts(@PathVariable Long userId,
+                                          @RequestParam(required = false) String before,
+                                          @RequestParam(required = false) String after,
+                                          @RequestParam(required = false) Integer limit,
+                                          @RequestParam(required = false) String expand) {
         try {
-            return ResponseEntity.ok(postService.getUserPosts(userId));
+            return respond(postService.getUserPosts(userId, PageQuery.of(before, after, limit)), expand);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
     }
     
     /**
-     * GET /api/posts/feed/{userId}
-     * Get feed for a user (posts from users they follow + their own posts)
+     * GET /api/posts/feed/{userId}?limit=50&before={cursor}&expand=author
+     * Get feed for a user (newest posts from users they follow, cursor-paginated)
+     * Served from the user's materialized home timeline
+     * ETag from the timeline version: 304 without a body when If-None-Match matches
      */
     @GetMapping("/feed/{userId}")
-    public ResponseEntity<?> getUserFeed(@PathVariable Long userId) {
+    public ResponseEntity<?> getUserFeed(@PathVariable Long userId,
+                                         @RequestParam(required = false) String before,
+                                         @RequestParam(required = false) String after,
+                                         @RequestParam(required = false) Integer limit,
+                                         @RequestParam(required = false) String expand,
+                                         WebRequest webRequest) {
+        String etag = feedService.getHomeFeedETag(userId);
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         try {
-            // Get all users this user is following
-            List<Follow> following = followService.getFollowing(userId);
-            
-            // ✅ Convert Follow objects to user IDs
-            List<Long> followingIds = new ArrayList<>();
-            for (Follow follow : following) {
-                followingIds.add(follow.getFollowingId());
-            }
-            
-            
-            // Get all posts from these users
-            List<Post> feed = new ArrayList<>();
-            for (Long id : followingIds) {
-                feed.addAll(postService.getUserPosts(id));
-            }
-            
-            // Sort by timestamp (newest first)
-            feed.sort((p1, p2) -> Long.compare(p2.getTimestamp(), p1.getTimestamp()));
-            
-            return ResponseEntity.ok(feed);
+            return respond(feedService.getHomeFeed(userId, PageQuery.of(before, after, limit)), expand);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
+    
+    /**
+     * Page as a plain array, or with the authors of its posts in a side map for ?expand=author
+     */
+    private ResponseEntity<?> respond(CursorPage<PostView> page, String expand) {
+        if (expand == null) {
+            return page.toResponseEntity();
+        }
+        if (!"author".equals(expand)) {
+            throw new IllegalArgumentException("Unsupported expand '" + expand + "', expected 'author'");
+        }
+        Set<Long> authorIds = new LinkedHashSet<>();
+        for (PostView post : page.getItems()) {
+            authorIds.add(post.getUserId());
+        }
+        return page.toResponseEntity("authors", userService.getUserSummaries(authorIds));
+    }
 }
@@ -0,0 +1,36 @@
+package com.twitter.controller;
+
+import com.twitter.trends.TrendingEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * TrendController - REST API endpoint for trending hashtags
+ * SOLID: Single Responsibility - Only handles trends HTTP requests
+ */
+@RestController
+@RequestMapping("/api/trends")
+public class TrendController {
+    
+    @Autowired
+    private TrendingEngine trendingEngine;
+    
+    /**
+     * GET /api/trends?window=1h&limit=10
+     * Top hashtags of the last 5m, 1h or 24h with approximate counts (served from memory)
+     */
+    @GetMapping
+    public ResponseEntity<?> getTrends(@RequestParam(defaultValue = "1h") String window,
+                                       @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(Map.of(
+                    "window", window,
+                    "trends", trendingEngine.getTrends(window, limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.twitter.controller;
 
 import com.twitter.model.User;
+import com.twitter.pagination.PageQuery;
 import com.twitter.service.UserService;
+import com.twitter.version.ResourceType;
+import com.twitter.version.ResourceVersions;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.List;
 import java.util.Map;
 
@@ -20,6 +25,9 @@ public class UserController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
     /**
      * POST /api/users
      * Create a new user
@@ -37,20 +45,43 @@ public class UserController {
     }
     
     /**
-     * GET /api/users
-     * Get all users
+     * GET /api/users?limit=50&before={cursor}
+     * Get all users (newest first, cursor-paginated)
      */
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) String before,
+                                         @RequestParam(required = false) String after,
+                                         @RequestParam(required = false) Integer limit) {
+        try {
+            return userService.getAllUsers(PageQuery.of(before, after, limit)).toResponseEntity();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * GET /api/users/batch?ids=1,2,3
+     * Get many users in one request (request order, unknown IDs skipped)
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<?> getUsersByIds(@RequestParam List<Long> ids) {
+        try {
+            return ResponseEntity.ok(userService.getUsersByIds(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
     
     /**
      * GET /api/users/{id}
-     * Get user by ID
+     * Get user by ID (ETag; 304 without a body when If-None-Match matches)
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> getUserById(@PathVariable Long id) {
+    public ResponseEntity<?> getUserById(@PathVariable Long id, WebRequest webRequest) {
+        String etag = resourceVersions.etag(ResourceType.PROFILE, id);
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         try {
             User user = userService.getUserById(id);
             return ResponseEntity.ok(user);
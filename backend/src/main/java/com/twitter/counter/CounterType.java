@@ -0,0 +1,49 @@
+package com.twitter.counter;
+
+/**
+ * CounterType - The per-user counts kept in the user_counters table
+ *
+ * Each type names its column and the queries that recompute it from the
+ * source table: one for a single user, one for every user at once (bulk repair,
+ * returning user_id and n).
+ */
+public enum CounterType {
+    
+    UNREAD_NOTIFICATIONS("unread_notifications",
+            "select count(*) from notifications where user_id = ? and is_read = false",
+            "select user_id, count(*) as n from notifications where is_read = false group by user_id"),
+    
+    FOLLOWERS("followers_count",
+            "select count(*) from follows where following_id = ?",
+            "select following_id as user_id, count(*) as n from follows group by following_id"),
+    
+    FOLLOWING("following_count",
+            "select count(*) from follows where follower_id = ?",
+            "select follower_id as user_id, count(*) as n from follows group by follower_id"),
+    
+    POSTS("posts_count",
+            "select count(*) from posts where user_id = ?",
+            "select user_id, count(*) as n from posts group by user_id");
+    
+    private final String column;
+    private final String recountSql;
+    private final String bulkRecountSql;
+    
+    CounterType(String column, String recountSql, String bulkRecountSql) {
+        this.column = column;
+        this.recountSql = recountSql;
+        this.bulkRecountSql = bulkRecountSql;
+    }
+    
+    public String getColumn() {
+        return column;
+    }
+    
+    public String getRecountSql() {
+        return recountSql;
+    }
+    
+    public String getBulkRecountSql() {
+        return bulkRecountSql;
+    }
+}
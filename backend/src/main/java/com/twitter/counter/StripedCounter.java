@@ -0,0 +1,259 @@
+package com.twitter.counter;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * StripedCounter - In-memory per-user counts with lock striping
+ * SOLID: Single Responsibility - Only tracks values and unflushed deltas in memory
+ *
+ * Users are spread over a fixed number of stripes, each guarded by its own
+ * lock, so concurrent updates for different users rarely contend.
+ * Every cell holds a base value loaded from the database (if it has been read)
+ * and the delta not yet flushed to the database.
+ *
+ * Hot users (value at or above the hot threshold, e.g. accounts with millions
+ * of followers) additionally get a lock-free LongAdder lane, so a burst of
+ * updates for one user never serializes on its stripe lock.
+ */
+public class StripedCounter {
+    
+    private final Stripe[] stripes;
+    private final int maxCellsPerStripe;
+    private final long hotThreshold;
+    private final Map<Long, LongAdder> hot = new ConcurrentHashMap<>();
+    
+    /**
+     * @param stripeCount - Number of independently locked stripes
+     * @param maxCells - Approximate bound on cached users; clean cells beyond it are dropped on flush
+     * @param hotThreshold - Value from which a user's updates go through a lock-free lane
+     */
+    public StripedCounter(int stripeCount, int maxCells, long hotThreshold) {
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.maxCellsPerStripe = Math.max(1, maxCells / stripeCount);
+        this.hotThreshold = hotThreshold;
+    }
+    
+    /**
+     * Apply a change (no database access)
+     * @param userId - User ID
+     * @param delta - Amount to add (negative to subtract)
+     */
+    public void add(long userId, long delta) {
+        LongAdder hotLane = hot.get(userId);
+        if (hotLane != null) {
+            hotLane.add(delta);
+            return;
+        }
+        add(userId, delta, stripeOf(userId));
+    }
+    
+    /**
+     * Current value if the user's base has been loaded
+     * @param userId - User ID
+     * @return Value, or null if the base still has to be read from the database
+     */
+    public Long get(long userId) {
+        long value;
+        Stripe stripe = stripeOf(userId);
+        synchronized (stripe) {
+            Cell cell = stripe.cells.get(userId);
+            if (cell == null || !cell.loaded) {
+                return null;
+            }
+            value = cell.base + cell.delta;
+        }
+        return value + hotPending(userId);
+    }
+    
+    /**
+     * Delta not yet flushed to the database
+     * @param userId - User ID
+     */
+    public long pending(long userId) {
+        long pending;
+        Stripe stripe = stripeOf(userId);
+        synchronized (stripe) {
+            Cell cell = stripe.cells.get(userId);
+            pending = cell == null ? 0 : cell.delta;
+        }
+        return pending + hotPending(userId);
+    }
+    
+    /**
+     * Pending deltas of every user that has one
+     * @return Delta per user (non-zero only)
+     */
+    public Map<Long, Long> pendingSnapshot() {
+        Map<Long, Long> pending = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (Map.Entry<Long, Cell> entry : stripe.cells.entrySet()) {
+                    if (entry.getValue().delta != 0) {
+                        pending.put(entry.getKey(), entry.getValue().delta);
+                    }
+                }
+            }
+        }
+        for (Map.Entry<Long, LongAdder> entry : hot.entrySet()) {
+            long sum = entry.getValue().sum();
+            if (sum != 0) {
+                pending.merge(entry.getKey(), sum, Long::sum);
+            }
+        }
+        return pending;
+    }
+    
+    /**
+     * Install a base value read from the database, unless it went stale.
+     * The check runs under the stripe lock, so a later drain of this user always sees the base.
+     * @param userId - User ID
+     * @param base - Persisted value, which excludes the pending delta
+     * @param unchanged - true if the database has not been written since base was read
+     * @return Current value, or null if the user was not loaded and base is stale
+     */
+    public Long load(long userId, long base, BooleanSupplier unchanged) {
+        long value;
+        Stripe stripe = stripeOf(userId);
+        synchronized (stripe) {
+            Cell cell = stripe.cells.get(userId);
+            if (cell == null || !cell.loaded) {
+                if (!unchanged.getAsBoolean()) {
+                    return null;
+                }
+                if (cell == null) {
+                    cell = new Cell();
+                    stripe.cells.put(userId, cell);
+                }
+                cell.base = base;
+                cell.loaded = true;
+            }
+            value = cell.base + cell.delta;
+        }
+        if (value >= hotThreshold) {
+            hot.putIfAbsent(userId, new LongAdder());
+        }
+        return value + hotPending(userId);
+    }
+    
+    /**
+     * Shift a user's base after the same correction was applied to its persisted value
+     * @param userId - User ID
+     * @param correction - Amount added to the persisted value
+     */
+    public void adjust(long userId, long correction) {
+        Stripe stripe = stripeOf(userId);
+        synchronized (stripe) {
+            Cell cell = stripe.cells.get(userId);
+            if (cell != null && cell.loaded) {
+                cell.base += correction;
+            }
+        }
+    }
+    
+    /**
+     * Move all pending deltas out of memory, folding them into loaded bases.
+     * Must be followed by writing the result to the database, or {@link #restore} on failure.
+     * @return Deltas per user (non-zero only)
+     */
+    public Map<Long, Long> drain() {
+        Map<Long, Long> drained = new HashMap<>();
+        for (Map.Entry<Long, LongAdder> entry : hot.entrySet()) {
+            // Subtract what was read instead of resetting, so concurrent adds are never lost
+            long sum = entry.getValue().sum();
+            if (sum != 0) {
+                entry.getValue().add(-sum);
+                add(entry.getKey(), sum, stripeOf(entry.getKey()));
+            }
+        }
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                Iterator<Map.Entry<Long, Cell>> it = stripe.cells.entrySet().iterator();
+                boolean overCapacity = stripe.cells.size() > maxCellsPerStripe;
+                while (it.hasNext()) {
+                    Map.Entry<Long, Cell> entry = it.next();
+                    Cell cell = entry.getValue();
+                    if (cell.delta != 0) {
+                        drained.put(entry.getKey(), cell.delta);
+                        cell.base += cell.delta;
+                        cell.delta = 0;
+                    }
+                    if (cell.delta == 0 && (!cell.loaded || overCapacity)) {
+                        // Nothing left to flush; a dropped loaded cell is re-read on demand
+                        it.remove();
+                    }
+                }
+            }
+        }
+        return drained;
+    }
+    
+    /**
+     * Put back deltas whose database write failed
+     * @param drained - Result of {@link #drain}
+     */
+    public void restore(Map<Long, Long> drained) {
+        for (Map.Entry<Long, Long> entry : drained.entrySet()) {
+            Stripe stripe = stripeOf(entry.getKey());
+            synchronized (stripe) {
+                Cell cell = stripe.cells.computeIfAbsent(entry.getKey(), id -> new Cell());
+                cell.delta += entry.getValue();
+                if (cell.loaded) {
+                    cell.base -= entry.getValue();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Number of users on the lock-free lane
+     */
+    public int hotSize() {
+        return hot.size();
+    }
+    
+    /**
+     * Number of users currently held in memory
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.cells.size();
+            }
+        }
+        return size;
+    }
+    
+    private void add(long userId, long delta, Stripe stripe) {
+        synchronized (stripe) {
+            stripe.cells.computeIfAbsent(userId, id -> new Cell()).delta += delta;
+        }
+    }
+    
+    private long hotPending(long userId) {
+        LongAdder hotLane = hot.get(userId);
+        return hotLane == null ? 0 : hotLane.sum();
+    }
+    
+    private Stripe stripeOf(long userId) {
+        return stripes[(int) Math.floorMod(userId ^ (userId >>> 32), (long) stripes.length)];
+    }
+    
+    private static final class Stripe {
+        private final Map<Long, Cell> cells = new HashMap<>();
+    }
+    
+    private static final class Cell {
+        private long base;
+        private boolean loaded;
+        private long delta;
+    }
+}
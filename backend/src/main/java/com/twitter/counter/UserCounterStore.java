@@ -0,0 +1,328 @@
+package com.twitter.counter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * UserCounterStore - Materialized per-user counters (user_counters table)
+ * SOLID: Single Responsibility - Only maintains precomputed per-user counts
+ *
+ * - Updates only touch striped in-memory counters (lock-free for hot users); no database round trip.
+ * - A periodic flush adds the accumulated deltas to user_counters in one batch.
+ * - Reads are answered from memory; a user's persisted value is read once
+ *   (the row is created by recounting if it does not exist yet).
+ * - A periodic reconciliation recomputes every counter from the source
+ *   tables in bulk and repairs any drift.
+ *
+ * Writers of user_counters (flushes, repairs, row creation) run one at a time
+ * and bump a version before and after each write, odd while one is in progress.
+ * A first-time load reads the database without any lock and only installs what
+ * it read if the version is even and unchanged, otherwise it reads again; so a
+ * loaded base never misses or double-counts a delta that is being written.
+ *
+ * Reconciliation only holds off flushes (deltas keep accumulating in memory),
+ * never reads or updates. It compares persisted values with the recount in one
+ * statement and subtracts the delta still pending in memory, so a change whose
+ * row is committed but not yet flushed is not taken for drift. Users whose
+ * pending delta moved while the recount ran are left for the next run.
+ */
+@Component
+public class UserCounterStore {
+
+    private static final Logger log = LoggerFactory.getLogger(UserCounterStore.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${counters.stripes:64}")
+    private int stripeCount;
+
+    @Value("${counters.max-cached-users:1000000}")
+    private int maxCachedUsers;
+
+    @Value("${counters.hot-threshold:10000}")
+    private long hotThreshold;
+
+    private final Map<CounterType, StripedCounter> counters = new EnumMap<>(CounterType.class);
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicLong writeVersion = new AtomicLong();  // odd while user_counters is being written
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder repairedRows = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        for (CounterType type : CounterType.values()) {
+            counters.put(type, new StripedCounter(stripeCount, maxCachedUsers, hotThreshold));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Current value of a counter
+     * @param type - Counter
+     * @param userId - User ID
+     * @return Count (never touches the source table once the user is loaded)
+     */
+    public long get(CounterType type, Long userId) {
+        StripedCounter counter = counters.get(type);
+        Long value = counter.get(userId);
+        while (value == null) {
+            long version = writeVersion.get();
+            if ((version & 1) != 0) {
+                // A write is in progress: wait for it instead of reading a half-applied state
+                writeLock.lock();
+                writeLock.unlock();
+                continue;
+            }
+            loads.increment();
+            long persisted = readPersisted(type, userId);
+            value = counter.load(userId, persisted, () -> writeVersion.get() == version);
+        }
+        return value;
+    }
+
+    /**
+     * Change a counter
+     * @param type - Counter
+     * @param userId - User ID
+     * @param delta - Amount to add (negative to subtract)
+     */
+    public void add(CounterType type, Long userId, long delta) {
+        counters.get(type).add(userId, delta);
+    }
+
+    /**
+     * Create the all-zero counters row of a new user
+     * @param userId - User ID
+     */
+    public void createUser(Long userId) {
+        try {
+            jdbcTemplate.update("insert into user_counters (user_id) values (?)", userId);
+        } catch (DuplicateKeyException e) {
+            // Already created (e.g. by a concurrent first read)
+        }
+    }
+
+    /**
+     * Write accumulated deltas to user_counters
+     */
+    @Scheduled(fixedDelayString = "${counters.flush-interval-ms:5000}")
+    public void flush() {
+        writeLock.lock();
+        try {
+            for (CounterType type : CounterType.values()) {
+                flush(type);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Repair once at startup, so rows created before a counter column existed are right
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+
+    /**
+     * Recompute every counter from the source tables and repair drift
+     */
+    @Scheduled(initialDelayString = "${counters.reconcile-interval-ms:600000}",
+               fixedDelayString = "${counters.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        writeLock.lock();
+        try {
+            for (CounterType type : CounterType.values()) {
+                flush(type);
+            }
+            // Users created before counters existed get a row first
+            writeVersion.incrementAndGet();
+            try {
+                jdbcTemplate.update("insert into user_counters (user_id) " +
+                        "select u.id from users u where not exists (select 1 from user_counters c where c.user_id = u.id)");
+            } finally {
+                writeVersion.incrementAndGet();
+            }
+            for (CounterType type : CounterType.values()) {
+                reconcile(type);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Flush/load/repair counts and cache size
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        int cached = 0;
+        int hot = 0;
+        for (StripedCounter counter : counters.values()) {
+            cached += counter.size();
+            hot += counter.hotSize();
+        }
+        stats.put("cachedEntries", cached);
+        stats.put("hotEntries", hot);
+        stats.put("loads", loads.sum());
+        stats.put("flushedRows", flushedRows.sum());
+        stats.put("repairedRows", repairedRows.sum());
+        return stats;
+    }
+
+    /**
+     * Drain one counter and write its deltas (caller holds writeLock)
+     */
+    private void flush(CounterType type) {
+        writeVersion.incrementAndGet();
+        try {
+            flushDrained(type);
+        } finally {
+            writeVersion.incrementAndGet();
+        }
+    }
+
+    private void flushDrained(CounterType type) {
+        StripedCounter counter = counters.get(type);
+        Map<Long, Long> drained = counter.drain();
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        List<Long> userIds = new ArrayList<>(drained.keySet());
+        String sql = "update user_counters set " + type.getColumn() + " = " + type.getColumn() + " + ? where user_id = ?";
+        try {
+            int[][] updated = transactionTemplate.execute(status ->
+                    jdbcTemplate.batchUpdate(sql, userIds, userIds.size(), (ps, userId) -> {
+                        ps.setLong(1, drained.get(userId));
+                        ps.setLong(2, userId);
+                    }));
+            for (int i = 0; i < userIds.size(); i++) {
+                if (updated[0][i] == 0) {
+                    // No row yet: create it from a recount, which already includes this delta
+                    createFromRecount(userIds.get(i));
+                }
+            }
+            flushedRows.add(userIds.size());
+        } catch (RuntimeException e) {
+            counter.restore(drained);
+            log.warn("Counter flush for {} failed, will retry", type, e);
+        }
+    }
+
+    /**
+     * Repair one counter (caller holds writeLock, so no flush moves deltas meanwhile)
+     */
+    private void reconcile(CounterType type) {
+        StripedCounter counter = counters.get(type);
+        String column = type.getColumn();
+        Map<Long, Long> pendingBefore = counter.pendingSnapshot();
+
+        // Persisted value and recount in one statement, so both come from the same snapshot
+        List<long[]> repairs = new ArrayList<>();
+        jdbcTemplate.query("select c.user_id, c." + column + ", coalesce(t.n, 0) from user_counters c " +
+                "left join (" + type.getBulkRecountSql() + ") t on t.user_id = c.user_id " +
+                "where c." + column + " <> coalesce(t.n, 0)", rs -> {
+            long userId = rs.getLong(1);
+            long pending = pendingBefore.getOrDefault(userId, 0L);
+            if (counter.pending(userId) != pending) {
+                return;  // changed during the recount: next run
+            }
+            // The recount already includes the delta that is still pending in memory
+            long correction = rs.getLong(3) - pending - rs.getLong(2);
+            if (correction != 0) {
+                repairs.add(new long[] {userId, correction});
+            }
+        });
+        if (repairs.isEmpty()) {
+            return;
+        }
+
+        writeVersion.incrementAndGet();
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate("update user_counters set " + column + " = " + column + " + ? where user_id = ?",
+                            repairs, repairs.size(), (ps, repair) -> {
+                                ps.setLong(1, repair[1]);
+                                ps.setLong(2, repair[0]);
+                            }));
+            for (long[] repair : repairs) {
+                counter.adjust(repair[0], repair[1]);
+            }
+        } finally {
+            writeVersion.incrementAndGet();
+        }
+        repairedRows.add(repairs.size());
+        log.info("Repaired {} drifted {} counters", repairs.size(), type);
+    }
+
+    /**
+     * Persisted value of one counter, creating the user's row if needed
+     * (creating it is a write, so the caller's load is retried afterwards)
+     */
+    private long readPersisted(CounterType type, Long userId) {
+        List<Long> values = jdbcTemplate.queryForList(
+                "select " + type.getColumn() + " from user_counters where user_id = ?", Long.class, userId);
+        if (!values.isEmpty()) {
+            return values.get(0);
+        }
+        writeLock.lock();
+        try {
+            writeVersion.incrementAndGet();
+            try {
+                createFromRecount(userId);
+            } finally {
+                writeVersion.incrementAndGet();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        return jdbcTemplate.queryForObject(
+                "select " + type.getColumn() + " from user_counters where user_id = ?", Long.class, userId);
+    }
+
+    /**
+     * Create a missing row (caller holds writeLock). Each column is the recounted
+     * value minus the delta still pending in memory, since that delta will be added
+     * by the next flush.
+     */
+    private void createFromRecount(Long userId) {
+        createUser(userId);
+        for (CounterType type : CounterType.values()) {
+            long recount = jdbcTemplate.queryForObject(type.getRecountSql(), Long.class, userId);
+            jdbcTemplate.update("update user_counters set " + type.getColumn() + " = ? where user_id = ?",
+                    recount - counters.get(type).pending(userId), userId);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.twitter.feed;
+
+import com.twitter.counter.CounterType;
+import com.twitter.counter.UserCounterStore;
+import com.twitter.graph.SocialGraphIndex;
+import com.twitter.projection.PostView;
+import com.twitter.pagination.Cursor;
+import com.twitter.pagination.PageQuery;
+import com.twitter.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * FeedQueryEngine - Assembles feed pages straight from the database
+ * SOLID: Single Responsibility - Only turns "posts of these authors" into one sorted page
+ *
+ * Two strategies, both returning at most limit + 1 posts in fetch order:
+ * - Small fan-in: a single set-based query (follows joined with posts, or an
+ *   IN list), ordered and limited by the database.
+ * - Large fan-in: a streaming k-way merge. Each author is a cursor over their
+ *   posts; a heap always yields the globally next post, and an author's cursor
+ *   is only refilled (with a keyset query) when the merge actually reaches it.
+ */
+@Component
+public class FeedQueryEngine {
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private SocialGraphIndex socialGraphIndex;
+
+    @Autowired
+    private UserCounterStore userCounterStore;
+
+    @Value("${feed.query.merge-fan-in-threshold:500}")
+    private int mergeFanInThreshold;
+
+    @Value("${feed.query.merge-batch-size:4}")
+    private int mergeBatchSize;
+
+    @Value("${feed.query.merge-chunk-size:500}")
+    private int mergeChunkSize;
+
+    /**
+     * One page of a reader's feed: posts of everyone they follow
+     * @param followerId - Reader ID
+     * @param page - Keyset page
+     * @return Up to limit + 1 posts in fetch order
+     */
+    public List<PostView> feed(Long followerId, PageQuery page) {
+        if (userCounterStore.get(CounterType.FOLLOWING, followerId) > mergeFanInThreshold) {
+            return merge(getFollowingIds(followerId), page);
+        }
+        if (page.isBefore()) {
+            Cursor before = page.getBefore();
+            return postRepository.findFeedBefore(followerId, before.getTimestamp(), before.getId(), page.pageable());
+        }
+        if (page.isAfter()) {
+            Cursor after = page.getAfter();
+            return postRepository.findFeedAfter(followerId, after.getTimestamp(), after.getId(), page.pageable());
+        }
+        return postRepository.findFeed(followerId, page.pageable());
+    }
+
+    /**
+     * One page over the posts of an explicit set of authors
+     * @param authorIds - Author IDs
+     * @param page - Keyset page
+     * @return Up to limit + 1 posts in fetch order
+     */
+    public List<PostView> authors(List<Long> authorIds, PageQuery page) {
+        if (authorIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (authorIds.size() > mergeFanInThreshold) {
+            return merge(authorIds, page);
+        }
+        if (page.isBefore()) {
+            Cursor before = page.getBefore();
+            return postRepository.findByUserIdInBefore(authorIds, before.getTimestamp(), before.getId(), page.pageable());
+        }
+        if (page.isAfter()) {
+            Cursor after = page.getAfter();
+            return postRepository.findByUserIdInAfter(authorIds, after.getTimestamp(), after.getId(), page.pageable());
+        }
+        return postRepository.findByUserIdInOrderByTimestampDescIdDesc(authorIds, page.pageable());
+    }
+
+    /**
+     * Streaming k-way merge of per-author cursors.
+     * Only each author's first few posts are loaded up front (in chunked
+     * window queries); deeper posts are fetched only for authors the merge reaches.
+     */
+    private List<PostView> merge(List<Long> authorIds, PageQuery page) {
+        int wanted = page.getLimit() + 1;
+        int perAuthor = Math.min(mergeBatchSize, wanted);
+        Comparator<PostView> order = page.fetchOrder(PostView::getTimestamp, PostView::getId);
+
+        Map<Long, AuthorCursor> cursors = new HashMap<>();
+        for (int from = 0; from < authorIds.size(); from += mergeChunkSize) {
+            List<Long> chunk = authorIds.subList(from, Math.min(from + mergeChunkSize, authorIds.size()));
+            for (PostView post : loadHeads(chunk, page, perAuthor)) {
+                cursors.computeIfAbsent(post.getUserId(), AuthorCursor::new).buffer.add(post);
+            }
+        }
+
+        PriorityQueue<AuthorCursor> heap = new PriorityQueue<>(
+                Math.max(1, cursors.size()), (a, b) -> order.compare(a.buffer.peekFirst(), b.buffer.peekFirst()));
+        for (AuthorCursor cursor : cursors.values()) {
+            List<PostView> sorted = new ArrayList<>(cursor.buffer);
+            sorted.sort(order);
+            cursor.buffer.clear();
+            cursor.buffer.addAll(sorted);
+            cursor.exhausted = sorted.size() < perAuthor;
+            heap.add(cursor);
+        }
+
+        List<PostView> result = new ArrayList<>(wanted);
+        while (result.size() < wanted && !heap.isEmpty()) {
+            AuthorCursor cursor = heap.poll();
+            PostView post = cursor.buffer.pollFirst();
+            result.add(post);
+            if (cursor.buffer.isEmpty() && !cursor.exhausted) {
+                int batch = wanted - result.size();
+                if (batch > 0) {
+                    List<PostView> next = loadAuthorPage(cursor.authorId, post, page, batch);
+                    cursor.buffer.addAll(next);
+                    cursor.exhausted = next.size() < batch;
+                }
+            }
+            if (!cursor.buffer.isEmpty()) {
+                heap.add(cursor);
+            }
+        }
+        return result;
+    }
+
+    private List<PostView> loadHeads(List<Long> authorIds, PageQuery page, int perAuthor) {
+        List<Object[]> rows;
+        if (page.isBefore()) {
+            Cursor before = page.getBefore();
+            rows = postRepository.findHeadsBefore(authorIds, before.getTimestamp(), before.getId(), perAuthor);
+        } else if (page.isAfter()) {
+            Cursor after = page.getAfter();
+            rows = postRepository.findHeadsAfter(authorIds, after.getTimestamp(), after.getId(), perAuthor);
+        } else {
+            rows = postRepository.findHeads(authorIds, perAuthor);
+        }
+        List<PostView> posts = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            posts.add(PostView.fromRow(row));
+        }
+        return posts;
+    }
+
+    /**
+     * Next posts of one author after the last post the merge emitted for them
+     */
+    private List<PostView> loadAuthorPage(Long authorId, PostView last, PageQuery page, int size) {
+        if (page.isAfter()) {
+            return postRepository.findByUserIdAfter(authorId, last.getTimestamp(), last.getId(), PageRequest.of(0, size));
+        }
+        return postRepository.findByUserIdBefore(authorId, last.getTimestamp(), last.getId(), PageRequest.of(0, size));
+    }
+
+    private List<Long> getFollowingIds(Long followerId) {
+        long[] ids = socialGraphIndex.getFollowingIds(followerId);
+        List<Long> followingIds = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            followingIds.add(id);
+        }
+        return followingIds;
+    }
+
+    /**
+     * Position of the merge within one author's posts
+     */
+    private static final class AuthorCursor {
+        private final Long authorId;
+        private final Deque<PostView> buffer = new ArrayDeque<>();
+        private boolean exhausted;
+
+        AuthorCursor(Long authorId) {
+            this.authorId = authorId;
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.twitter.feed;
+
+import com.twitter.pagination.Cursor;
+import com.twitter.pagination.PageQuery;
+import com.twitter.version.ResourceType;
+import com.twitter.version.ResourceVersions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HomeTimelineStore - Materialized home timelines (fan-out on write)
+ * SOLID: Single Responsibility - Only keeps the newest post IDs per reader
+ *
+ * Each warm timeline is a bounded list of (timestamp, postId) pairs kept in
+ * time order. New posts are pushed into the timelines of the author's followers,
+ * so a feed read is a single slice of the newest entries. Timelines that were
+ * never loaded (or were evicted) are cold and must be rebuilt by the caller:
+ * {@link #beginLoad} installs a placeholder that collects pushes while the
+ * caller reads the database, and {@link #completeLoad} merges the rows read
+ * into it, so a post fanned out during a rebuild is never lost. A placeholder
+ * dropped by an invalidation is not installed.
+ *
+ * Every push, removal and invalidation bumps the reader's FEED version
+ * (see ResourceVersions), warm or cold.
+ */
+@Component
+public class HomeTimelineStore {
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Value("${feed.timeline.capacity:800}")
+    private int capacity;
+
+    @Value("${feed.timeline.max-users:50000}")
+    private int maxUsers;
+
+    private final Map<Long, Timeline> timelines = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong loadTokens = new AtomicLong();
+
+    /**
+     * Check whether a reader's timeline is loaded
+     * @param userId - Reader ID
+     * @return true if the timeline is warm
+     */
+    public boolean isWarm(Long userId) {
+        Timeline timeline = timelines.get(userId);
+        return timeline != null && timeline.isLoaded();
+    }
+
+    /**
+     * Push a new post into a reader's timeline (ignored if the timeline is cold,
+     * kept for the load if it is being rebuilt)
+     * @param userId - Reader ID
+     * @param postId - Post ID
+     * @param timestamp - Post timestamp
+     */
+    public void push(Long userId, long postId, long timestamp) {
+        Timeline timeline = timelines.get(userId);
+        if (timeline != null) {
+            timeline.insert(timestamp, postId);
+        }
+        resourceVersions.bump(ResourceType.FEED, userId);
+    }
+
+    /**
+     * Start rebuilding a cold timeline. Pushes from now on are kept and merged
+     * into the rows the caller reads from the database afterwards.
+     * @param userId - Reader ID
+     * @return Token to pass to {@link #completeLoad}
+     */
+    public long beginLoad(Long userId) {
+        Timeline timeline = timelines.computeIfAbsent(userId, id -> new Timeline(capacity, loadTokens.incrementAndGet()));
+        timeline.touch(clock.incrementAndGet());
+        return timeline.loadToken;
+    }
+
+    /**
+     * Finish rebuilding a timeline with entries read from the database
+     * @param userId - Reader ID
+     * @param loadToken - Token from {@link #beginLoad}
+     * @param timestamps - Post timestamps
+     * @param postIds - Post IDs (same order as timestamps)
+     * @return true if installed, false if the timeline was invalidated or evicted meanwhile
+     */
+    public boolean completeLoad(Long userId, long loadToken, long[] timestamps, long[] postIds) {
+        Timeline timeline = timelines.get(userId);
+        if (timeline == null || timeline.loadToken != loadToken) {
+            return false;
+        }
+        timeline.fill(timestamps, postIds);
+        timeline.touch(clock.incrementAndGet());
+        evictIfNeeded();
+        return true;
+    }
+
+    /**
+     * Read one page of post IDs from a warm timeline
+     * @param userId - Reader ID
+     * @param page - Keyset page (fetches up to limit + 1 IDs in fetch order)
+     * @return Slice of post IDs, or null if the timeline is cold (or still being rebuilt)
+     */
+    public Slice slice(Long userId, PageQuery page) {
+        Timeline timeline = timelines.get(userId);
+        if (timeline == null || !timeline.isLoaded()) {
+            return null;
+        }
+        timeline.touch(clock.incrementAndGet());
+        return timeline.slice(page, page.getLimit() + 1);
+    }
+
+    /**
+     * Remove a single post from a reader's timeline (e.g. it was deleted)
+     * @param userId - Reader ID
+     * @param postId - Post ID
+     */
+    public void remove(Long userId, long postId) {
+        Timeline timeline = timelines.get(userId);
+        if (timeline != null) {
+            timeline.remove(postId);
+        }
+        resourceVersions.bump(ResourceType.FEED, userId);
+    }
+
+    /**
+     * Drop a reader's timeline so it is rebuilt on the next read
+     * @param userId - Reader ID
+     */
+    public void invalidate(Long userId) {
+        timelines.remove(userId);
+        resourceVersions.bump(ResourceType.FEED, userId);
+    }
+
+    /**
+     * Maximum number of entries kept per timeline
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Number of warm (or rebuilding) timelines
+     */
+    public int size() {
+        return timelines.size();
+    }
+
+    /**
+     * Evict the least recently read timelines once we go over the user budget.
+     * Evicts a tenth of the budget at a time so the scan is amortized.
+     */
+    private void evictIfNeeded() {
+        int overflow = timelines.size() - maxUsers;
+        if (overflow <= 0) {
+            return;
+        }
+        int toEvict = Math.max(overflow, maxUsers / 10);
+        List<Map.Entry<Long, Timeline>> entries = new ArrayList<>(timelines.entrySet());
+        entries.sort((a, b) -> Long.compare(a.getValue().lastAccess, b.getValue().lastAccess));
+        for (int i = 0; i < toEvict && i < entries.size(); i++) {
+            timelines.remove(entries.get(i).getKey(), entries.get(i).getValue());
+        }
+    }
+
+    /**
+     * Post IDs read from a timeline.
+     * A slice is incomplete when the requested range reaches past entries
+     * the timeline had to drop; the caller must then ask the database.
+     */
+    public static final class Slice {
+        private final long[] postIds;
+        private final boolean complete;
+
+        Slice(long[] postIds, boolean complete) {
+            this.postIds = postIds;
+            this.complete = complete;
+        }
+
+        public long[] getPostIds() {
+            return postIds;
+        }
+
+        public boolean isComplete() {
+            return complete;
+        }
+    }
+
+    /**
+     * A bounded, time-ordered list of post IDs.
+     * Entries are stored oldest first so the common case (a new post) is an append.
+     * Starts as a placeholder that only collects pushes until it is filled from the database.
+     */
+    private static final class Timeline {
+        private final long[] timestamps;
+        private final long[] postIds;
+        private final long loadToken;
+        private int size;
+        private boolean truncated;
+        private volatile boolean loaded;
+        private volatile long lastAccess;
+
+        Timeline(int capacity, long loadToken) {
+            this.timestamps = new long[capacity];
+            this.postIds = new long[capacity];
+            this.loadToken = loadToken;
+        }
+
+        void touch(long tick) {
+            lastAccess = tick;
+        }
+
+        boolean isLoaded() {
+            return loaded;
+        }
+
+        /**
+         * Merge loaded entries with those pushed meanwhile (no-op if a concurrent load already did)
+         */
+        synchronized void fill(long[] loadedTimestamps, long[] loadedPostIds) {
+            if (loaded) {
+                return;
+            }
+            for (int i = 0; i < loadedPostIds.length; i++) {
+                insert(loadedTimestamps[i], loadedPostIds[i]);
+            }
+            // A full load may have cut off older posts
+            truncated |= loadedPostIds.length >= postIds.length;
+            loaded = true;
+        }
+
+        synchronized void insert(long timestamp, long postId) {
+            int pos = size;
+            while (pos > 0 && compare(timestamps[pos - 1], postIds[pos - 1], timestamp, postId) > 0) {
+                pos--;
+            }
+            if (pos > 0 && postIds[pos - 1] == postId) {
+                return;
+            }
+            if (size == postIds.length) {
+                if (pos == 0) {
+                    truncated = true;
+                    return; // older than everything we keep
+                }
+                // Drop the oldest entry to make room
+                truncated = true;
+                System.arraycopy(timestamps, 1, timestamps, 0, pos - 1);
+                System.arraycopy(postIds, 1, postIds, 0, pos - 1);
+                pos--;
+            } else {
+                System.arraycopy(timestamps, pos, timestamps, pos + 1, size - pos);
+                System.arraycopy(postIds, pos, postIds, pos + 1, size - pos);
+                size++;
+            }
+            timestamps[pos] = timestamp;
+            postIds[pos] = postId;
+        }
+
+        synchronized Slice slice(PageQuery page, int count) {
+            if (page.isAfter()) {
+                // Newer than the cursor, oldest first
+                Cursor after = page.getAfter();
+                int from = upperBound(after.getTimestamp(), after.getId());
+                int n = Math.min(count, size - from);
+                long[] result = Arrays.copyOfRange(postIds, from, from + n);
+                return new Slice(result, !(truncated && from == 0));
+            }
+
+            // Older than the cursor (or the newest page), newest first
+            int to = size;
+            if (page.isBefore()) {
+                Cursor before = page.getBefore();
+                to = lowerBound(before.getTimestamp(), before.getId());
+            }
+            int n = Math.min(count, to);
+            long[] result = new long[n];
+            for (int i = 0; i < n; i++) {
+                result[i] = postIds[to - 1 - i];
+            }
+            return new Slice(result, n == count || !truncated);
+        }
+
+        /** First index whose entry is >= (timestamp, postId) */
+        private int lowerBound(long timestamp, long postId) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (compare(timestamps[mid], postIds[mid], timestamp, postId) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /** First index whose entry is > (timestamp, postId) */
+        private int upperBound(long timestamp, long postId) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (compare(timestamps[mid], postIds[mid], timestamp, postId) <= 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        synchronized void remove(long postId) {
+            for (int i = 0; i < size; i++) {
+                if (postIds[i] == postId) {
+                    System.arraycopy(timestamps, i + 1, timestamps, i, size - i - 1);
+                    System.arraycopy(postIds, i + 1, postIds, i, size - i - 1);
+                    size--;
+                    return;
+                }
+            }
+        }
+
+        private static int compare(long ts1, long id1, long ts2, long id2) {
+            int c = Long.compare(ts1, ts2);
+            return c != 0 ? c : Long.compare(id1, id2);
+        }
+    }
+}
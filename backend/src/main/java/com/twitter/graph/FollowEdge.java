@@ -0,0 +1,24 @@
+package com.twitter.graph;
+
+/**
+ * FollowEdge - Lightweight follow relationship served from the graph index
+ * Same JSON field names as the Follow entity (followerId, followingId), without the row ID
+ */
+public class FollowEdge {
+    
+    private final long followerId;
+    private final long followingId;
+    
+    public FollowEdge(long followerId, long followingId) {
+        this.followerId = followerId;
+        this.followingId = followingId;
+    }
+    
+    public long getFollowerId() {
+        return followerId;
+    }
+    
+    public long getFollowingId() {
+        return followingId;
+    }
+}
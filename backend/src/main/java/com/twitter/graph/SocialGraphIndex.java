@@ -0,0 +1,227 @@
+package com.twitter.graph;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SocialGraphIndex - In-memory follow graph
+ * SOLID: Single Responsibility - Answers follow lookups without touching the database
+ *
+ * Forward (who a user follows) and reverse (who follows a user) adjacency
+ * lists are sorted primitive long arrays, about 16 bytes per follow in total
+ * instead of one Hibernate entity per row and direction.
+ * - isFollowing is a binary search.
+ * - Follower pages are copied straight out of the array, no entity hydration.
+ *
+ * Loaded from the follows table at startup (after the schema exists) and kept
+ * in sync by FollowService on every follow/unfollow.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SocialGraphIndex {
+    
+    private static final Logger log = LoggerFactory.getLogger(SocialGraphIndex.class);
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Value("${graph.index.fetch-size:10000}")
+    private int fetchSize;
+    
+    private final Map<Long, SortedLongSet> following = new ConcurrentHashMap<>();
+    private final Map<Long, SortedLongSet> followers = new ConcurrentHashMap<>();
+    private final AtomicLong edges = new AtomicLong();
+    
+    /**
+     * Load every follow with one streamed query
+     */
+    @PostConstruct
+    public void load() {
+        long start = System.currentTimeMillis();
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(fetchSize);
+        streaming.query("select follower_id, following_id from follows", rs -> {
+            long followerId = rs.getLong(1);
+            long followingId = rs.getLong(2);
+            following.computeIfAbsent(followerId, id -> new SortedLongSet()).append(followingId);
+            followers.computeIfAbsent(followingId, id -> new SortedLongSet()).append(followerId);
+        });
+        
+        long count = 0;
+        for (SortedLongSet set : following.values()) {
+            set.seal();
+            count += set.size();
+        }
+        for (SortedLongSet set : followers.values()) {
+            set.seal();
+        }
+        edges.set(count);
+        log.info("Social graph index loaded {} follows of {} users in {} ms",
+                count, following.size(), System.currentTimeMillis() - start);
+    }
+    
+    /**
+     * Check if one user follows another
+     * @param followerId - Follower ID
+     * @param followingId - Followed user ID
+     * @return true if following
+     */
+    public boolean isFollowing(long followerId, long followingId) {
+        SortedLongSet set = following.get(followerId);
+        if (set == null) {
+            return false;
+        }
+        synchronized (set) {
+            return set.contains(followingId);
+        }
+    }
+    
+    /**
+     * Record a new follow
+     * @return true if it was not indexed yet
+     */
+    public boolean addEdge(long followerId, long followingId) {
+        SortedLongSet out = following.computeIfAbsent(followerId, id -> new SortedLongSet());
+        boolean added;
+        synchronized (out) {
+            added = out.add(followingId);
+        }
+        SortedLongSet in = followers.computeIfAbsent(followingId, id -> new SortedLongSet());
+        synchronized (in) {
+            in.add(followerId);
+        }
+        if (added) {
+            edges.incrementAndGet();
+        }
+        return added;
+    }
+    
+    /**
+     * Forget a follow
+     * @return true if it was indexed
+     */
+    public boolean removeEdge(long followerId, long followingId) {
+        boolean removed = false;
+        SortedLongSet out = following.get(followerId);
+        if (out != null) {
+            synchronized (out) {
+                removed = out.remove(followingId);
+            }
+        }
+        SortedLongSet in = followers.get(followingId);
+        if (in != null) {
+            synchronized (in) {
+                in.remove(followerId);
+            }
+        }
+        if (removed) {
+            edges.decrementAndGet();
+        }
+        return removed;
+    }
+    
+    /**
+     * IDs of the users someone follows
+     * @param followerId - Follower ID
+     * @return Followed user IDs (ascending)
+     */
+    public long[] getFollowingIds(long followerId) {
+        return page(following.get(followerId), 0, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * One page of a user's follower IDs
+     * @param followingId - Followed user ID
+     * @param afterFollowerId - Last follower ID of the previous page (0 for the first page)
+     * @param limit - Page size
+     * @return Follower IDs (ascending)
+     */
+    public long[] getFollowerIds(long followingId, long afterFollowerId, int limit) {
+        return page(followers.get(followingId), afterFollowerId, limit);
+    }
+    
+    /**
+     * One page of the IDs a user follows
+     * @param followerId - Follower ID
+     * @param afterFollowingId - Last ID of the previous page (0 for the first page)
+     * @param limit - Page size
+     * @return Followed user IDs (ascending)
+     */
+    public long[] getFollowingIds(long followerId, long afterFollowingId, int limit) {
+        return page(following.get(followerId), afterFollowingId, limit);
+    }
+    
+    /**
+     * Number of users someone follows
+     * @param followerId - Follower ID
+     */
+    public int getFollowingCount(long followerId) {
+        return size(following.get(followerId));
+    }
+    
+    /**
+     * Number of followers of a user
+     * @param followingId - Followed user ID
+     */
+    public int getFollowerCount(long followingId) {
+        return size(followers.get(followingId));
+    }
+    
+    /**
+     * Users followed by more than a given number of users (one pass over the index)
+     * @param threshold - Exclusive follower count
+     * @return User IDs (unordered)
+     */
+    public List<Long> getUsersWithMoreFollowersThan(long threshold) {
+        List<Long> userIds = new ArrayList<>();
+        for (Map.Entry<Long, SortedLongSet> entry : followers.entrySet()) {
+            if (size(entry.getValue()) > threshold) {
+                userIds.add(entry.getKey());
+            }
+        }
+        return userIds;
+    }
+    
+    /**
+     * Index size
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("follows", edges.get());
+        stats.put("followers", following.size());
+        stats.put("followed", followers.size());
+        return stats;
+    }
+    
+    private static int size(SortedLongSet set) {
+        if (set == null) {
+            return 0;
+        }
+        synchronized (set) {
+            return set.size();
+        }
+    }
+    
+    private long[] page(SortedLongSet set, long after, int limit) {
+        if (set == null) {
+            return new long[0];
+        }
+        synchronized (set) {
+            return set.after(after, limit);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.twitter.graph;
+
+import java.util.Arrays;
+
+/**
+ * SortedLongSet - Growable sorted array of primitive longs
+ * SOLID: Single Responsibility - Only stores one user's adjacency list
+ *
+ * 8 bytes per element, no boxing. Lookups are binary searches; inserts and
+ * removals shift the tail in place. Callers synchronize on the instance.
+ */
+final class SortedLongSet {
+    
+    private static final long[] EMPTY = new long[0];
+    
+    private long[] values = EMPTY;
+    private int size;
+    
+    /**
+     * Append without keeping order (bulk loading); call {@link #seal()} afterwards
+     */
+    void append(long value) {
+        ensureCapacity(size + 1);
+        values[size++] = value;
+    }
+    
+    /**
+     * Sort and de-duplicate after unordered appends, and trim spare capacity
+     */
+    void seal() {
+        Arrays.sort(values, 0, size);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || values[distinct - 1] != values[i]) {
+                values[distinct++] = values[i];
+            }
+        }
+        size = distinct;
+        values = size == 0 ? EMPTY : Arrays.copyOf(values, size);
+    }
+    
+    boolean contains(long value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+    
+    /**
+     * @return true if the value was added
+     */
+    boolean add(long value) {
+        int pos = Arrays.binarySearch(values, 0, size, value);
+        if (pos >= 0) {
+            return false;
+        }
+        int insertAt = -pos - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+        values[insertAt] = value;
+        size++;
+        return true;
+    }
+    
+    /**
+     * @return true if the value was removed
+     */
+    boolean remove(long value) {
+        int pos = Arrays.binarySearch(values, 0, size, value);
+        if (pos < 0) {
+            return false;
+        }
+        System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+        size--;
+        return true;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    /**
+     * Copy of the elements greater than a given value
+     * @param after - Exclusive lower bound
+     * @param limit - Maximum number of elements
+     */
+    long[] after(long after, int limit) {
+        int pos = Arrays.binarySearch(values, 0, size, after);
+        int from = pos >= 0 ? pos + 1 : -pos - 1;
+        int to = (int) Math.min((long) from + limit, size);
+        return Arrays.copyOfRange(values, from, Math.max(from, to));
+    }
+    
+    private void ensureCapacity(int capacity) {
+        if (capacity > values.length) {
+            values = Arrays.copyOf(values, Math.max(capacity, values.length + (values.length >> 1) + 4));
+        }
+    }
+}
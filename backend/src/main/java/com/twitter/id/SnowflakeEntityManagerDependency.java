@@ -0,0 +1,21 @@
+package com.twitter.id;
+
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * SnowflakeEntityManagerDependency - Makes the JPA EntityManagerFactory depend on SnowflakeIdGenerator
+ * SOLID: Single Responsibility - Only declares the startup order
+ *
+ * Hibernate instantiates SnowflakeIdentifierGenerator itself, outside Spring, and
+ * it reaches the generator through SnowflakeIdGenerator.getInstance(). Declaring
+ * the dependency guarantees the generator is initialized (node ID validated and
+ * instance published) before any session can insert an entity.
+ */
+@Component
+public class SnowflakeEntityManagerDependency extends EntityManagerFactoryDependsOnPostProcessor {
+    
+    public SnowflakeEntityManagerDependency() {
+        super(SnowflakeIdGenerator.class);
+    }
+}
@@ -0,0 +1,128 @@
+package com.twitter.id;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SnowflakeIdGenerator - Time-ordered unique IDs generated in the application
+ * SOLID: Single Responsibility - Only hands out IDs
+ *
+ * Layout (53 bits, so IDs stay exact as JavaScript numbers in the web and mobile clients):
+ *   41 bits milliseconds since 2024-01-01 UTC (about 69 years)
+ *    3 bits node ID (up to 8 application instances)
+ *    9 bits sequence (512 IDs per millisecond per node)
+ *
+ * IDs sort by creation time. If the clock steps back by at most
+ * {@code ids.max-clock-skew-ms}, the generator keeps counting from the last
+ * timestamp it used instead of repeating IDs; a larger step back fails fast.
+ * When a millisecond's sequence is exhausted the generator moves on to the
+ * next millisecond.
+ *
+ * Rows inserted before IDs were generated here keep their IDENTITY IDs
+ * (1, 2, 3, ...). Those are in creation order as well and all lie below
+ * {@link #FIRST_ID}, so ordering by ID still orders by creation (search
+ * relies on this), but {@link #timestampOf} means nothing for them (see
+ * {@link #isGenerated}). Queries that turn a time range into an ID range with
+ * {@link #minIdAt} must still filter on the row's own creation time and let
+ * legacy IDs through.
+ *
+ * The JPA EntityManagerFactory depends on this bean (see
+ * SnowflakeEntityManagerDependency), so {@link #getInstance} is set before
+ * Hibernate generates its first ID.
+ */
+@Component
+public class SnowflakeIdGenerator {
+    
+    public static final long EPOCH = 1704067200000L;  // 2024-01-01T00:00:00Z
+    
+    private static final int NODE_BITS = 3;
+    private static final int SEQUENCE_BITS = 9;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int TIMESTAMP_SHIFT = NODE_BITS + SEQUENCE_BITS;
+    
+    /** Lowest ID this generator hands out (one day past the epoch, well before it shipped) */
+    public static final long FIRST_ID = TimeUnit.DAYS.toMillis(1) << TIMESTAMP_SHIFT;
+    
+    private static volatile SnowflakeIdGenerator instance;
+    
+    @Value("${ids.node-id:0}")
+    private long nodeId;
+    
+    @Value("${ids.max-clock-skew-ms:5000}")
+    private long maxClockSkewMs;
+    
+    private long lastTimestamp = -1;
+    private long sequence;
+    
+    @PostConstruct
+    public void init() {
+        if (nodeId < 0 || nodeId > MAX_NODE) {
+            throw new IllegalStateException("ids.node-id must be between 0 and " + MAX_NODE + ": " + nodeId);
+        }
+        instance = this;
+    }
+    
+    /**
+     * Generator used by the JPA entities (Hibernate creates its generators outside Spring)
+     */
+    public static SnowflakeIdGenerator getInstance() {
+        SnowflakeIdGenerator generator = instance;
+        if (generator == null) {
+            throw new IllegalStateException("SnowflakeIdGenerator is not initialized");
+        }
+        return generator;
+    }
+    
+    /**
+     * Next unique ID
+     */
+    public synchronized long nextId() {
+        long now = System.currentTimeMillis() - EPOCH;
+        if (now < lastTimestamp - maxClockSkewMs) {
+            throw new IllegalStateException("Clock moved back by " + (lastTimestamp - now) + " ms");
+        }
+        
+        if (now > lastTimestamp) {
+            lastTimestamp = now;
+            sequence = 0;
+        } else {
+            // Same millisecond, or a small step back: keep counting from the last timestamp
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                lastTimestamp++;
+            }
+        }
+        return (lastTimestamp << TIMESTAMP_SHIFT) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+    
+    /**
+     * Creation time encoded in an ID
+     * @param id - Generated ID
+     * @return Epoch milliseconds
+     */
+    public static long timestampOf(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + EPOCH;
+    }
+    
+    /**
+     * Whether an ID was generated here (and so encodes its creation time)
+     * @param id - Row ID
+     * @return false for a legacy IDENTITY ID
+     */
+    public static boolean isGenerated(long id) {
+        return id >= FIRST_ID;
+    }
+    
+    /**
+     * Smallest ID that can be generated at a time, so time ranges map to ID ranges
+     * @param timestamp - Epoch milliseconds
+     * @return Lowest ID of that millisecond (0 before the ID epoch)
+     */
+    public static long minIdAt(long timestamp) {
+        return Math.max(0, timestamp - EPOCH) << TIMESTAMP_SHIFT;
+    }
+}
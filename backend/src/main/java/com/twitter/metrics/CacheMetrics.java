@@ -0,0 +1,93 @@
+package com.twitter.metrics;
+
+import com.twitter.cache.UserCache;
+import com.twitter.counter.UserCounterStore;
+import com.twitter.feed.HomeTimelineStore;
+import com.twitter.notification.NotificationStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * CacheMetrics - Publishes the in-memory caches' counters as meters
+ * SOLID: Single Responsibility - Only maps cache statistics to meters
+ *
+ * Uses the standard cache meter names (cache.gets with result=hit|miss,
+ * cache.evictions, cache.size, tagged by cache), read from the same stats
+ * the admin endpoint shows when the registry is scraped. Home timeline hits
+ * and misses are the timeline and rebuild paths of the feed.assembly timer;
+ * user counters only count misses (loads of the persisted value).
+ */
+@Component
+public class CacheMetrics {
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private NotificationStore notificationStore;
+
+    @Autowired
+    private HomeTimelineStore timelineStore;
+
+    @Autowired
+    private UserCounterStore userCounterStore;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @PostConstruct
+    public void init() {
+        bindCache(registry, "users", userCache, UserCache::getStats);
+        bindCache(registry, "notifications", notificationStore, NotificationStore::getStats);
+
+        Gauge.builder("cache.size", timelineStore, HomeTimelineStore::size)
+                .description("Entries in the cache")
+                .tag("cache", "home-timelines")
+                .register(registry);
+
+        FunctionCounter.builder("cache.gets", userCounterStore, store -> stat(store.getStats(), "loads"))
+                .description("Cache lookups")
+                .tags("cache", "user-counters", "result", "miss")
+                .register(registry);
+        Gauge.builder("cache.size", userCounterStore, store -> stat(store.getStats(), "cachedEntries"))
+                .description("Entries in the cache")
+                .tag("cache", "user-counters")
+                .register(registry);
+    }
+
+    /**
+     * Meters hold their source object weakly, so they are bound to the cache bean itself
+     */
+    private static <T> void bindCache(MeterRegistry registry, String name, T cache,
+                                      Function<T, Map<String, Object>> stats) {
+        FunctionCounter.builder("cache.gets", cache, c -> stat(stats.apply(c), "hits"))
+                .description("Cache lookups")
+                .tags("cache", name, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", cache, c -> stat(stats.apply(c), "misses"))
+                .description("Cache lookups")
+                .tags("cache", name, "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", cache, c -> stat(stats.apply(c), "evictions"))
+                .description("Entries evicted to stay within the size budget")
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.size", cache, c -> stat(stats.apply(c), "entries"))
+                .description("Entries in the cache")
+                .tag("cache", name)
+                .register(registry);
+    }
+
+    private static double stat(Map<String, Object> stats, String key) {
+        Object value = stats.get(key);
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+    }
+}
@@ -0,0 +1,128 @@
+package com.twitter.metrics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * JdbcInstrumentation - Wraps the DataSource so every executed statement is measured
+ * SOLID: Single Responsibility - Only intercepts JDBC calls
+ *
+ * JDK proxies over DataSource, Connection and Statement: connections handed
+ * out by the pool are wrapped, statements they create are wrapped, and each
+ * execute* call is timed and reported to JdbcMetrics with its SQL. Everything
+ * else, including unwrap(), goes straight to the pool's objects, so pool
+ * metrics and vendor-specific calls keep working.
+ */
+@Component
+public class JdbcInstrumentation implements BeanPostProcessor {
+
+    private volatile JdbcMetrics jdbcMetrics;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource && !Proxy.isProxyClass(bean.getClass())) {
+            return proxy(DataSource.class, bean, new DataSourceHandler((DataSource) bean));
+        }
+        return bean;
+    }
+
+    /**
+     * Start reporting to the metrics bean. Statements run before that (schema
+     * setup while the EntityManagerFactory starts) are not recorded, so the
+     * DataSource does not depend on the MeterRegistry.
+     * @param metrics - Metrics bean
+     */
+    void setMetrics(JdbcMetrics metrics) {
+        this.jdbcMetrics = metrics;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(JdbcInstrumentation.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class DataSourceHandler implements InvocationHandler {
+        private final DataSource target;
+
+        DataSourceHandler(DataSource target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = JdbcInstrumentation.invoke(target, method, args);
+            if (result instanceof Connection) {
+                return JdbcInstrumentation.proxy(Connection.class, result, new ConnectionHandler((Connection) result));
+            }
+            return result;
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = JdbcInstrumentation.invoke(target, method, args);
+            if (result instanceof CallableStatement) {
+                return JdbcInstrumentation.proxy(CallableStatement.class, result, new StatementHandler(result, (String) args[0]));
+            }
+            if (result instanceof PreparedStatement) {
+                return JdbcInstrumentation.proxy(PreparedStatement.class, result, new StatementHandler(result, (String) args[0]));
+            }
+            if (result instanceof Statement) {
+                return JdbcInstrumentation.proxy(Statement.class, result, new StatementHandler(result, null));
+            }
+            return result;
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Object target;
+        private final String preparedSql;
+
+        StatementHandler(Object target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!method.getName().startsWith("execute")) {
+                return JdbcInstrumentation.invoke(target, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return JdbcInstrumentation.invoke(target, method, args);
+            } finally {
+                JdbcMetrics metrics = jdbcMetrics;
+                if (metrics != null) {
+                    String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+                    metrics.statementExecuted(sql, System.nanoTime() - start);
+                }
+            }
+        }
+    }
+}
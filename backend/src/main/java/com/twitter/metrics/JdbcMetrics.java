@@ -0,0 +1,92 @@
+package com.twitter.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JdbcMetrics - Counts and times JDBC statements, in total and per HTTP request
+ * SOLID: Single Responsibility - Only records statement metrics
+ *
+ * Fed by the instrumented DataSource (see JdbcInstrumentation) for every
+ * executed statement, whether it comes from JPA, JdbcTemplate or a
+ * background worker. While a request is open on the current thread (see
+ * RequestStatementCountFilter) its statements are also collected, and their
+ * count and database time are recorded per endpoint when the request ends.
+ * Statements are also handed to an open StatementCapture for test assertions.
+ */
+@Component
+public class JdbcMetrics {
+
+    private static final ThreadLocal<RequestStatements> REQUEST_STATEMENTS = new ThreadLocal<>();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcInstrumentation jdbcInstrumentation;
+
+    private Timer statements;
+
+    @PostConstruct
+    public void init() {
+        statements = Timer.builder("jdbc.statements")
+                .description("Executed JDBC statements")
+                .register(meterRegistry);
+        jdbcInstrumentation.setMetrics(this);
+    }
+
+    /**
+     * Record one executed statement (or batch)
+     * @param sql - Statement SQL
+     * @param nanos - Execution time
+     */
+    public void statementExecuted(String sql, long nanos) {
+        statements.record(nanos, TimeUnit.NANOSECONDS);
+        RequestStatements request = REQUEST_STATEMENTS.get();
+        if (request != null) {
+            request.record(sql, nanos);
+        }
+        StatementCapture.recordIfActive(sql, nanos);
+    }
+
+    /**
+     * Start collecting the statements of the request on the current thread
+     */
+    public void beginRequest() {
+        REQUEST_STATEMENTS.set(new RequestStatements());
+    }
+
+    /**
+     * Stop collecting and record the request's statement count and database time
+     * @param method - HTTP method
+     * @param uri - Matched URI pattern, e.g. /api/posts/feed/{userId}
+     * @return Statements executed by the request
+     */
+    public RequestStatements endRequest(String method, String uri) {
+        RequestStatements request = REQUEST_STATEMENTS.get();
+        REQUEST_STATEMENTS.remove();
+        if (request == null) {
+            request = new RequestStatements();
+        }
+        DistributionSummary.builder("http.server.requests.statements")
+                .description("JDBC statements executed per request")
+                .baseUnit("statements")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(request.getCount());
+        Timer.builder("http.server.requests.db.time")
+                .description("Time spent executing JDBC statements per request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(request.getTotalNanos(), TimeUnit.NANOSECONDS);
+        return request;
+    }
+}
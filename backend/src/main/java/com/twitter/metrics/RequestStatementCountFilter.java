@@ -0,0 +1,63 @@
+package com.twitter.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * RequestStatementCountFilter - Counts the JDBC statements of each API request
+ * SOLID: Single Responsibility - Only brackets requests for JdbcMetrics and StatementBudget
+ *
+ * Recorded per method and matched URI pattern, so a feed read and a profile
+ * read are reported separately however many distinct IDs are requested, then
+ * checked against the statement budget with the controller method that
+ * served the request.
+ */
+@Component
+public class RequestStatementCountFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private JdbcMetrics jdbcMetrics;
+
+    @Autowired
+    private StatementBudget statementBudget;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        jdbcMetrics.beginRequest();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            RequestStatements statements = jdbcMetrics.endRequest(request.getMethod(), uri);
+            statementBudget.check(request.getMethod(), uri, handlerName(request), statements);
+        }
+    }
+
+    /**
+     * Controller#method that handled the request, e.g. PostController#getFeed
+     */
+    private static String handlerName(HttpServletRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod) {
+            HandlerMethod handlerMethod = (HandlerMethod) handler;
+            return handlerMethod.getBeanType().getSimpleName() + "#" + handlerMethod.getMethod().getName();
+        }
+        return handler != null ? handler.getClass().getSimpleName() : "unknown handler";
+    }
+}
@@ -0,0 +1,132 @@
+package com.twitter.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * RequestStatements - The JDBC statements executed within one request or capture
+ * SOLID: Single Responsibility - Only accumulates and summarizes statements
+ *
+ * Statements are grouped by their SQL text as executed, which is cheap and
+ * already groups prepared statements. Summaries regroup by normalized SQL
+ * (literals and IN lists replaced), so the same query with different values
+ * counts as one, which is what an N+1 looks like.
+ *
+ * Confined to one thread; not thread-safe.
+ */
+public final class RequestStatements {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Map<String, Group> bySql = new HashMap<>();
+    private long count;
+    private long totalNanos;
+
+    void record(String sql, long nanos) {
+        bySql.computeIfAbsent(sql == null ? "(batch)" : sql, s -> new Group()).add(nanos);
+        count++;
+        totalNanos += nanos;
+    }
+
+    /**
+     * Statements executed (a batch counts once)
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Time spent executing statements
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Statements grouped by normalized SQL, most executed first
+     */
+    public List<Summary> summarize() {
+        Map<String, Summary> merged = new LinkedHashMap<>();
+        for (Map.Entry<String, Group> entry : bySql.entrySet()) {
+            Group group = entry.getValue();
+            merged.computeIfAbsent(normalize(entry.getKey()), Summary::new).add(group.count, group.nanos, group.maxNanos);
+        }
+        List<Summary> summaries = new ArrayList<>(merged.values());
+        summaries.sort(Comparator.comparingLong(Summary::getCount).reversed()
+                .thenComparing(Comparator.comparingLong(Summary::getTotalNanos).reversed()));
+        return summaries;
+    }
+
+    /**
+     * SQL with literals replaced by ? and parameter lists collapsed, e.g.
+     * "select * from users where id in (?, ?, ?)" becomes "select * from users where id in (?...)"
+     * @param sql - Statement SQL
+     */
+    public static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = PARAMETER_LIST.matcher(normalized).replaceAll("(?...)");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    private static final class Group {
+        private long count;
+        private long nanos;
+        private long maxNanos;
+
+        void add(long statementNanos) {
+            count++;
+            nanos += statementNanos;
+            maxNanos = Math.max(maxNanos, statementNanos);
+        }
+    }
+
+    /**
+     * Executions of one normalized statement
+     */
+    public static final class Summary {
+        private final String sql;
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+
+        Summary(String sql) {
+            this.sql = sql;
+        }
+
+        void add(long addedCount, long addedNanos, long addedMaxNanos) {
+            count += addedCount;
+            totalNanos += addedNanos;
+            maxNanos = Math.max(maxNanos, addedMaxNanos);
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%5d x %8.2f ms  %s", count, totalNanos / 1e6, sql);
+        }
+    }
+}
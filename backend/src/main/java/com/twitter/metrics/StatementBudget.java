@@ -0,0 +1,145 @@
+package com.twitter.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * StatementBudget - Flags requests that run too many or too slow JDBC statements
+ * SOLID: Single Responsibility - Only checks requests against their budget and reports violations
+ *
+ * A request exceeds its budget when it
+ * - executes more statements than allowed (a default, overridable per endpoint),
+ * - spends longer than allowed executing statements, or
+ * - executes the same normalized statement n-plus-one-threshold times or more.
+ *
+ * Every violation is counted (http.server.requests.budget.exceeded, by
+ * method, uri and reason). The slow-query record (the endpoint, the controller
+ * method and its statements grouped by normalized SQL, slowest first) is
+ * sampled: at most one per endpoint per log interval, noting how many were
+ * suppressed in between.
+ */
+@Component
+public class StatementBudget {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementBudget.class);
+
+    private static final int LOGGED_STATEMENTS = 10;
+    private static final int MAX_SQL_LENGTH = 300;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jdbc.budget.max-statements:25}")
+    private long maxStatements;
+
+    @Value("#{${jdbc.budget.endpoint-max-statements:{:}}}")
+    private Map<String, Long> endpointMaxStatements;
+
+    @Value("${jdbc.budget.max-db-ms:250}")
+    private long maxDbMs;
+
+    @Value("${jdbc.budget.n-plus-one-threshold:10}")
+    private long nPlusOneThreshold;
+
+    @Value("${jdbc.budget.log-interval-ms:60000}")
+    private long logIntervalMs;
+
+    private final Map<String, AtomicLong> lastLogged = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> suppressed = new ConcurrentHashMap<>();
+
+    /**
+     * Check a finished request
+     * @param method - HTTP method
+     * @param uri - Matched URI pattern, e.g. /api/posts/feed/{userId}
+     * @param handler - Controller method that served it (for the log record)
+     * @param statements - Statements it executed
+     * @return Reasons the budget was exceeded (empty if within budget)
+     */
+    public List<String> check(String method, String uri, String handler, RequestStatements statements) {
+        String endpoint = method + " " + uri;
+        List<String> reasons = new ArrayList<>(3);
+        long statementBudget = endpointMaxStatements.getOrDefault(endpoint, maxStatements);
+        if (statements.getCount() > statementBudget) {
+            reasons.add("statements");
+        }
+        long dbMs = TimeUnit.NANOSECONDS.toMillis(statements.getTotalNanos());
+        if (dbMs > maxDbMs) {
+            reasons.add("time");
+        }
+        List<RequestStatements.Summary> summaries = null;
+        if (statements.getCount() >= nPlusOneThreshold) {
+            summaries = statements.summarize();
+            if (summaries.get(0).getCount() >= nPlusOneThreshold) {
+                reasons.add("n-plus-one");
+            }
+        }
+        if (reasons.isEmpty()) {
+            return reasons;
+        }
+
+        for (String reason : reasons) {
+            Counter.builder("http.server.requests.budget.exceeded")
+                    .description("Requests over their JDBC statement budget")
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .tag("reason", reason)
+                    .register(meterRegistry)
+                    .increment();
+        }
+        if (sample(endpoint)) {
+            logRecord(endpoint, handler, statements, summaries != null ? summaries : statements.summarize(),
+                    reasons, statementBudget, dbMs);
+        }
+        return reasons;
+    }
+
+    /**
+     * @return true for the first violation of an endpoint in each log interval
+     */
+    private boolean sample(String endpoint) {
+        long now = System.currentTimeMillis();
+        AtomicLong last = lastLogged.computeIfAbsent(endpoint, e -> new AtomicLong(Long.MIN_VALUE));
+        long previous = last.get();
+        if (previous != Long.MIN_VALUE && now - previous < logIntervalMs || !last.compareAndSet(previous, now)) {
+            suppressed.computeIfAbsent(endpoint, e -> new LongAdder()).increment();
+            return false;
+        }
+        return true;
+    }
+
+    private void logRecord(String endpoint, String handler, RequestStatements statements,
+                           List<RequestStatements.Summary> summaries, List<String> reasons,
+                           long statementBudget, long dbMs) {
+        LongAdder skipped = suppressed.get(endpoint);
+        long skippedCount = skipped == null ? 0 : skipped.sumThenReset();
+        StringBuilder record = new StringBuilder();
+        record.append("Statement budget exceeded (").append(String.join(", ", reasons)).append(") by ")
+                .append(endpoint).append(" in ").append(handler).append(": ")
+                .append(statements.getCount()).append(" statements (budget ").append(statementBudget).append("), ")
+                .append(dbMs).append(" ms in the database (budget ").append(maxDbMs).append(" ms)");
+        if (skippedCount > 0) {
+            record.append(", ").append(skippedCount).append(" similar records suppressed");
+        }
+        for (int i = 0; i < summaries.size() && i < LOGGED_STATEMENTS; i++) {
+            String line = summaries.get(i).toString();
+            record.append("\n  ").append(line.length() > MAX_SQL_LENGTH ? line.substring(0, MAX_SQL_LENGTH) + "..." : line);
+        }
+        if (summaries.size() > LOGGED_STATEMENTS) {
+            record.append("\n  ... ").append(summaries.size() - LOGGED_STATEMENTS).append(" more distinct statements");
+        }
+        log.warn(record.toString());
+    }
+}
@@ -0,0 +1,121 @@
+package com.twitter.metrics;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * StatementCapture - Test-time assertions on the JDBC statements a block of code executes
+ * SOLID: Single Responsibility - Only captures statements for assertions
+ *
+ * Captures statements executed on the current thread through the instrumented
+ * DataSource, e.g. a MockMvc request (which runs on the test thread) or a
+ * direct service call:
+ *
+ *   try (StatementCapture capture = StatementCapture.start()) {
+ *       mockMvc.perform(get("/api/posts/feed/{userId}", userId));
+ *       capture.assertCount(4).assertNoRepeatsOver(1);
+ *   }
+ *
+ * Captures nest; an inner capture's statements also count for the outer one.
+ * Failures throw AssertionError listing the statements grouped by normalized SQL.
+ */
+public final class StatementCapture implements AutoCloseable {
+
+    private static final ThreadLocal<StatementCapture> ACTIVE = new ThreadLocal<>();
+
+    private final RequestStatements statements = new RequestStatements();
+    private final StatementCapture outer;
+    private boolean closed;
+
+    private StatementCapture(StatementCapture outer) {
+        this.outer = outer;
+    }
+
+    /**
+     * Start capturing on the current thread (close to stop)
+     */
+    public static StatementCapture start() {
+        StatementCapture capture = new StatementCapture(ACTIVE.get());
+        ACTIVE.set(capture);
+        return capture;
+    }
+
+    /**
+     * Called by JdbcMetrics for every statement
+     */
+    static void recordIfActive(String sql, long nanos) {
+        for (StatementCapture capture = ACTIVE.get(); capture != null; capture = capture.outer) {
+            capture.statements.record(sql, nanos);
+        }
+    }
+
+    /**
+     * Statements captured so far
+     */
+    public long count() {
+        return statements.getCount();
+    }
+
+    /**
+     * Captured statements grouped by normalized SQL, most executed first
+     */
+    public List<RequestStatements.Summary> summarize() {
+        return statements.summarize();
+    }
+
+    /**
+     * @param expected - Exact number of statements
+     */
+    public StatementCapture assertCount(long expected) {
+        if (count() != expected) {
+            throw failure("Expected " + expected + " statements but " + count() + " were executed");
+        }
+        return this;
+    }
+
+    /**
+     * @param max - Maximum number of statements
+     */
+    public StatementCapture assertAtMost(long max) {
+        if (count() > max) {
+            throw failure("Expected at most " + max + " statements but " + count() + " were executed");
+        }
+        return this;
+    }
+
+    /**
+     * Fail if any normalized statement ran more often than allowed (an N+1)
+     * @param maxExecutions - Allowed executions of the same statement
+     */
+    public StatementCapture assertNoRepeatsOver(long maxExecutions) {
+        for (RequestStatements.Summary summary : summarize()) {
+            if (summary.getCount() > maxExecutions) {
+                throw failure("Statement executed " + summary.getCount() + " times (at most "
+                        + maxExecutions + " allowed): " + summary.getSql());
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (ACTIVE.get() != this) {
+            throw new IllegalStateException("Statement captures must be closed innermost first");
+        }
+        if (outer != null) {
+            ACTIVE.set(outer);
+        } else {
+            ACTIVE.remove();
+        }
+    }
+
+    private AssertionError failure(String message) {
+        return new AssertionError(message + ":\n" + summarize().stream()
+                .map(RequestStatements.Summary::toString)
+                .collect(Collectors.joining("\n")));
+    }
+}
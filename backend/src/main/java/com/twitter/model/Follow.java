@@ -1,5 +1,7 @@
 package com.twitter.model;
 
+import org.hibernate.annotations.GenericGenerator;
+
 import javax.persistence.*;
 
 /**
@@ -8,11 +10,16 @@ import javax.persistence.*;
  * Observer Pattern: This relationship enables notifications
  */
 @Entity
-@Table(name = "follows")
+@Table(name = "follows", indexes = {
+    // Unique: a follow is claimed in the graph index first, this backs it up in the database
+    @Index(name = "ux_follows_follower", columnList = "follower_id, following_id", unique = true),
+    @Index(name = "idx_follows_following", columnList = "following_id, follower_id")
+})
 public class Follow {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "snowflake")
+    @GenericGenerator(name = "snowflake", strategy = "com.twitter.id.SnowflakeIdentifierGenerator")
     private Long id;
     
     @Column(nullable = false, name = "follower_id")
@@ -1,6 +1,11 @@
 package com.twitter.model;
 
+import org.hibernate.annotations.GenericGenerator;
+
 import javax.persistence.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Notification Entity - Database-persisted notifications
@@ -8,11 +13,14 @@ import javax.persistence.*;
  * Observer Pattern: Used to notify users of events
  */
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+    @Index(name = "idx_notifications_user_time", columnList = "user_id, created_at, id")
+})
 public class Notification {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "snowflake")
+    @GenericGenerator(name = "snowflake", strategy = "com.twitter.id.SnowflakeIdentifierGenerator")
     private Long id;
     
     @Column(nullable = false, name = "user_id")
@@ -30,6 +38,12 @@ public class Notification {
     @Column(name = "created_at")
     private long createdAt = System.currentTimeMillis();
     
+    @Column(name = "actor_count", columnDefinition = "integer default 1 not null")
+    private int actorCount = 1;  // Distinct users behind a coalesced notification
+    
+    @Column(name = "actor_sample", length = 200)
+    private String actorSample;  // Most recent actor IDs, comma separated
+    
     // Default Constructor
     public Notification() {
     }
@@ -101,6 +115,29 @@ public class Notification {
         this.createdAt = createdAt;
     }
     
+    public int getActorCount() {
+        return actorCount;
+    }
+    
+    public void setActorCount(int actorCount) {
+        this.actorCount = actorCount;
+    }
+    
+    public List<Long> getActorSample() {
+        List<Long> ids = new ArrayList<>();
+        if (actorSample != null && !actorSample.isEmpty()) {
+            for (String id : actorSample.split(",")) {
+                ids.add(Long.parseLong(id));
+            }
+        }
+        return ids;
+    }
+    
+    public void setActorSample(List<Long> actorIds) {
+        this.actorSample = actorIds == null || actorIds.isEmpty() ? null
+                : actorIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+    
     @Override
     public String toString() {
         return "Notification{" +
@@ -110,6 +147,7 @@ public class Notification {
                 ", type='" + type + '\'' +
                 ", isRead=" + isRead +
                 ", createdAt=" + createdAt +
+                ", actorCount=" + actorCount +
                 '}';
     }
 }
@@ -1,5 +1,7 @@
 package com.twitter.model;
 
+import org.hibernate.annotations.GenericGenerator;
+
 import javax.persistence.*;
 
 /**
@@ -7,11 +9,15 @@ import javax.persistence.*;
  * SOLID: Single Responsibility - Only represents post data
  */
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+    @Index(name = "idx_posts_user_time", columnList = "user_id, timestamp, id"),
+    @Index(name = "idx_posts_time", columnList = "timestamp, id")
+})
 public class Post {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "snowflake")
+    @GenericGenerator(name = "snowflake", strategy = "com.twitter.id.SnowflakeIdentifierGenerator")
     private Long id;
     
     @Column(name = "user_id", nullable = false)
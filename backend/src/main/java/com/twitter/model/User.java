@@ -1,5 +1,7 @@
 package com.twitter.model;
 
+import org.hibernate.annotations.GenericGenerator;
+
 import javax.persistence.*;
 
 /**
@@ -7,11 +9,14 @@ import javax.persistence.*;
  * SOLID: Single Responsibility - Only manages user data
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_created", columnList = "created_at, id")
+})
 public class User {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "snowflake")
+    @GenericGenerator(name = "snowflake", strategy = "com.twitter.id.SnowflakeIdentifierGenerator")
     private Long id;
     
     @Column(nullable = false, unique = true)
@@ -0,0 +1,76 @@
+package com.twitter.model;
+
+import javax.persistence.*;
+
+/**
+ * UserCounters Entity - Denormalized per-user counts
+ * SOLID: Single Responsibility - Only holds precomputed counts for one user
+ *
+ * Rows are written by UserCounterStore (JDBC delta updates and periodic
+ * reconciliation); the entity mainly defines the table.
+ */
+@Entity
+@Table(name = "user_counters")
+public class UserCounters {
+    
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(name = "unread_notifications", nullable = false, columnDefinition = "bigint default 0 not null")
+    private long unreadNotifications;
+    
+    @Column(name = "followers_count", nullable = false, columnDefinition = "bigint default 0 not null")
+    private long followersCount;
+    
+    @Column(name = "following_count", nullable = false, columnDefinition = "bigint default 0 not null")
+    private long followingCount;
+    
+    @Column(name = "posts_count", nullable = false, columnDefinition = "bigint default 0 not null")
+    private long postsCount;
+    
+    // Default Constructor
+    public UserCounters() {
+    }
+    
+    // Getters and Setters
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public long getUnreadNotifications() {
+        return unreadNotifications;
+    }
+    
+    public void setUnreadNotifications(long unreadNotifications) {
+        this.unreadNotifications = unreadNotifications;
+    }
+    
+    public long getFollowersCount() {
+        return followersCount;
+    }
+    
+    public void setFollowersCount(long followersCount) {
+        this.followersCount = followersCount;
+    }
+    
+    public long getFollowingCount() {
+        return followingCount;
+    }
+    
+    public void setFollowingCount(long followingCount) {
+        this.followingCount = followingCount;
+    }
+    
+    public long getPostsCount() {
+        return postsCount;
+    }
+    
+    public void setPostsCount(long postsCount) {
+        this.postsCount = postsCount;
+    }
+}
@@ -0,0 +1,407 @@
+package com.twitter.notification;
+
+import com.twitter.model.Notification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * NotificationCoalescer - Merges bursts of same-type notifications into one aggregate row
+ * SOLID: Single Responsibility - Only decides whether a notification becomes a new row or joins an open one
+ *
+ * The first notification of a type for a recipient is written and delivered
+ * immediately, and opens an aggregate for the coalescing window. Later
+ * notifications of that type for that recipient within the window only bump
+ * the aggregate in memory ("User 5 and 41 others followed you"); a periodic
+ * flush writes each changed aggregate with one batched UPDATE and re-delivers
+ * it to listeners.
+ *
+ * - The row keeps its ID for good (clients mark and delete notifications by
+ *   it). An unread aggregate gets a new creation time when it is rewritten,
+ *   so it sorts as the newest notification again; lists and stream resume
+ *   both page on (created_at, id), so they see it move.
+ * - An aggregate whose row was read meanwhile keeps its creation time and
+ *   read state; its last changes are written in place and it is closed.
+ *
+ * - Reading or deleting a user's notifications closes their open aggregates,
+ *   so later activity starts a fresh unread row instead of reviving a read one.
+ * - An aggregate counts as one unread notification, however many actors it holds.
+ * - The number of open aggregates is bounded; beyond it, notifications are
+ *   simply written one row each.
+ */
+@Component
+public class NotificationCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationCoalescer.class);
+
+    private static final String REFRESH_SQL = "update notifications set created_at = ?, " +
+            "message = ?, actor_count = ?, actor_sample = ? where id = ? and is_read = false";
+
+    private static final String UPDATE_SQL =
+            "update notifications set message = ?, actor_count = ?, actor_sample = ? where id = ?";
+
+    @Autowired
+    private NotificationManager notificationManager;
+
+    @Autowired
+    private NotificationStore notificationStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${notifications.coalesce.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notifications.coalesce.types:FOLLOW,POST}")
+    private Set<String> types;
+
+    @Value("${notifications.coalesce.window-ms:3600000}")
+    private long windowMs;
+
+    @Value("${notifications.coalesce.sample-size:5}")
+    private int sampleSize;
+
+    @Value("${notifications.coalesce.max-open:100000}")
+    private int maxOpen;
+
+    @Value("${notifications.coalesce.max-tracked-actors:1000}")
+    private int maxTrackedActors;
+
+    private final Map<String, Aggregate> open = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Aggregate> retired = new ConcurrentLinkedQueue<>();
+    // Flushes and closes write one at a time, so an aggregate is never refreshed by two writers at once
+    private final Object writeLock = new Object();
+
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder absorbed = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Try to merge a notification into the recipient's open aggregate
+     * @param userId - Recipient ID
+     * @param actorId - User who caused the notification
+     * @param type - Notification type
+     * @return true if merged (nothing to write now), false if the caller must write a new row
+     */
+    public boolean absorb(Long userId, Long actorId, String type) {
+        if (!enabled || actorId == null || !types.contains(type)) {
+            return false;
+        }
+        Aggregate aggregate = open.get(key(userId, type));
+        if (aggregate == null || !aggregate.absorb(actorId, System.currentTimeMillis())) {
+            return false;
+        }
+        absorbed.increment();
+        return true;
+    }
+
+    /**
+     * Open an aggregate on a freshly written notification
+     * @param notification - Persisted notification (ID assigned)
+     * @param actorId - User who caused it
+     */
+    public void open(Notification notification, Long actorId) {
+        if (!enabled || actorId == null || !types.contains(notification.getType()) || open.size() >= maxOpen) {
+            return;
+        }
+        Aggregate previous = open.put(key(notification.getUserId(), notification.getType()),
+                new Aggregate(notification, actorId));
+        if (previous != null) {
+            // Expired (or lost a race): its last changes still have to be written
+            previous.close();
+            retired.add(previous);
+        }
+        opened.increment();
+    }
+
+    /**
+     * Stop merging into a user's aggregates (after they read or delete notifications).
+     * Pending changes are written first.
+     * @param userId - User ID
+     */
+    public void close(Long userId) {
+        List<Aggregate> closing = new ArrayList<>();
+        for (String type : types) {
+            Aggregate aggregate = open.remove(key(userId, type));
+            if (aggregate != null) {
+                aggregate.close();
+                closing.add(aggregate);
+            }
+        }
+        write(closing);
+    }
+
+    /**
+     * Write changed aggregates and retire those whose window has passed
+     */
+    @Scheduled(fixedDelayString = "${notifications.coalesce.flush-interval-ms:2000}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        List<Aggregate> batch = new ArrayList<>();
+        Aggregate done;
+        while ((done = retired.poll()) != null) {
+            batch.add(done);
+        }
+        for (Map.Entry<String, Aggregate> entry : open.entrySet()) {
+            Aggregate aggregate = entry.getValue();
+            if (aggregate.isExpired(now, windowMs) && open.remove(entry.getKey(), aggregate)) {
+                aggregate.close();
+            }
+            batch.add(aggregate);
+        }
+        write(batch);
+    }
+
+    /**
+     * Open/absorbed/flushed counts
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("open", open.size());
+        stats.put("opened", opened.sum());
+        stats.put("absorbed", absorbed.sum());
+        stats.put("flushedRows", flushedRows.sum());
+        return stats;
+    }
+
+    /**
+     * Persist the aggregates that changed since their last write, then re-deliver them
+     */
+    private void write(List<Aggregate> aggregates) {
+        synchronized (writeLock) {
+            long now = System.currentTimeMillis();
+            List<Change> changes = new ArrayList<>();
+            for (Aggregate aggregate : aggregates) {
+                Change change = aggregate.takeChanges(now);
+                if (change != null) {
+                    changes.add(change);
+                }
+            }
+            if (changes.isEmpty()) {
+                return;
+            }
+
+            List<Notification> delivered = new ArrayList<>();
+            List<Change> read = new ArrayList<>();
+            try {
+                int[][] refreshed = transactionTemplate.execute(status ->
+                        jdbcTemplate.batchUpdate(REFRESH_SQL, changes, changes.size(), (ps, c) -> {
+                            ps.setLong(1, c.refreshed.getCreatedAt());
+                            ps.setString(2, c.refreshed.getMessage());
+                            ps.setInt(3, c.refreshed.getActorCount());
+                            ps.setString(4, joinSample(c.refreshed.getActorSample()));
+                            ps.setLong(5, c.refreshed.getId());
+                        }));
+                for (int i = 0; i < changes.size(); i++) {
+                    Change change = changes.get(i);
+                    if (refreshed[0][i] > 0) {
+                        change.aggregate.refreshedAt(change.refreshed.getCreatedAt());
+                        notificationStore.update(change.refreshed);
+                        delivered.add(change.refreshed);
+                    } else {
+                        read.add(change);
+                    }
+                }
+                if (!read.isEmpty()) {
+                    // Read (or deleted) meanwhile: keep the row's creation time and read state, stop merging into it
+                    int[][] updated = transactionTemplate.execute(status ->
+                            jdbcTemplate.batchUpdate(UPDATE_SQL, read, read.size(), (ps, c) -> {
+                                ps.setString(1, c.refreshed.getMessage());
+                                ps.setInt(2, c.refreshed.getActorCount());
+                                ps.setString(3, joinSample(c.refreshed.getActorSample()));
+                                ps.setLong(4, c.refreshed.getId());
+                            }));
+                    for (int i = 0; i < read.size(); i++) {
+                        Change change = read.get(i);
+                        change.aggregate.close();
+                        open.remove(key(change.refreshed.getUserId(), change.refreshed.getType()), change.aggregate);
+                        if (updated[0][i] > 0) {
+                            delivered.add(change.inPlace());
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("Writing {} coalesced notifications failed; retrying on the next flush", changes.size(), e);
+                for (Change change : changes) {
+                    if (change.aggregate.restore() && !retired.contains(change.aggregate)) {
+                        // No longer in open: only the retired queue brings it back to the next flush
+                        retired.add(change.aggregate);
+                    }
+                }
+                return;
+            }
+            flushedRows.add(changes.size());
+            for (Notification notification : delivered) {
+                notificationManager.notifyListeners(notification);
+            }
+        }
+    }
+
+    private String key(Long userId, String type) {
+        return userId + ":" + type;
+    }
+
+    private static String joinSample(List<Long> sample) {
+        StringBuilder joined = new StringBuilder();
+        for (Long id : sample) {
+            if (joined.length() > 0) {
+                joined.append(',');
+            }
+            joined.append(id);
+        }
+        return joined.length() == 0 ? null : joined.toString();
+    }
+
+    /**
+     * Message of an aggregate
+     * @param type - Notification type
+     * @param latestActorId - Most recent actor
+     * @param actorCount - Distinct actors
+     * @param eventCount - Merged notifications
+     */
+    static String describe(String type, long latestActorId, int actorCount, int eventCount) {
+        String actors = actorCount > 1
+                ? "User " + latestActorId + " and " + (actorCount - 1) + (actorCount == 2 ? " other" : " others")
+                : "User " + latestActorId;
+        switch (type) {
+            case "FOLLOW":
+                return actors + " followed you";
+            case "POST":
+                return actors + " posted " + eventCount + " new posts";
+            default:
+                return actors + ": " + eventCount + " " + type.toLowerCase() + " notifications";
+        }
+    }
+
+    /**
+     * Merged state of an aggregate, ready to be written
+     */
+    private static final class Change {
+        private final Aggregate aggregate;
+        private final long previousCreatedAt;
+        private final Notification refreshed;  // unread, under its new creation time
+
+        Change(Aggregate aggregate, long previousCreatedAt, Notification refreshed) {
+            this.aggregate = aggregate;
+            this.previousCreatedAt = previousCreatedAt;
+            this.refreshed = refreshed;
+        }
+
+        /** The same change written over a row that was read meanwhile */
+        Notification inPlace() {
+            Notification row = new Notification(refreshed.getId(), refreshed.getUserId(), refreshed.getMessage(),
+                    refreshed.getType(), true, previousCreatedAt);
+            row.setActorCount(refreshed.getActorCount());
+            row.setActorSample(refreshed.getActorSample());
+            return row;
+        }
+    }
+
+    /**
+     * One open aggregate row. Distinct actors are tracked exactly up to a cap;
+     * beyond it every merged notification counts as a new actor.
+     */
+    private final class Aggregate {
+        private final Notification row;
+        private final long openedAt;
+        private long createdAt;
+        private final ArrayDeque<Long> recentActors = new ArrayDeque<>();
+        private final Set<Long> actors = new HashSet<>();
+        private int actorCount = 1;
+        private int eventCount = 1;
+        private boolean dirty;
+        private boolean closed;
+
+        Aggregate(Notification row, Long actorId) {
+            this.row = row;
+            this.openedAt = System.currentTimeMillis();
+            this.createdAt = row.getCreatedAt();
+            this.recentActors.add(actorId);
+            this.actors.add(actorId);
+        }
+
+        synchronized boolean absorb(Long actorId, long now) {
+            if (closed || isExpired(now, windowMs)) {
+                return false;
+            }
+            eventCount++;
+            if (actors.size() >= maxTrackedActors || actors.add(actorId)) {
+                actorCount++;
+            }
+            recentActors.remove(actorId);
+            recentActors.addFirst(actorId);
+            if (recentActors.size() > sampleSize) {
+                recentActors.removeLast();
+            }
+            dirty = true;
+            return true;
+        }
+
+        boolean isExpired(long now, long windowMs) {
+            return now - openedAt > windowMs;
+        }
+
+        synchronized void close() {
+            closed = true;
+        }
+
+        /**
+         * The merged actors under a new creation time, or null if nothing changed since the last call
+         * @param now - Creation time the row gets if it is still unread
+         */
+        synchronized Change takeChanges(long now) {
+            if (!dirty) {
+                return null;
+            }
+            dirty = false;
+            List<Long> sample = new ArrayList<>(recentActors);
+            Notification refreshed = new Notification(row.getId(), row.getUserId(),
+                    describe(row.getType(), sample.get(0), actorCount, eventCount),
+                    row.getType(), false, now);
+            refreshed.setActorCount(actorCount);
+            refreshed.setActorSample(sample);
+            return new Change(this, createdAt, refreshed);
+        }
+
+        /**
+         * Mark changes taken by {@link #takeChanges} as unwritten again after a failed write
+         * @return true if the aggregate is closed (and so no longer flushed from the open map)
+         */
+        synchronized boolean restore() {
+            dirty = true;
+            return closed;
+        }
+
+        /**
+         * Record the row's new creation time
+         */
+        synchronized void refreshedAt(long refreshedAt) {
+            createdAt = refreshedAt;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.twitter.notification;
+
+import com.twitter.counter.CounterType;
+import com.twitter.counter.UserCounterStore;
+import com.twitter.id.SnowflakeIdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * NotificationCompactor - Retention for the notifications table
+ * SOLID: Single Responsibility - Only removes notifications past their time-to-live
+ *
+ * TTLs are configured per type and read state, e.g. read POST notifications
+ * after 30 days and unread ones after 90. Types without a TTL are kept.
+ *
+ * Notification IDs are time-ordered, so the primary key already stores rows
+ * in time buckets: everything created before a cutoff is one contiguous ID
+ * range, and expiring it is a range scan of the oldest keys rather than a
+ * scan of the table. A run walks each rule's expired range oldest first and
+ * deletes in bounded chunks, each in its own short transaction with a pause
+ * in between, so no long lock is ever held. Reclaimed rows are counted per
+ * rule and per day bucket. Deleted unread rows are taken off the owners'
+ * unread counters.
+ *
+ * Runs happen on the compactor's own thread, so the pauses between chunks
+ * never hold up the shared @Scheduled thread (counter flushes, coalescing).
+ * Legacy IDENTITY IDs sit below every generated ID, so they fall inside each
+ * expired range; the created_at condition decides whether they are expired,
+ * and their day bucket comes from created_at as well.
+ */
+@Component
+public class NotificationCompactor {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationCompactor.class);
+
+    private static final String SELECT_SQL =
+            "select id, user_id, created_at from notifications where id > ? and id < ? and type = ? and is_read = ? " +
+            "and created_at < ? order by id limit ?";
+
+    private static final int MAX_REPORTED_BUCKETS = 90;
+
+    private static final String DELETE_SQL = "delete from notifications where id = ? and is_read = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserCounterStore userCounterStore;
+
+    @Autowired
+    private NotificationStore notificationStore;
+
+    @Autowired
+    private NotificationStreamHub notificationStreamHub;
+
+    @Value("#{${notifications.retention.read-ttl-days:{POST: 30, FOLLOW: 90}}}")
+    private Map<String, Integer> readTtlDays;
+
+    @Value("#{${notifications.retention.unread-ttl-days:{POST: 90, FOLLOW: 180}}}")
+    private Map<String, Integer> unreadTtlDays;
+
+    @Value("${notifications.retention.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${notifications.retention.chunk-pause-ms:20}")
+    private long chunkPauseMs;
+
+    @Value("${notifications.retention.max-chunks-per-run:1000}")
+    private int maxChunksPerRun;
+
+    @Value("${notifications.retention.interval-ms:3600000}")
+    private long intervalMs;
+
+    private ScheduledExecutorService executor;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Map<String, LongAdder> reclaimedByRule = new LinkedHashMap<>();
+    private final LongAdder reclaimedRows = new LongAdder();
+    private final LongAdder chunks = new LongAdder();
+    private final TreeMap<String, Long> reclaimedByBucket = new TreeMap<>();
+    private final LongAdder runs = new LongAdder();
+    private volatile long lastRunAt;
+    private volatile long lastRunMs;
+    private volatile long lastRunReclaimed;
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::runScheduled, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Delete every notification past its TTL (at most max-chunks-per-run chunks per run)
+     * @return Number of rows deleted, or -1 if a run was already in progress
+     */
+    public long compact() {
+        if (!running.compareAndSet(false, true)) {
+            return -1;
+        }
+        long started = System.currentTimeMillis();
+        int[] chunkBudget = {maxChunksPerRun};
+        long deleted = 0;
+        try {
+            for (Map.Entry<String, Integer> ttl : readTtlDays.entrySet()) {
+                deleted += compact(ttl.getKey(), true, ttl.getValue(), started, chunkBudget);
+            }
+            for (Map.Entry<String, Integer> ttl : unreadTtlDays.entrySet()) {
+                deleted += compact(ttl.getKey(), false, ttl.getValue(), started, chunkBudget);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lastRunAt = started;
+            lastRunMs = System.currentTimeMillis() - started;
+            lastRunReclaimed = deleted;
+            runs.increment();
+            running.set(false);
+        }
+        if (deleted > 0) {
+            log.info("Notification retention reclaimed {} rows in {} ms", deleted, lastRunMs);
+        }
+        return deleted;
+    }
+
+    private void runScheduled() {
+        try {
+            compact();
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the next run retries
+            log.warn("Notification retention run failed", e);
+        }
+    }
+
+    /**
+     * Configured TTLs and rows reclaimed so far
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> byRule = new LinkedHashMap<>();
+        synchronized (reclaimedByRule) {
+            reclaimedByRule.forEach((rule, count) -> byRule.put(rule, count.sum()));
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("readTtlDays", readTtlDays);
+        stats.put("unreadTtlDays", unreadTtlDays);
+        stats.put("runs", runs.sum());
+        stats.put("reclaimedRows", reclaimedRows.sum());
+        stats.put("reclaimedByRule", byRule);
+        stats.put("chunks", chunks.sum());
+        synchronized (reclaimedByBucket) {
+            stats.put("reclaimedByDay", new LinkedHashMap<>(reclaimedByBucket));
+        }
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastRunMs", lastRunMs);
+        stats.put("lastRunReclaimed", lastRunReclaimed);
+        return stats;
+    }
+
+    /**
+     * Expire one rule: rows of a type and read state created before now - TTL.
+     * Walks the expired ID range oldest first, one keyset chunk at a time.
+     */
+    private long compact(String type, boolean isRead, int ttlDays, long now, int[] chunkBudget)
+            throws InterruptedException {
+        long cutoff = now - TimeUnit.DAYS.toMillis(ttlDays);
+        long endId = SnowflakeIdGenerator.minIdAt(cutoff);
+        LongAdder ruleCounter = ruleCounter(type + (isRead ? ".read" : ".unread"));
+        long deleted = 0;
+        long afterId = -1;
+        while (chunkBudget[0]-- > 0) {
+            List<long[]> rows = jdbcTemplate.query(SELECT_SQL,
+                    (rs, i) -> new long[] {rs.getLong(1), rs.getLong(2), rs.getLong(3)},
+                    afterId, endId, type, isRead, cutoff, chunkSize);
+            if (rows.isEmpty()) {
+                break;
+            }
+            int removed = deleteChunk(rows, isRead);
+            deleted += removed;
+            ruleCounter.add(removed);
+            if (rows.size() < chunkSize) {
+                break;
+            }
+            afterId = rows.get(rows.size() - 1)[0];
+            Thread.sleep(chunkPauseMs);
+        }
+        return deleted;
+    }
+
+    /**
+     * Delete one chunk in its own transaction and fix up counters and caches
+     * @return Rows actually deleted (a row marked read meanwhile is left for its read rule)
+     */
+    private int deleteChunk(List<long[]> rows, boolean isRead) {
+        int[][] results = transactionTemplate.execute(status ->
+                jdbcTemplate.batchUpdate(DELETE_SQL, rows, rows.size(), (ps, row) -> {
+                    ps.setLong(1, row[0]);
+                    ps.setBoolean(2, isRead);
+                }));
+
+        Map<Long, Integer> deletedPerUser = new HashMap<>();
+        int deleted = 0;
+        Map<String, Long> deletedPerDay = new HashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (results[0][i] > 0) {
+                deletedPerUser.merge(rows.get(i)[1], 1, Integer::sum);
+                deletedPerDay.merge(dayOf(rows.get(i)[0], rows.get(i)[2]), 1L, Long::sum);
+                deleted++;
+            }
+        }
+        for (Map.Entry<Long, Integer> entry : deletedPerUser.entrySet()) {
+            if (!isRead) {
+                userCounterStore.add(CounterType.UNREAD_NOTIFICATIONS, entry.getKey(), -entry.getValue());
+                notificationStreamHub.unreadCountChanged(entry.getKey());
+            }
+            notificationStore.invalidate(entry.getKey());
+        }
+        chunks.increment();
+        reclaimedRows.add(deleted);
+        synchronized (reclaimedByBucket) {
+            deletedPerDay.forEach((day, count) -> reclaimedByBucket.merge(day, count, Long::sum));
+            while (reclaimedByBucket.size() > MAX_REPORTED_BUCKETS) {
+                reclaimedByBucket.remove(reclaimedByBucket.firstKey());
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Day bucket (UTC date) of a notification, from its time-ordered ID
+     * (or its created_at for a legacy ID, which encodes no time)
+     */
+    private static String dayOf(long id, long createdAt) {
+        long timestamp = SnowflakeIdGenerator.isGenerated(id) ? SnowflakeIdGenerator.timestampOf(id) : createdAt;
+        return LocalDate.ofInstant(Instant.ofEpochMilli(timestamp), ZoneOffset.UTC).toString();
+    }
+
+    private LongAdder ruleCounter(String rule) {
+        synchronized (reclaimedByRule) {
+            return reclaimedByRule.computeIfAbsent(rule, r -> new LongAdder());
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package com.twitter.notification;
+
+import com.twitter.counter.CounterType;
+import com.twitter.counter.UserCounterStore;
+import com.twitter.feed.HomeTimelineStore;
+import com.twitter.graph.SocialGraphIndex;
+import com.twitter.id.SnowflakeIdGenerator;
+import com.twitter.model.Notification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NotificationFanoutEngine - Delivers new posts to followers off the request thread
+ * SOLID: Single Responsibility - Only fans a post event out to followers
+ * OBSERVER PATTERN: Notifies NotificationManager listeners for every delivered notification
+ *
+ * POST /api/posts only has to make the post durable and enqueue an event.
+ * Worker threads take events from a bounded queue, page through the author's
+ * follower IDs (from the in-memory graph index) and, per page, push the post into home timelines, write all
+ * notifications with one JDBC batch insert in one transaction, and notify listeners.
+ * Posts of celebrities skip the timeline push (see PostCreatedEvent) but are notified the same way.
+ * Followers with an open POST aggregate (see NotificationCoalescer) get no new
+ * row; the post is merged into their aggregate instead.
+ *
+ * A page is one unit: its rows are inserted, then the recipients' unread
+ * counters are updated from exactly the inserted rows, then listeners are
+ * notified. If a page fails, the event is retried later from that page
+ * (rows built for it are inserted as they were, so followers merged into an
+ * aggregate are not merged twice), up to max-attempts times.
+ *
+ * Backpressure: when the queue stays full the producing thread runs the
+ * fan-out itself, so bursts slow writers down instead of dropping events.
+ * On shutdown the queue and pending retries are drained before the workers exit.
+ *
+ * Meters: queue depth, fan-out size (followers per post), fan-out duration,
+ * how often the posting thread had to run a fan-out itself, retries and
+ * events given up.
+ */
+@Component
+public class NotificationFanoutEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationFanoutEngine.class);
+
+    private static final String INSERT_SQL =
+            "insert into notifications (id, user_id, message, type, is_read, created_at, actor_count, actor_sample) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private SocialGraphIndex socialGraphIndex;
+
+    @Autowired
+    private HomeTimelineStore timelineStore;
+
+    @Autowired
+    private NotificationManager notificationManager;
+
+    @Autowired
+    private NotificationCoalescer notificationCoalescer;
+
+    @Autowired
+    private UserCounterStore userCounterStore;
+
+    @Autowired
+    private SnowflakeIdGenerator idGenerator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${notifications.fanout.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${notifications.fanout.workers:2}")
+    private int workerCount;
+
+    @Value("${notifications.fanout.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${notifications.fanout.offer-timeout-ms:50}")
+    private long offerTimeoutMs;
+
+    @Value("${notifications.fanout.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMs;
+
+    @Value("${notifications.fanout.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${notifications.fanout.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    private BlockingQueue<FanoutTask> queue;
+    private final List<Thread> workers = new ArrayList<>();
+    private ScheduledExecutorService retries;
+    private volatile boolean running;
+
+    private DistributionSummary fanoutRecipients;
+    private Timer fanoutDuration;
+    private Counter callerRuns;
+    private Counter retried;
+    private Counter abandoned;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("notifications.fanout.queue.depth", this, NotificationFanoutEngine::getQueueDepth)
+                .description("Post events waiting for a fan-out worker")
+                .register(meterRegistry);
+        fanoutRecipients = DistributionSummary.builder("notifications.fanout.recipients")
+                .description("Followers a post was delivered to")
+                .baseUnit("followers")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        fanoutDuration = Timer.builder("notifications.fanout.duration")
+                .description("Time to deliver a post to all followers")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        callerRuns = Counter.builder("notifications.fanout.caller.runs")
+                .description("Fan-outs run on the posting thread because the queue was full")
+                .register(meterRegistry);
+        retried = Counter.builder("notifications.fanout.retries")
+                .description("Fan-outs resumed after a page failed")
+                .register(meterRegistry);
+        abandoned = Counter.builder("notifications.fanout.abandoned")
+                .description("Fan-outs given up after max-attempts failed pages")
+                .register(meterRegistry);
+        retries = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-fanout-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::runWorker, "notification-fanout-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * Stop accepting events and drain whatever is still queued
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        long deadline = System.currentTimeMillis() + shutdownTimeoutMs;
+        for (Thread worker : workers) {
+            worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+        }
+        // Delayed retries still run (on the retry thread, now that the workers are gone)
+        retries.shutdown();
+        retries.awaitTermination(Math.max(1, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        if (!queue.isEmpty()) {
+            log.warn("Fan-out shutdown timed out with {} events still queued", queue.size());
+        }
+    }
+
+    /**
+     * Queue a post for fan-out to its author's followers
+     * @param event - Post event (the post must already be committed)
+     */
+    public void submit(PostCreatedEvent event) {
+        FanoutTask task = new FanoutTask(event);
+        try {
+            if (running && queue.offer(task, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Queue full (or shutting down): apply backpressure by running on the caller
+        callerRuns.increment();
+        fanOut(task);
+    }
+
+    /**
+     * Number of events waiting for a worker
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void runWorker() {
+        while (running || !queue.isEmpty()) {
+            try {
+                FanoutTask task = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (task != null) {
+                    fanOut(task);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Deliver a post to its remaining followers, one page of follower IDs at a time.
+     * A failed page is retried later from where it stopped.
+     */
+    private void fanOut(FanoutTask task) {
+        PostCreatedEvent event = task.event;
+        String message = "User " + event.getAuthorId() + " posted: " + event.getContent();
+        try {
+            if (task.unsaved != null) {
+                // The last attempt built this page's rows but could not write them
+                deliver(event, task.unsaved);
+                task.completePage(task.unsavedPage);
+            }
+            while (true) {
+                long[] followerIds = socialGraphIndex.getFollowerIds(event.getAuthorId(), task.afterFollowerId, batchSize);
+                if (followerIds.length == 0) {
+                    break;
+                }
+
+                if (event.isPushToTimelines()) {
+                    for (long followerId : followerIds) {
+                        timelineStore.push(followerId, event.getPostId(), event.getTimestamp());
+                    }
+                }
+
+                List<Notification> notifications = new ArrayList<>(followerIds.length);
+                for (long followerId : followerIds) {
+                    if (!notificationCoalescer.absorb(followerId, event.getAuthorId(), "POST")) {
+                        Notification notification = new Notification(followerId, message, "POST");
+                        notification.setActorSample(List.of(event.getAuthorId()));
+                        notifications.add(notification);
+                    }
+                }
+                task.unsaved = notifications;
+                task.unsavedPage = followerIds;
+                deliver(event, notifications);
+                task.completePage(followerIds);
+
+                if (followerIds.length < batchSize) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            retry(task, e);
+            return;
+        }
+        fanoutRecipients.record(task.recipients);
+        fanoutDuration.record(System.nanoTime() - task.startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Write one page's rows, then count them as unread, then notify listeners
+     */
+    private void deliver(PostCreatedEvent event, List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        insertBatch(notifications);
+        // The rows are committed: from here on the page is delivered, whatever a listener does
+        for (Notification notification : notifications) {
+            userCounterStore.add(CounterType.UNREAD_NOTIFICATIONS, notification.getUserId(), 1);
+        }
+        for (Notification notification : notifications) {
+            try {
+                notificationManager.notifyListeners(notification);
+                notificationCoalescer.open(notification, event.getAuthorId());
+            } catch (RuntimeException e) {
+                // Clients still see the row on their next read
+                log.warn("Notifying listeners of notification {} failed", notification.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * Schedule the rest of a failed fan-out, or give up after max-attempts
+     */
+    private void retry(FanoutTask task, RuntimeException failure) {
+        task.attempts++;
+        if (task.attempts >= maxAttempts) {
+            abandoned.increment();
+            log.error("Fan-out of {} failed {} times, followers after {} were not notified",
+                    task.event, task.attempts, task.afterFollowerId, failure);
+            return;
+        }
+        long delayMs = retryBackoffMs << Math.min(task.attempts - 1, 10);
+        log.warn("Fan-out of {} failed after {} followers, retrying in {} ms", task.event, task.recipients, delayMs, failure);
+        retried.increment();
+        try {
+            retries.schedule(() -> requeue(task), delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down: no later than now
+            requeue(task);
+        }
+    }
+
+    private void requeue(FanoutTask task) {
+        if (!running || !queue.offer(task)) {
+            fanOut(task);
+        }
+    }
+
+    /**
+     * Insert notifications with one JDBC batch. IDs are assigned up front,
+     * so listeners and the notification store see fully persisted rows.
+     */
+    private void insertBatch(List<Notification> notifications) {
+        for (Notification n : notifications) {
+            n.setId(idGenerator.nextId());
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_SQL, notifications, notifications.size(), (ps, n) -> {
+                    ps.setLong(1, n.getId());
+                    ps.setLong(2, n.getUserId());
+                    ps.setString(3, n.getMessage());
+                    ps.setString(4, n.getType());
+                    ps.setBoolean(5, n.isRead());
+                    ps.setLong(6, n.getCreatedAt());
+                    ps.setInt(7, n.getActorCount());
+                    ps.setString(8, n.getActorSample().isEmpty() ? null : String.valueOf(n.getActorSample().get(0)));
+                }));
+    }
+
+    /**
+     * A post event and how far its fan-out got
+     */
+    private static final class FanoutTask {
+        private final PostCreatedEvent event;
+        private final long startedAt = System.nanoTime();
+        private long afterFollowerId;
+        private long recipients;
+        private int attempts;
+        private List<Notification> unsaved;    // rows built for a page that was not written yet
+        private long[] unsavedPage;
+
+        FanoutTask(PostCreatedEvent event) {
+            this.event = event;
+        }
+
+        void completePage(long[] followerIds) {
+            afterFollowerId = followerIds[followerIds.length - 1];
+            recipients += followerIds.length;
+            unsaved = null;
+            unsavedPage = null;
+        }
+    }
+}
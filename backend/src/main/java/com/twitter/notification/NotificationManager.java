@@ -1,9 +1,16 @@
 package com.twitter.notification;
 
 import com.twitter.model.Notification;
+import com.twitter.projection.NotificationView;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 /**
  * NotificationManager - OBSERVER PATTERN (Subject)
@@ -11,7 +18,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * When a post is created, it notifies all followers
  * 
  * OOP Concepts Demonstrated:
- * - Encapsulation: Private listener list
+ * - Encapsulation: Private listener list, recent notifications kept in a bounded NotificationStore
  * - Polymorphism: All listeners implement NotificationListener
  * - Design Pattern: Observer Pattern
  */
@@ -19,7 +26,22 @@ import java.util.concurrent.CopyOnWriteArrayList;
 public class NotificationManager {
     
     private List<NotificationListener> listeners = new CopyOnWriteArrayList<>();
-    private Map<Long, List<Notification>> userNotifications = new HashMap<>();
+    
+    @Autowired
+    private NotificationStore notificationStore;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Timer dispatchTimer;
+    
+    @PostConstruct
+    public void init() {
+        dispatchTimer = Timer.builder("notifications.listener.dispatch")
+                .description("Time to hand one notification to the store and all listeners")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
     
     /**
      * Add a listener (observer) - could be email, web, mobile, etc.
@@ -39,32 +61,33 @@ public class NotificationManager {
     
     /**
      * Notify all listeners of a new event
-     * This is called when a user posts
+     * This is called when a user posts (timed by the notifications.listener.dispatch meter)
      */
     public void notifyListeners(Notification notification) {
-        System.out.println("[NOTIFICATION MANAGER] Notifying about: " + notification.getMessage());
+        long start = System.nanoTime();
         
-        // Store notification for user
-        userNotifications.computeIfAbsent(notification.getUserId(), k -> new ArrayList<>())
-                        .add(notification);
+        // Store notification for user (only kept if the user's recent list is cached)
+        notificationStore.append(notification);
         
         // Notify all listeners
         for (NotificationListener listener : listeners) {
             listener.update(notification);
         }
+        dispatchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
     }
     
     /**
-     * Get notifications for a specific user
+     * Get cached recent notifications for a specific user (empty if not cached)
      */
-    public List<Notification> getUserNotifications(Long userId) {
-        return userNotifications.getOrDefault(userId, new ArrayList<>());
+    public List<NotificationView> getUserNotifications(Long userId) {
+        List<NotificationView> recent = notificationStore.recent(userId, notificationStore.getPerUserCapacity());
+        return recent != null ? recent : new ArrayList<>();
     }
     
     /**
      * Clear notifications for testing
      */
     public void clearNotifications(Long userId) {
-        userNotifications.remove(userId);
+        notificationStore.invalidate(userId);
     }
 }
@@ -0,0 +1,387 @@
+package com.twitter.notification;
+
+import com.twitter.model.Notification;
+import com.twitter.projection.NotificationView;
+import com.twitter.version.ResourceType;
+import com.twitter.version.ResourceVersions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * NotificationStore - Bounded in-memory cache of each user's newest notifications
+ * SOLID: Single Responsibility - Only keeps recent notifications in memory
+ *
+ * - Per-user ring buffer of at most {@code per-user-capacity} notifications.
+ * - Writes lock only the user's own buffer (striped by user), never the whole store.
+ * - A global entry budget; when it is exceeded the least recently read users
+ *   are evicted and will be reloaded from the database on their next read.
+ *
+ * A buffer is only served once it has been loaded from the database.
+ * Appends made while the loader reads the database are merged into the
+ * load; any other change made meanwhile (mark-read, delete, invalidation)
+ * discards the load, since the rows read may predate it. So a hit returns
+ * what the database would have returned.
+ *
+ * Every change to a user's notifications passes through here, cached or not,
+ * so each one also bumps the user's NOTIFICATIONS version (see ResourceVersions).
+ */
+@Component
+public class NotificationStore {
+
+    private static final Comparator<NotificationView> NEWEST_FIRST = Comparator
+            .comparingLong(NotificationView::getCreatedAt).reversed()
+            .thenComparing(NotificationView::getId, Comparator.reverseOrder());
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Value("${notifications.store.per-user-capacity:50}")
+    private int perUserCapacity;
+
+    @Value("${notifications.store.max-entries:500000}")
+    private long maxEntries;
+
+    private final Map<Long, UserBuffer> buffers = new ConcurrentHashMap<>();
+    private final AtomicLong totalEntries = new AtomicLong();
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Newest notifications of a user, if the store can answer without the database
+     * @param userId - User ID
+     * @param count - Number of notifications wanted
+     * @return Notifications (newest first, at most count), or null on a miss
+     */
+    public List<NotificationView> recent(Long userId, int count) {
+        UserBuffer buffer = buffers.get(userId);
+        List<NotificationView> result = buffer == null ? null : buffer.recent(count);
+        if (result == null) {
+            misses.increment();
+            return null;
+        }
+        buffer.lastAccess = clock.incrementAndGet();
+        hits.increment();
+        return result;
+    }
+
+    /**
+     * Start loading a user's buffer. Notifications appended while the caller
+     * reads the database are kept and merged in by {@link #completeLoad}.
+     * @param userId - User ID
+     * @return Token to pass to {@link #completeLoad}
+     */
+    public long beginLoad(Long userId) {
+        return buffers.computeIfAbsent(userId, id -> new UserBuffer(perUserCapacity, changes.incrementAndGet()))
+                .loadToken();
+    }
+
+    /**
+     * Finish loading a user's buffer with rows read from the database,
+     * unless the user's notifications changed other than by appends since {@link #beginLoad}
+     * @param userId - User ID
+     * @param loadToken - Token from {@link #beginLoad}
+     * @param newestFirst - The user's newest notifications (up to the per-user capacity)
+     * @param holdsAll - true if the user has no older notifications than these
+     */
+    public void completeLoad(Long userId, long loadToken, List<NotificationView> newestFirst, boolean holdsAll) {
+        UserBuffer buffer = buffers.get(userId);
+        if (buffer == null) {
+            return;
+        }
+        totalEntries.addAndGet(buffer.fill(loadToken, newestFirst, holdsAll));
+        buffer.lastAccess = clock.incrementAndGet();
+        evictIfNeeded();
+    }
+
+    /**
+     * Add a freshly persisted notification, or replace the cached copy of an
+     * updated one with the same ID (ignored for users who are not cached)
+     * @param notification - Notification with its ID assigned
+     */
+    public void append(Notification notification) {
+        UserBuffer buffer = buffers.get(notification.getUserId());
+        if (buffer != null) {
+            totalEntries.addAndGet(buffer.append(NotificationView.of(notification)));
+            evictIfNeeded();
+        }
+        resourceVersions.bump(ResourceType.NOTIFICATIONS, notification.getUserId());
+    }
+
+    /**
+     * Reflect a rewritten notification (an aggregate with a new creation time).
+     * Unlike an append, this discards a concurrent load, whose row may be the old one.
+     * @param notification - Notification as written, same ID
+     */
+    public void update(Notification notification) {
+        UserBuffer buffer = buffers.get(notification.getUserId());
+        if (buffer != null) {
+            totalEntries.addAndGet(buffer.update(NotificationView.of(notification), changes.incrementAndGet()));
+            evictIfNeeded();
+        }
+        resourceVersions.bump(ResourceType.NOTIFICATIONS, notification.getUserId());
+    }
+
+    /**
+     * Reflect a notification being marked as read
+     * @param userId - Owner of the notification
+     * @param notificationId - Notification ID
+     */
+    public void markRead(Long userId, Long notificationId) {
+        UserBuffer buffer = buffers.get(userId);
+        if (buffer != null) {
+            buffer.markRead(notificationId, changes.incrementAndGet());
+        }
+        resourceVersions.bump(ResourceType.NOTIFICATIONS, userId);
+    }
+
+    /**
+     * Reflect a bulk mark-as-read of every notification up to an ID
+     * @param userId - Owner of the notifications
+     * @param maxId - Highest notification ID marked as read (inclusive)
+     */
+    public void markReadUpTo(Long userId, long maxId) {
+        UserBuffer buffer = buffers.get(userId);
+        if (buffer != null) {
+            buffer.markReadUpTo(maxId, changes.incrementAndGet());
+        }
+        resourceVersions.bump(ResourceType.NOTIFICATIONS, userId);
+    }
+    
+    /**
+     * Reflect a notification being deleted
+     * @param userId - Owner of the notification
+     * @param notificationId - Notification ID
+     */
+    public void remove(Long userId, Long notificationId) {
+        UserBuffer buffer = buffers.get(userId);
+        if (buffer != null) {
+            totalEntries.addAndGet(buffer.remove(notificationId, changes.incrementAndGet()));
+        }
+        resourceVersions.bump(ResourceType.NOTIFICATIONS, userId);
+    }
+
+    /**
+     * Drop a user's buffer so the next read goes to the database
+     * @param userId - User ID
+     */
+    public void invalidate(Long userId) {
+        UserBuffer buffer = buffers.remove(userId);
+        if (buffer != null) {
+            totalEntries.addAndGet(-buffer.size());
+        }
+        resourceVersions.bump(ResourceType.NOTIFICATIONS, userId);
+    }
+
+    /**
+     * Maximum number of notifications kept per user
+     */
+    public int getPerUserCapacity() {
+        return perUserCapacity;
+    }
+
+    /**
+     * Hit/miss/eviction counters and current size
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("users", buffers.size());
+        stats.put("entries", totalEntries.get());
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    /**
+     * Evict the least recently read users once the entry budget is exceeded.
+     * Only one thread evicts at a time; it frees a tenth of the budget so the scan is amortized.
+     */
+    private void evictIfNeeded() {
+        if (totalEntries.get() <= maxEntries || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long target = maxEntries - maxEntries / 10;
+            List<Map.Entry<Long, UserBuffer>> entries = new ArrayList<>(buffers.entrySet());
+            entries.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+            for (Map.Entry<Long, UserBuffer> entry : entries) {
+                if (totalEntries.get() <= target) {
+                    break;
+                }
+                if (buffers.remove(entry.getKey(), entry.getValue())) {
+                    totalEntries.addAndGet(-entry.getValue().size());
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * Ring buffer of one user's newest notifications.
+     * Every method returns the change in entry count so the store can keep its global total.
+     * lastChange is a store-wide unique number taken at creation and at every change other
+     * than an append; it doubles as the load token.
+     */
+    private static final class UserBuffer {
+        private final NotificationView[] ring;
+        private int head;   // index of the next write
+        private int size;
+        private boolean loaded;
+        private boolean holdsAll;
+        private long lastChange;
+        private volatile long lastAccess;
+
+        UserBuffer(int capacity, long created) {
+            this.ring = new NotificationView[capacity];
+            this.lastChange = created;
+        }
+
+        synchronized long loadToken() {
+            return lastChange;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized List<NotificationView> recent(int count) {
+            if (!loaded || (count > size && !holdsAll)) {
+                return null;
+            }
+            List<NotificationView> result = snapshot();
+            return result.size() > count ? new ArrayList<>(result.subList(0, count)) : result;
+        }
+
+        synchronized int fill(long loadToken, List<NotificationView> newestFirst, boolean holdsAll) {
+            if (loadToken != lastChange) {
+                return 0;  // changed while the rows were read: they may be stale
+            }
+            int before = size;
+            // Keep anything appended while the database was being read
+            Map<Long, NotificationView> merged = new HashMap<>();
+            for (NotificationView n : newestFirst) {
+                merged.put(n.getId(), n);
+            }
+            for (NotificationView n : snapshot()) {
+                merged.putIfAbsent(n.getId(), n);
+            }
+            List<NotificationView> all = new ArrayList<>(merged.values());
+            all.sort(NEWEST_FIRST);
+
+            clear();
+            for (int i = Math.min(all.size(), ring.length) - 1; i >= 0; i--) {
+                push(all.get(i));
+            }
+            this.holdsAll = holdsAll && all.size() <= ring.length;
+            this.loaded = true;
+            return size - before;
+        }
+
+        synchronized int append(NotificationView notification) {
+            for (int i = 0; i < size; i++) {
+                int index = index(i);
+                if (notification.getId().equals(ring[index].getId())) {
+                    ring[index] = notification;  // updated aggregate
+                    return 0;
+                }
+            }
+            int before = size;
+            push(notification);
+            return size - before;
+        }
+
+        synchronized int update(NotificationView notification, long change) {
+            lastChange = change;
+            return append(notification);
+        }
+
+        synchronized void markRead(Long notificationId, long change) {
+            lastChange = change;
+            for (int i = 0; i < size; i++) {
+                int index = index(i);
+                if (notificationId.equals(ring[index].getId())) {
+                    ring[index] = ring[index].asRead();
+                    return;
+                }
+            }
+        }
+
+        synchronized void markReadUpTo(long maxId, long change) {
+            lastChange = change;
+            for (int i = 0; i < size; i++) {
+                int index = index(i);
+                if (ring[index].getId() <= maxId) {
+                    ring[index] = ring[index].asRead();
+                }
+            }
+        }
+
+        synchronized int remove(Long notificationId, long change) {
+            lastChange = change;
+            List<NotificationView> kept = snapshot();
+            if (!kept.removeIf(n -> notificationId.equals(n.getId()))) {
+                return 0;
+            }
+            clear();
+            for (int i = kept.size() - 1; i >= 0; i--) {
+                push(kept.get(i));
+            }
+            return -1;
+        }
+
+        private void push(NotificationView notification) {
+            if (size == ring.length) {
+                holdsAll = false;  // the oldest entry falls off
+            } else {
+                size++;
+            }
+            ring[head] = notification;
+            head = (head + 1) % ring.length;
+        }
+
+        private void clear() {
+            Arrays.fill(ring, null);
+            head = 0;
+            size = 0;
+        }
+
+        /** i-th newest entry */
+        private int index(int i) {
+            return Math.floorMod(head - 1 - i, ring.length);
+        }
+
+        private List<NotificationView> snapshot() {
+            List<NotificationView> result = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                result.add(ring[index(i)]);
+            }
+            // Concurrent fan-out workers may append slightly out of order
+            result.sort(NEWEST_FIRST);
+            return result;
+        }
+    }
+}
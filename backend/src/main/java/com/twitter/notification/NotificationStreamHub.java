@@ -0,0 +1,408 @@
+package com.twitter.notification;
+
+import com.twitter.counter.CounterType;
+import com.twitter.counter.UserCounterStore;
+import com.twitter.model.Notification;
+import com.twitter.pagination.Cursor;
+import com.twitter.repository.NotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * NotificationStreamHub - OBSERVER PATTERN (Concrete Observer)
+ * SOLID: Single Responsibility - Only pushes notifications to open Server-Sent Events streams
+ *
+ * Replaces client polling: every open GET /api/notifications/{userId}/stream
+ * connection receives "notification" events as they are delivered and
+ * "unread-count" events when the count changes.
+ *
+ * - Idle connections hold no thread: SseEmitter uses servlet async I/O, and
+ *   writes happen on a small dispatcher pool only when a connection has data.
+ * - Each connection has a bounded buffer; a client that cannot keep up is
+ *   disconnected and resumes from the database on reconnect.
+ * - Notification events carry the (creation time, ID) cursor of the
+ *   notification as event ID, so a reconnecting client's Last-Event-ID
+ *   replays whatever it missed, including aggregates rewritten under their
+ *   old ID with a new creation time.
+ * - Heartbeat comments keep proxies from closing idle connections.
+ */
+@Component
+public class NotificationStreamHub implements NotificationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationStreamHub.class);
+
+    private static final Object UNREAD_COUNT = new Object();
+    private static final Object HEARTBEAT = new Object();
+
+    @Autowired
+    private NotificationManager notificationManager;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserCounterStore userCounterStore;
+
+    @Value("${notifications.stream.max-connections:10000}")
+    private int maxConnections;
+
+    @Value("${notifications.stream.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${notifications.stream.replay-limit:100}")
+    private int replayLimit;
+
+    @Value("${notifications.stream.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    @Value("${notifications.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${notifications.stream.reconnect-ms:3000}")
+    private long reconnectMs;
+
+    @Value("${notifications.stream.dispatch-threads:2}")
+    private int dispatchThreads;
+
+    private final Map<Long, Set<StreamConnection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private ExecutorService dispatcher;
+    private ScheduledExecutorService heartbeats;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadIds = new AtomicInteger();
+        dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "notification-stream-" + threadIds.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeats.scheduleAtFixedRate(this::sendHeartbeats, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        notificationManager.subscribe(this);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        notificationManager.unsubscribe(this);
+        heartbeats.shutdownNow();
+        for (Set<StreamConnection> userConnections : connections.values()) {
+            for (StreamConnection connection : userConnections) {
+                disconnect(connection);
+            }
+        }
+        dispatcher.shutdown();
+    }
+
+    /**
+     * Open a stream for a user
+     * @param userId - User ID
+     * @param lastEvent - Position of the last notification the client saw (null on first connect)
+     * @return Emitter to return from the controller
+     * @throws IllegalStateException if the connection limit is reached
+     */
+    public SseEmitter open(Long userId, Cursor lastEvent) {
+        if (connectionCount.incrementAndGet() > maxConnections) {
+            connectionCount.decrementAndGet();
+            throw new IllegalStateException("Too many notification streams");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        StreamConnection connection = new StreamConnection(userId, emitter, bufferSize);
+        emitter.onCompletion(() -> close(connection));
+        emitter.onTimeout(() -> close(connection));
+        emitter.onError(e -> close(connection));
+
+        // Register before reading missed rows so nothing delivered in between is lost
+        connections.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(connection);
+
+        List<Notification> replay = new ArrayList<>();
+        if (lastEvent != null) {
+            replay = notificationRepository.findForReplay(
+                    userId, lastEvent.getTimestamp(), lastEvent.getId(), PageRequest.of(0, replayLimit + 1));
+            if (replay.size() > replayLimit) {
+                // Too far behind to replay: tell the client to reload its list instead
+                replay = new ArrayList<>();
+                connection.resync = true;
+            }
+        }
+        if (connection.start(replay)) {
+            schedule(connection);
+        }
+        return emitter;
+    }
+
+    /**
+     * Observer callback: queue a delivered notification for the owner's open streams
+     */
+    @Override
+    public void update(Notification notification) {
+        Set<StreamConnection> userConnections = connections.get(notification.getUserId());
+        if (userConnections == null) {
+            return;
+        }
+        for (StreamConnection connection : userConnections) {
+            Boolean needsDispatch = connection.offer(notification);
+            if (needsDispatch == null) {
+                // Buffer overflow: drop the slow client, it replays from Last-Event-ID
+                disconnect(connection);
+            } else if (needsDispatch) {
+                schedule(connection);
+            }
+        }
+    }
+
+    /**
+     * Push a fresh unread count to a user's open streams (after read/delete)
+     * @param userId - User ID
+     */
+    public void unreadCountChanged(Long userId) {
+        Set<StreamConnection> userConnections = connections.get(userId);
+        if (userConnections == null) {
+            return;
+        }
+        for (StreamConnection connection : userConnections) {
+            if (connection.requestUnreadCount()) {
+                schedule(connection);
+            }
+        }
+    }
+
+    /**
+     * Number of open streams
+     */
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    /**
+     * Streams are leaves in the observer graph and do not chain other listeners
+     */
+    @Override
+    public void addListener(NotificationListener listener) {
+    }
+
+    @Override
+    public void removeListener(NotificationListener listener) {
+    }
+
+    private void sendHeartbeats() {
+        for (Set<StreamConnection> userConnections : connections.values()) {
+            for (StreamConnection connection : userConnections) {
+                if (connection.requestHeartbeat()) {
+                    schedule(connection);
+                }
+            }
+        }
+    }
+
+    private void schedule(StreamConnection connection) {
+        try {
+            dispatcher.execute(() -> drain(connection));
+        } catch (RuntimeException e) {
+            // Dispatcher shut down
+            disconnect(connection);
+        }
+    }
+
+    /**
+     * Write everything queued for one connection (runs on the dispatcher pool)
+     */
+    private void drain(StreamConnection connection) {
+        try {
+            if (connection.resync) {
+                connection.resync = false;
+                connection.emitter.send(SseEmitter.event().name("resync").data(Map.of("userId", connection.userId)));
+            }
+            Object next;
+            while ((next = connection.next()) != null) {
+                if (next instanceof Notification) {
+                    Notification notification = (Notification) next;
+                    connection.emitter.send(SseEmitter.event()
+                            .id(Cursor.of(notification.getCreatedAt(), notification.getId()).encode())
+                            .name("notification")
+                            .data(notification, MediaType.APPLICATION_JSON));
+                } else if (next == UNREAD_COUNT) {
+                    long unreadCount = userCounterStore.get(CounterType.UNREAD_NOTIFICATIONS, connection.userId);
+                    connection.emitter.send(SseEmitter.event()
+                            .name("unread-count")
+                            .reconnectTime(reconnectMs)
+                            .data(Map.of("userId", connection.userId, "unreadCount", unreadCount), MediaType.APPLICATION_JSON));
+                } else {
+                    connection.emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away (or the emitter already completed)
+            log.debug("Closing notification stream of user {}: {}", connection.userId, e.getMessage());
+            disconnect(connection);
+        }
+    }
+
+    /**
+     * Close a connection from the server side
+     */
+    private void disconnect(StreamConnection connection) {
+        if (close(connection)) {
+            try {
+                connection.emitter.complete();
+            } catch (RuntimeException e) {
+                log.debug("Notification stream of user {} already closed", connection.userId);
+            }
+        }
+    }
+
+    /**
+     * Unregister a connection
+     * @return true the first time only
+     */
+    private boolean close(StreamConnection connection) {
+        if (!connection.close()) {
+            return false;
+        }
+        connectionCount.decrementAndGet();
+        connections.computeIfPresent(connection.userId, (id, userConnections) -> {
+            userConnections.remove(connection);
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+        return true;
+    }
+
+    /**
+     * One open stream: a bounded queue of pending notifications plus coalesced
+     * unread-count / heartbeat flags. At most one dispatcher task drains it at a time.
+     */
+    private static final class StreamConnection {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final int capacity;
+        private final ArrayDeque<Notification> pending = new ArrayDeque<>();
+        private boolean started;
+        private boolean scheduled;
+        private boolean closed;
+        private boolean unreadCountDue;
+        private boolean heartbeatDue;
+        private volatile boolean resync;
+
+        StreamConnection(Long userId, SseEmitter emitter, int capacity) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.capacity = capacity;
+        }
+
+        /**
+         * Put replayed rows ahead of anything delivered while they were read
+         * @return true if a drain must be scheduled
+         */
+        synchronized boolean start(List<Notification> replay) {
+            Set<Long> live = new HashSet<>();
+            for (Notification n : pending) {
+                live.add(n.getId());
+            }
+            for (int i = replay.size() - 1; i >= 0; i--) {
+                if (!live.contains(replay.get(i).getId())) {
+                    pending.addFirst(replay.get(i));
+                }
+            }
+            started = true;
+            unreadCountDue = true;  // initial count
+            return markScheduled();
+        }
+
+        /**
+         * @return true if a drain must be scheduled, false if not, null if the buffer overflowed
+         */
+        synchronized Boolean offer(Notification notification) {
+            if (closed) {
+                return false;
+            }
+            if (pending.size() >= capacity) {
+                return null;
+            }
+            pending.add(notification);
+            unreadCountDue = true;
+            return markScheduled();
+        }
+
+        synchronized boolean requestUnreadCount() {
+            unreadCountDue = true;
+            return markScheduled();
+        }
+
+        synchronized boolean requestHeartbeat() {
+            heartbeatDue = true;
+            return markScheduled();
+        }
+
+        /**
+         * Next item to write, or null (and the connection is no longer scheduled)
+         */
+        synchronized Object next() {
+            if (closed) {
+                scheduled = false;
+                return null;
+            }
+            Notification notification = pending.poll();
+            if (notification != null) {
+                return notification;
+            }
+            if (unreadCountDue) {
+                unreadCountDue = false;
+                heartbeatDue = false;
+                return UNREAD_COUNT;
+            }
+            if (heartbeatDue) {
+                heartbeatDue = false;
+                return HEARTBEAT;
+            }
+            scheduled = false;
+            return null;
+        }
+
+        /**
+         * @return true the first time only
+         */
+        synchronized boolean close() {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            pending.clear();
+            return true;
+        }
+
+        private boolean markScheduled() {
+            if (!started || closed || scheduled) {
+                return false;
+            }
+            scheduled = true;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.twitter.notification;
+
+import com.twitter.model.Post;
+
+/**
+ * PostCreatedEvent - A durable post waiting to be fanned out to followers
+ * Immutable: safe to hand from the request thread to fan-out workers
+ *
+ * Posts of celebrities (pulled into feeds at read time) are still delivered
+ * as notifications, but not pushed into home timelines.
+ */
+public final class PostCreatedEvent {
+
+    private final long postId;
+    private final long authorId;
+    private final String content;
+    private final long timestamp;
+    private final boolean pushToTimelines;
+
+    /**
+     * @param post - Committed post
+     * @param pushToTimelines - false to only notify followers (the author's posts are pulled at read time)
+     */
+    public PostCreatedEvent(Post post, boolean pushToTimelines) {
+        this.postId = post.getId();
+        this.authorId = post.getUserId();
+        this.content = post.getContent();
+        this.timestamp = post.getTimestamp();
+        this.pushToTimelines = pushToTimelines;
+    }
+
+    public long getPostId() {
+        return postId;
+    }
+
+    public long getAuthorId() {
+        return authorId;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public boolean isPushToTimelines() {
+        return pushToTimelines;
+    }
+
+    @Override
+    public String toString() {
+        return "PostCreatedEvent{" +
+                "postId=" + postId +
+                ", authorId=" + authorId +
+                ", timestamp=" + timestamp +
+                ", pushToTimelines=" + pushToTimelines +
+                '}';
+    }
+}
@@ -0,0 +1,74 @@
+package com.twitter.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor - Opaque keyset position in a time-ordered list
+ * SOLID: Single Responsibility - Only encodes/decodes list positions
+ *
+ * A cursor is the (timestamp, id) pair of a row. Pages are fetched with
+ * keyset predicates on that pair instead of OFFSET, so every page costs
+ * the same no matter how deep the client scrolls.
+ */
+public final class Cursor {
+
+    private final long timestamp;
+    private final long id;
+
+    private Cursor(long timestamp, long id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    /**
+     * Create a cursor pointing at a row
+     * @param timestamp - Row timestamp (sort key)
+     * @param id - Row ID (tie breaker)
+     * @return Cursor
+     */
+    public static Cursor of(long timestamp, long id) {
+        return new Cursor(timestamp, id);
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}
+     * @param token - Opaque cursor token
+     * @return Cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static Cursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            return new Cursor(Long.parseLong(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+
+    /**
+     * Encode this cursor as an opaque, URL-safe token
+     * @return Cursor token
+     */
+    public String encode() {
+        String raw = timestamp + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "Cursor{" +
+                "timestamp=" + timestamp +
+                ", id=" + id +
+                '}';
+    }
+}
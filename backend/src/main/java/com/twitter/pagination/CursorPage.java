@@ -0,0 +1,102 @@
+package com.twitter.pagination;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * CursorPage - One page of a keyset-paginated list
+ * SOLID: Single Responsibility - Only holds page items and neighbour cursors
+ *
+ * Items are always newest first. {@code nextCursor} continues towards older
+ * rows (pass it as {@code before}); {@code prevCursor} points at the newest
+ * row of the page (pass it as {@code after} to poll for newer rows).
+ */
+public final class CursorPage<T> {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String PREV_CURSOR_HEADER = "X-Prev-Cursor";
+
+    private final List<T> items;
+    private final String nextCursor;
+    private final String prevCursor;
+
+    private CursorPage(List<T> items, String nextCursor, String prevCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.prevCursor = prevCursor;
+    }
+
+    /**
+     * Build a page from rows fetched in {@link PageQuery#fetchOrder} order
+     * @param rows - Up to limit + 1 rows
+     * @param query - The page query the rows were fetched for
+     * @param cursorOf - Maps a row to its cursor
+     * @return Page (newest first)
+     */
+    public static <T> CursorPage<T> of(List<T> rows, PageQuery query, Function<T, Cursor> cursorOf) {
+        boolean hasMore = rows.size() > query.getLimit();
+        List<T> items = new ArrayList<>(hasMore ? rows.subList(0, query.getLimit()) : rows);
+        if (query.isAfter()) {
+            Collections.reverse(items);
+        }
+
+        if (items.isEmpty()) {
+            String poll = query.isAfter() ? query.getAfter().encode() : null;
+            return new CursorPage<>(items, null, poll);
+        }
+        boolean hasOlder = query.isAfter() || hasMore;
+        String next = hasOlder ? cursorOf.apply(items.get(items.size() - 1)).encode() : null;
+        String prev = cursorOf.apply(items.get(0)).encode();
+        return new CursorPage<>(items, next, prev);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public String getPrevCursor() {
+        return prevCursor;
+    }
+
+    /**
+     * Items as the response body, cursors as response headers.
+     * Keeps list endpoints returning a plain JSON array.
+     */
+    public ResponseEntity<List<T>> toResponseEntity() {
+        return withCursorHeaders().body(items);
+    }
+
+    /**
+     * Items plus side data as the response body, cursors as response headers.
+     * Body: {"items": [...], "<sideKey>": side}
+     * @param sideKey - Name of the side data, e.g. "authors"
+     * @param side - Side data, e.g. a map of users referenced by the items
+     */
+    public ResponseEntity<Map<String, Object>> toResponseEntity(String sideKey, Object side) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("items", items);
+        body.put(sideKey, side);
+        return withCursorHeaders().body(body);
+    }
+
+    private ResponseEntity.BodyBuilder withCursorHeaders() {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (nextCursor != null) {
+            builder.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        if (prevCursor != null) {
+            builder.header(PREV_CURSOR_HEADER, prevCursor);
+        }
+        return builder;
+    }
+}
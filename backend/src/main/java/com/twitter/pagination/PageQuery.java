@@ -0,0 +1,98 @@
+package com.twitter.pagination;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Comparator;
+import java.util.function.Function;
+
+/**
+ * PageQuery - A validated keyset page request
+ * SOLID: Single Responsibility - Only describes which page a client wants
+ *
+ * Lists are ordered newest first. {@code before} asks for older rows,
+ * {@code after} asks for newer rows, neither asks for the newest page.
+ * Queries fetch one extra row so we know whether another page exists.
+ */
+public final class PageQuery {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+
+    private final Cursor before;
+    private final Cursor after;
+    private final int limit;
+
+    private PageQuery(Cursor before, Cursor after, int limit) {
+        this.before = before;
+        this.after = after;
+        this.limit = limit;
+    }
+
+    /**
+     * Build a page query from request parameters
+     * @param before - Cursor token for older rows (optional)
+     * @param after - Cursor token for newer rows (optional)
+     * @param limit - Page size (optional, clamped to MAX_LIMIT)
+     * @return Page query
+     * @throws IllegalArgumentException if both cursors are given or a cursor is malformed
+     */
+    public static PageQuery of(String before, String after, Integer limit) {
+        if (before != null && after != null) {
+            throw new IllegalArgumentException("Use either 'before' or 'after', not both");
+        }
+        int size = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        return new PageQuery(
+                before == null ? null : Cursor.decode(before),
+                after == null ? null : Cursor.decode(after),
+                size);
+    }
+
+    /**
+     * The newest page of a list, for internal callers (not clamped to MAX_LIMIT)
+     * @param limit - Page size
+     * @return Page query
+     */
+    public static PageQuery first(int limit) {
+        return new PageQuery(null, null, Math.max(1, limit));
+    }
+
+    public boolean isBefore() {
+        return before != null;
+    }
+
+    public boolean isAfter() {
+        return after != null;
+    }
+
+    public Cursor getBefore() {
+        return before;
+    }
+
+    public Cursor getAfter() {
+        return after;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Page request for repository queries (limit + 1 rows, no offset)
+     */
+    public Pageable pageable() {
+        return PageRequest.of(0, limit + 1);
+    }
+
+    /**
+     * Order in which rows are fetched: oldest first for {@code after}, newest first otherwise
+     * @param timestamp - Sort key of a row
+     * @param id - ID of a row
+     * @return Comparator in fetch order
+     */
+    public <T> Comparator<T> fetchOrder(Function<T, Long> timestamp, Function<T, Long> id) {
+        Comparator<T> newestFirst = Comparator.comparing(timestamp, Comparator.reverseOrder())
+                .thenComparing(id, Comparator.reverseOrder());
+        return isAfter() ? newestFirst.reversed() : newestFirst;
+    }
+}
@@ -0,0 +1,105 @@
+package com.twitter.projection;
+
+import com.twitter.model.Notification;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * NotificationView - Immutable read-only projection of a notification
+ * SOLID: Single Responsibility - Only carries the notification columns an endpoint returns
+ *
+ * Built directly by JPQL constructor expressions (or copied from a freshly
+ * delivered entity), so read paths never create managed entities.
+ * Same JSON field names as the Notification entity.
+ */
+public final class NotificationView {
+    
+    private final long id;
+    private final long userId;
+    private final String message;
+    private final String type;
+    private final boolean read;
+    private final long createdAt;
+    private final int actorCount;
+    private final List<Long> actorSample;
+    
+    public NotificationView(long id, long userId, String message, String type, boolean read, long createdAt,
+                            int actorCount, String actorSample) {
+        this(id, userId, message, type, read, createdAt, actorCount, parseSample(actorSample));
+    }
+    
+    private NotificationView(long id, long userId, String message, String type, boolean read, long createdAt,
+                             int actorCount, List<Long> actorSample) {
+        this.id = id;
+        this.userId = userId;
+        this.message = message;
+        this.type = type;
+        this.read = read;
+        this.createdAt = createdAt;
+        this.actorCount = actorCount;
+        this.actorSample = actorSample;
+    }
+    
+    /**
+     * Copy a persisted entity (e.g. one just delivered to listeners)
+     * @param notification - Notification with its ID assigned
+     * @return Projection
+     */
+    public static NotificationView of(Notification notification) {
+        return new NotificationView(notification.getId(), notification.getUserId(), notification.getMessage(),
+                notification.getType(), notification.isRead(), notification.getCreatedAt(),
+                notification.getActorCount(), Collections.unmodifiableList(notification.getActorSample()));
+    }
+    
+    /**
+     * Same notification marked as read
+     */
+    public NotificationView asRead() {
+        return read ? this : new NotificationView(id, userId, message, type, true, createdAt, actorCount, actorSample);
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    public boolean isRead() {
+        return read;
+    }
+    
+    public long getCreatedAt() {
+        return createdAt;
+    }
+    
+    public int getActorCount() {
+        return actorCount;
+    }
+    
+    public List<Long> getActorSample() {
+        return actorSample;
+    }
+    
+    private static List<Long> parseSample(String actorSample) {
+        if (actorSample == null || actorSample.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> ids = new ArrayList<>();
+        for (String id : actorSample.split(",")) {
+            ids.add(Long.parseLong(id));
+        }
+        return Collections.unmodifiableList(ids);
+    }
+}
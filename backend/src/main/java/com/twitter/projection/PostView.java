@@ -0,0 +1,50 @@
+package com.twitter.projection;
+
+/**
+ * PostView - Immutable read-only projection of a post
+ * SOLID: Single Responsibility - Only carries the post columns an endpoint returns
+ *
+ * Built directly by JPQL constructor expressions, so read paths never create
+ * managed entities, persistence-context snapshots or proxies.
+ * Same JSON field names as the Post entity.
+ */
+public final class PostView {
+    
+    private final long id;
+    private final long userId;
+    private final String content;
+    private final long timestamp;
+    
+    public PostView(long id, long userId, String content, long timestamp) {
+        this.id = id;
+        this.userId = userId;
+        this.content = content;
+        this.timestamp = timestamp;
+    }
+    
+    /**
+     * Map a native query row (id, user_id, content, timestamp)
+     * @param row - Result row
+     * @return Projection
+     */
+    public static PostView fromRow(Object[] row) {
+        return new PostView(((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+                (String) row[2], ((Number) row[3]).longValue());
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public String getContent() {
+        return content;
+    }
+    
+    public Long getTimestamp() {
+        return timestamp;
+    }
+}
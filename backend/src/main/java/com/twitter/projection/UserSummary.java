@@ -0,0 +1,44 @@
+package com.twitter.projection;
+
+import com.twitter.model.User;
+
+/**
+ * UserSummary - Immutable author summary embedded in post lists
+ * SOLID: Single Responsibility - Only carries the user fields a rendered post needs
+ *
+ * Returned in the "authors" side map of {@code ?expand=author} responses,
+ * keyed by user ID, so each author appears once however many posts they wrote.
+ */
+public final class UserSummary {
+    
+    private final long id;
+    private final String username;
+    private final String bio;
+    
+    public UserSummary(long id, String username, String bio) {
+        this.id = id;
+        this.username = username;
+        this.bio = bio;
+    }
+    
+    /**
+     * Summary of a user
+     * @param user - User
+     * @return Projection
+     */
+    public static UserSummary of(User user) {
+        return new UserSummary(user.getId(), user.getUsername(), user.getBio());
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public String getBio() {
+        return bio;
+    }
+}
@@ -2,7 +2,11 @@ package com.twitter.repository;
 
 import com.twitter.model.Follow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -48,4 +52,16 @@ public interface FollowRepository extends JpaRepository<Follow, Long> {
      * @return Count of followers
      */
     long countByFollowingId(Long followingId);
+    
+    /**
+     * Delete a follow relationship
+     * @param followerId - Follower ID
+     * @param followingId - Following ID
+     * @return Number of rows deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Follow f where f.followerId = :followerId and f.followingId = :followingId")
+    int deleteByFollowerIdAndFollowingId(@Param("followerId") Long followerId,
+                                         @Param("followingId") Long followingId);
 }
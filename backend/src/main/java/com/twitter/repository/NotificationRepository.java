@@ -1,32 +1,78 @@
 package com.twitter.repository;
 
 import com.twitter.model.Notification;
+import com.twitter.projection.NotificationView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
  * NotificationRepository - Data access for notifications
  * SOLID: Single Responsibility - Only manages data queries
  * Extends JpaRepository: Provides CRUD operations automatically
+ * List queries return NotificationView projections in read-only transactions
  */
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     
+    String VIEW = "select new com.twitter.projection.NotificationView(n.id, n.userId, n.message, n.type, " +
+            "n.isRead, n.createdAt, n.actorCount, n.actorSample) from Notification n";
+    
     /**
-     * Find all notifications for a specific user
+     * Find the newest notifications for a specific user
      * @param userId - User ID
+     * @param pageable - Page size
      * @return List of notifications for that user (sorted by newest first)
      */
-    List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
+    @Transactional(readOnly = true)
+    @Query(VIEW + " where n.userId = :userId order by n.createdAt desc, n.id desc")
+    List<NotificationView> findByUserIdOrderByCreatedAtDescIdDesc(@Param("userId") Long userId, Pageable pageable);
+    
+    /**
+     * Find notifications for a user that are older than a cursor
+     * @param userId - User ID
+     * @param createdAt - Cursor timestamp
+     * @param id - Cursor notification ID
+     * @param pageable - Page size
+     * @return List of notifications (newest first)
+     */
+    @Transactional(readOnly = true)
+    @Query(VIEW + " where n.userId = :userId " +
+           "and (n.createdAt < :createdAt or (n.createdAt = :createdAt and n.id < :id)) " +
+           "order by n.createdAt desc, n.id desc")
+    List<NotificationView> findByUserIdBefore(@Param("userId") Long userId, @Param("createdAt") long createdAt,
+                                          @Param("id") long id, Pageable pageable);
+    
+    /**
+     * Find notifications for a user that are newer than a cursor
+     * @param userId - User ID
+     * @param createdAt - Cursor timestamp
+     * @param id - Cursor notification ID
+     * @param pageable - Page size
+     * @return List of notifications (oldest first)
+     */
+    @Transactional(readOnly = true)
+    @Query(VIEW + " where n.userId = :userId " +
+           "and (n.createdAt > :createdAt or (n.createdAt = :createdAt and n.id > :id)) " +
+           "order by n.createdAt asc, n.id asc")
+    List<NotificationView> findByUserIdAfter(@Param("userId") Long userId, @Param("createdAt") long createdAt,
+                                         @Param("id") long id, Pageable pageable);
     
     /**
      * Find all unread notifications for a user
      * @param userId - User ID
      * @return List of unread notifications
      */
-    List<Notification> findByUserIdAndIsReadFalseOrderByCreatedAtDesc(Long userId);
+    @Transactional(readOnly = true)
+    @Query(VIEW + " where n.userId = :userId and n.isRead = false order by n.createdAt desc, n.id desc")
+    List<NotificationView> findByUserIdAndIsReadFalseOrderByCreatedAtDesc(@Param("userId") Long userId);
     
     /**
      * Count unread notifications for a user
@@ -34,4 +80,68 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
      * @return Count of unread notifications
      */
     long countByUserIdAndIsReadFalse(Long userId);
+    
+    /**
+     * Mark a notification as read only if it is still unread
+     * @param id - Notification ID
+     * @return 1 if this call changed it, 0 otherwise (so counters are decremented exactly once)
+     */
+    @Transactional
+    @Modifying
+    @Query("update Notification n set n.isRead = true where n.id = :id and n.isRead = false")
+    int markReadIfUnread(@Param("id") Long id);
+    
+    /**
+     * Mark all of a user's unread notifications up to an ID as read
+     * @param userId - User ID
+     * @param maxId - Highest notification ID to mark (inclusive)
+     * @return Number of notifications that changed from unread to read
+     */
+    @Transactional
+    @Modifying
+    @Query("update Notification n set n.isRead = true " +
+           "where n.userId = :userId and n.isRead = false and n.id <= :maxId")
+    int markReadUpTo(@Param("userId") Long userId, @Param("maxId") long maxId);
+    
+    /**
+     * Delete some of a user's notifications by ID
+     * @param userId - User ID (notifications of other users are never deleted)
+     * @param ids - Notification IDs
+     * @param isRead - Only delete notifications in this read state
+     * @return Number of notifications deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Notification n where n.userId = :userId and n.id in :ids and n.isRead = :isRead")
+    int deleteByIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids,
+                    @Param("isRead") boolean isRead);
+    
+    /**
+     * Delete a user's notifications created before a time
+     * @param userId - User ID
+     * @param createdBefore - Epoch millis (exclusive)
+     * @param isRead - Only delete notifications in this read state
+     * @return Number of notifications deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Notification n where n.userId = :userId and n.createdAt < :createdBefore and n.isRead = :isRead")
+    int deleteOlderThan(@Param("userId") Long userId, @Param("createdBefore") long createdBefore,
+                        @Param("isRead") boolean isRead);
+    
+    /**
+     * Find notifications after a stream position (stream resume). Keyed on
+     * (createdAt, id), so a rewritten aggregate, which keeps its ID, is replayed too.
+     * @param userId - User ID
+     * @param createdAt - Creation time of the last notification the client saw
+     * @param id - Last notification ID the client saw
+     * @param pageable - Page size
+     * @return List of notifications (oldest first)
+     */
+    @Transactional(readOnly = true)
+    @Query("select n from Notification n where n.userId = :userId " +
+           "and (n.createdAt > :createdAt or (n.createdAt = :createdAt and n.id > :id)) " +
+           "order by n.createdAt asc, n.id asc")
+    List<Notification> findForReplay(@Param("userId") Long userId, @Param("createdAt") long createdAt,
+                                     @Param("id") long id, Pageable pageable);
 }
@@ -1,27 +1,254 @@
 package com.twitter.repository;
 
 import com.twitter.model.Post;
+import com.twitter.projection.PostView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
  * PostRepository - Data access for posts
  * SOLID: Single Responsibility - Only manages post data queries
+ *
+ * List queries are keyset-paginated on (timestamp, id): "Before" queries
+ * return older rows newest first, "After" queries return newer rows oldest first.
+ * They return PostView projections in read-only transactions, so reads never
+ * load managed entities into the persistence context.
  */
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
-    
+
+    String VIEW = "select new com.twitter.projection.PostView(p.id, p.userId, p.content, p.timestamp) from Post p";
+
+    /**
+     * Find the newest posts by a specific user
+     * @param userId - User ID
+     * @param pageable - Page size
+     * @return List of posts (newest first)
+     */
+    @Transactional(readOnly = true)
+    @Query(VIEW + " where p.userId = :userId order by p.timestamp desc, p.id desc")
+    List<PostView> findByUserIdOrderByTimestampDescIdDesc(@Param("userId") Long userId, Pageable pageable);
+
     /**
-     * Find all posts by a specific user, ordered by timestamp descending
+     * Find posts by a user that are older than a cursor
      * @param userId - User ID
+     * @param timestamp - Cursor timestamp
+     * @param id - Cursor post ID
+     * @param pageable - Page size
+     * @return List of posts (newest first)
+     */
+    @Transactional(readOnly = true)
+    @Query(VIEW + " where p.userId = :userId " +
+           "and (p.timestamp < :timestamp or (p.timestamp = :timestamp and p.id < :id)) " +
+           "order by p.timestamp desc, p.id desc")
+    List<PostView> findByUserIdBefore(@Param("userId") Long userId, @Param("timestamp") long timestamp,
+                                  @Param("id") long id, Pageable pageable);
+
+    /**
+     * Find posts by a user that are newer than a cursor
+     * @param userId - User ID
+     * @param timestamp - Cursor timestamp
+     * @param id - Cursor post ID
+     * @param pageable - Page size
+     * @return List of posts (oldest first)
+     */
+    @Transactional(readOnly = true)
+    @Query(VIEW + " where p.userId = :userId " +
+           "and (p.timestamp > :timestamp or (p.timestamp = :timestamp and p.id > :id)) " +
+           "order by p.timestamp asc, p.id asc")
+    List<PostView> findByUserIdAfter(@Param("userId") Long userId, @Param("timestamp") long timestamp,
+                                 @Param("id") long id, Pageable pageable);
+
+    /**
+     * Find the newest posts written by any of the given users
+     * @param userIds - Author IDs
+     * @param pageable - Page size (newest first)
      * @return List of posts (newest first)
      */
-    List<Post> findByUserIdOrderByTimestampDesc(Long userId);
-    
+    @Transactional(readOnly = true)
+    @Query(VIEW + " where p.userId in :userIds order by p.timestamp desc, p.id desc")
+    List<PostView> findByUserIdInOrderByTimestampDescIdDesc(@Param("userIds") Collection<Long> userIds, Pageable pageable);
+
+    /**
+     * Find posts by any of the given users that are older than a cursor
+     * @param userIds - Author IDs
+     * @param timestamp - Cursor timestamp
+     * @param id - Cursor post ID
+     * @param pageable - Page size
+     * @return List of posts (newest first)
+     */
+    @Transactional(readOnly = true)
+    @Query(VIEW + " where p.userId in :userIds " +
+           "and (p.timestamp < :timestamp or (p.timestamp = :timestamp and p.id < :id)) " +
+           "order by p.timestamp desc, p.id desc")
+    List<PostView> findByUserIdInBefore(@Param("userIds") Collection<Long> userIds, @Param("timestamp") long timestamp,
+                                    @Param("id") long id, Pageable pageable);
+
+    /**
+     * Find posts by any of the given users that are newer than a cursor
+     * @param userIds - Author IDs
+     * @param timestamp - Cursor timestamp
+     * @param id - Cursor post ID
+     * @param pageable - Page size
+     * @return List of posts (oldest first)
+     */
+    @Transactional(readOnly = true)
+    @Query(VIEW + " where p.userId in :userIds " +
+           "and (p.timestamp > :timestamp or (p.timestamp = :timestamp and p.id > :id)) " +
+           "order by p.timestamp asc, p.id asc")
+    List<PostView> findByUserIdInAfter(@Param("userIds") Collection<Long> userIds, @Param("timestamp") long timestamp,
+                                   @Param("id") long id, Pageable pageable);
+
+    /**
+     * Find the newest posts of all users
+     * @param pageable - Page size
+     * @return List of posts (newest first)
+     */
+    @Transactional(readOnly = true)
+    @Query(VIEW + " order by p.timestamp desc, p.id desc")
+    List<PostView> findAllByOrderByTimestampDescIdDesc(Pageable pageable);
+
+    /**
+     * Find posts of all users that are older than a cursor
+     * @param timestamp - Cursor timestamp
+     * @param id - Cursor post ID
+     * @param pageable - Page size
+     * @return List of posts (newest first)
+     */
+    @Transactional(readOnly = true)
+    @Query(VIEW + " " +
+           "where p.timestamp < :timestamp or (p.timestamp = :timestamp and p.id < :id) " +
+           "order by p.timestamp desc, p.id desc")
+    List<PostView> findAllBefore(@Param("timestamp") long timestamp, @Param("id") long id, Pageable pageable);
+
+    /**
+     * Find posts of all users that are newer than a cursor
+     * @param timestamp - Cursor timestamp
+     * @param id - Cursor post ID
+     * @param pageable - Page size
+     * @return List of posts (oldest first)
+     */
+    @Transactional(readOnly = true)
+    @Query(VIEW + " " +
+           "where p.timestamp > :timestamp or (p.timestamp = :timestamp and p.id > :id) " +
+           "order by p.timestamp asc, p.id asc")
+    List<PostView> findAllAfter(@Param("timestamp") long timestamp, @Param("id") long id, Pageable pageable);
+
+    /**
+     * Home feed of a follower: newest posts of everyone they follow, in one query
+     * @param followerId - Reader ID
+     * @param pageable - Page size
+     * @return List of posts (newest first)
+     */
+    @Transactional(readOnly = true)
+    @Query(VIEW + ", Follow f where f.followerId = :followerId and p.userId = f.followingId " +
+           "order by p.timestamp desc, p.id desc")
+    List<PostView> findFeed(@Param("followerId") Long followerId, Pageable pageable);
+
+    /**
+     * Home feed posts older than a cursor
+     * @param followerId - Reader ID
+     * @param timestamp - Cursor timestamp
+     * @param id - Cursor post ID
+     * @param pageable - Page size
+     * @return List of posts (newest first)
+     */
+    @Transactional(readOnly = true)
+    @Query(VIEW + ", Follow f where f.followerId = :followerId and p.userId = f.followingId " +
+           "and (p.timestamp < :timestamp or (p.timestamp = :timestamp and p.id < :id)) " +
+           "order by p.timestamp desc, p.id desc")
+    List<PostView> findFeedBefore(@Param("followerId") Long followerId, @Param("timestamp") long timestamp,
+                              @Param("id") long id, Pageable pageable);
+
+    /**
+     * Home feed posts newer than a cursor
+     * @param followerId - Reader ID
+     * @param timestamp - Cursor timestamp
+     * @param id - Cursor post ID
+     * @param pageable - Page size
+     * @return List of posts (oldest first)
+     */
+    @Transactional(readOnly = true)
+    @Query(VIEW + ", Follow f where f.followerId = :followerId and p.userId = f.followingId " +
+           "and (p.timestamp > :timestamp or (p.timestamp = :timestamp and p.id > :id)) " +
+           "order by p.timestamp asc, p.id asc")
+    List<PostView> findFeedAfter(@Param("followerId") Long followerId, @Param("timestamp") long timestamp,
+                             @Param("id") long id, Pageable pageable);
+
+    /**
+     * Newest few posts of each given author (heads for a k-way merge)
+     * @param userIds - Author IDs
+     * @param perAuthor - Posts per author
+     * @return Rows (id, user_id, content, timestamp), grouped arbitrarily (callers re-sort)
+     */
+    @Transactional(readOnly = true)
+    @Query(nativeQuery = true, value =
+           "select r.id, r.user_id, r.content, r.timestamp from (" +
+           " select p.*, row_number() over (partition by p.user_id order by p.timestamp desc, p.id desc) rn" +
+           " from posts p where p.user_id in (:userIds)) r " +
+           "where r.rn <= :perAuthor")
+    List<Object[]> findHeads(@Param("userIds") Collection<Long> userIds, @Param("perAuthor") int perAuthor);
+
+    /**
+     * Newest few posts of each given author that are older than a cursor
+     * @param userIds - Author IDs
+     * @param timestamp - Cursor timestamp
+     * @param id - Cursor post ID
+     * @param perAuthor - Posts per author
+     * @return Rows (id, user_id, content, timestamp), grouped arbitrarily (callers re-sort)
+     */
+    @Transactional(readOnly = true)
+    @Query(nativeQuery = true, value =
+           "select r.id, r.user_id, r.content, r.timestamp from (" +
+           " select p.*, row_number() over (partition by p.user_id order by p.timestamp desc, p.id desc) rn" +
+           " from posts p where p.user_id in (:userIds)" +
+           " and (p.timestamp < :timestamp or (p.timestamp = :timestamp and p.id < :id))) r " +
+           "where r.rn <= :perAuthor")
+    List<Object[]> findHeadsBefore(@Param("userIds") Collection<Long> userIds, @Param("timestamp") long timestamp,
+                               @Param("id") long id, @Param("perAuthor") int perAuthor);
+
+    /**
+     * Oldest few posts of each given author that are newer than a cursor
+     * @param userIds - Author IDs
+     * @param timestamp - Cursor timestamp
+     * @param id - Cursor post ID
+     * @param perAuthor - Posts per author
+     * @return Rows (id, user_id, content, timestamp), grouped arbitrarily (callers re-sort)
+     */
+    @Transactional(readOnly = true)
+    @Query(nativeQuery = true, value =
+           "select r.id, r.user_id, r.content, r.timestamp from (" +
+           " select p.*, row_number() over (partition by p.user_id order by p.timestamp asc, p.id asc) rn" +
+           " from posts p where p.user_id in (:userIds)" +
+           " and (p.timestamp > :timestamp or (p.timestamp = :timestamp and p.id > :id))) r " +
+           "where r.rn <= :perAuthor")
+    List<Object[]> findHeadsAfter(@Param("userIds") Collection<Long> userIds, @Param("timestamp") long timestamp,
+                              @Param("id") long id, @Param("perAuthor") int perAuthor);
+
+    /**
+     * Find posts by ID (timeline hydration)
+     * @param ids - Post IDs
+     * @return Posts that still exist, in no particular order
+     */
+    @Transactional(readOnly = true)
+    @Query(VIEW + " where p.id in :ids")
+    List<PostView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
     /**
-     * Find all posts (for getting all posts)
-     * This is already provided by JpaRepository.findAll()
+     * Delete a post if it still exists
+     * @param id - Post ID
+     * @return 1 if this call deleted it, 0 otherwise (so counters are decremented exactly once)
      */
+    @Transactional
+    @Modifying
+    @Query("delete from Post p where p.id = :id")
+    int deleteIfExists(@Param("id") Long id);
 }
@@ -1,8 +1,13 @@
 package com.twitter.repository;
 
 import com.twitter.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -13,4 +18,22 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+    
+    // Users by ID, one IN query (missing IDs are skipped)
+    List<User> findByIdIn(Collection<Long> ids);
+    
+    // Newest users first (keyset-paginated on createdAt, id)
+    List<User> findAllByOrderByCreatedAtDescIdDesc(Pageable pageable);
+    
+    // Users older than a cursor (newest first)
+    @Query("select u from User u " +
+           "where u.createdAt < :createdAt or (u.createdAt = :createdAt and u.id < :id) " +
+           "order by u.createdAt desc, u.id desc")
+    List<User> findAllBefore(@Param("createdAt") long createdAt, @Param("id") long id, Pageable pageable);
+    
+    // Users newer than a cursor (oldest first)
+    @Query("select u from User u " +
+           "where u.createdAt > :createdAt or (u.createdAt = :createdAt and u.id > :id) " +
+           "order by u.createdAt asc, u.id asc")
+    List<User> findAllAfter(@Param("createdAt") long createdAt, @Param("id") long id, Pageable pageable);
 }
@@ -0,0 +1,431 @@
+package com.twitter.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * PostSearchIndex - In-process inverted index over post content
+ * SOLID: Single Responsibility - Only maps terms to the posts that contain them
+ *
+ * - One compressed PostingList (post IDs + term positions) per term.
+ * - Kept current by PostService on create and delete. Deletes are recorded
+ *   as tombstones and purged from the posting lists once they add up.
+ *   Posts deleted while the application was down are still in the loaded
+ *   segment; they are found at startup (only when the number of posts up to
+ *   the segment's newest ID disagrees with it) and tombstoned the same way.
+ * - Queries AND all terms and check phrases by position. Post IDs are
+ *   time-ordered, so results come newest first by walking the rarest term's
+ *   list backwards from the cursor, one block at a time.
+ * - The index is written to a segment file periodically and on shutdown.
+ *   The posting lists are snapshotted under the read lock (no copying, see
+ *   PostingList.snapshot) and written after it is released, so indexing new
+ *   posts never waits for the file write. At startup the segment is loaded
+ *   and only posts created after it are tokenized, instead of the whole table.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class PostSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PostSearchIndex.class);
+
+    private static final int SEGMENT_MAGIC = 0x50534931;  // "PSI1"
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${search.index.path:data/search-index.seg}")
+    private String segmentPath;
+
+    @Value("${search.index.fetch-size:10000}")
+    private int fetchSize;
+
+    @Value("${search.index.purge-ratio:0.1}")
+    private double purgeRatio;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String, PostingList> postings = new HashMap<>();
+    private final Set<Long> tombstones = new HashSet<>();
+    private long maxPostId;
+    private long postCount;
+    private volatile boolean dirty;
+    private volatile long lastSegmentWriteMs;
+
+    /**
+     * Load the persisted segment, then index posts created since it was written
+     */
+    @PostConstruct
+    public void load() {
+        long start = System.currentTimeMillis();
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        boolean loaded = readSegment();
+        Long newestPost = jdbc.queryForObject("select max(id) from posts", Long.class);
+        if (loaded && (newestPost == null ? maxPostId > 0 : newestPost < maxPostId)) {
+            // Segment belongs to a different database: start over
+            log.warn("Search index segment {} does not match the posts table, rebuilding", segmentPath);
+            postings = new HashMap<>();
+            tombstones.clear();
+            maxPostId = 0;
+            postCount = 0;
+        }
+
+        if (loaded && maxPostId > 0) {
+            dropDeletedSinceSegment(jdbc);
+        }
+
+        long[] caughtUp = {0};
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(fetchSize);
+        streaming.query("select id, content from posts where id > ? order by id", rs -> {
+            addUnlocked(rs.getLong(1), rs.getString(2));
+            caughtUp[0]++;
+        }, maxPostId);
+        dirty |= caughtUp[0] > 0;
+        log.info("Search index ready: {} posts, {} terms ({} from segment, {} tokenized) in {} ms",
+                postCount, postings.size(), postCount - caughtUp[0], caughtUp[0], System.currentTimeMillis() - start);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writeSegment();
+    }
+
+    /**
+     * Index a new post
+     * @param postId - Post ID
+     * @param content - Post content
+     */
+    public void add(long postId, String content) {
+        lock.writeLock().lock();
+        try {
+            addUnlocked(postId, content);
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop a deleted post from results
+     * @param postId - Post ID
+     */
+    public void remove(long postId) {
+        lock.writeLock().lock();
+        try {
+            if (tombstones.add(postId)) {
+                postCount--;
+                dirty = true;
+            }
+            if (tombstones.size() > Math.max(1000, postCount * purgeRatio)) {
+                purge();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * IDs of matching posts, newest first
+     * @param query - Parsed query
+     * @param beforeId - Only posts with a smaller ID (Long.MAX_VALUE for the first page)
+     * @param limit - Maximum number of IDs
+     * @return Post IDs (descending)
+     */
+    public long[] search(SearchQuery query, long beforeId, int limit) {
+        lock.readLock().lock();
+        try {
+            List<String> terms = query.getTerms();
+            PostingList[] lists = new PostingList[terms.size()];
+            int rarest = 0;
+            for (int t = 0; t < lists.length; t++) {
+                lists[t] = postings.get(terms.get(t));
+                if (lists[t] == null) {
+                    return new long[0];
+                }
+                if (lists[t].size() < lists[rarest].size()) {
+                    rarest = t;
+                }
+            }
+
+            long[] result = new long[limit];
+            int found = 0;
+            int[][] positions = new int[lists.length][];
+            PostingList.Block[][] caches = new PostingList.Block[lists.length][1];
+            PostingList driver = lists[rarest];
+            for (int b = driver.blocks() - 1; b >= 0 && found < limit; b--) {
+                if (driver.first(b) >= beforeId) {
+                    continue;
+                }
+                PostingList.Block block = driver.block(b);
+                for (int i = block.size - 1; i >= 0 && found < limit; i--) {
+                    long postId = block.ids[i];
+                    if (postId >= beforeId || tombstones.contains(postId)) {
+                        continue;
+                    }
+                    positions[rarest] = block.positions[i];
+                    if (matchesAll(lists, rarest, postId, positions, caches)
+                            && matchesPhrases(query, positions)) {
+                        result[found++] = postId;
+                    }
+                }
+            }
+            return Arrays.copyOf(result, found);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Write the segment file if the index changed since the last write
+     */
+    @Scheduled(fixedDelayString = "${search.index.segment-interval-ms:300000}")
+    public synchronized void writeSegment() {
+        if (!dirty || segmentPath == null || segmentPath.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long snapshotMaxPostId;
+        long snapshotPostCount;
+        List<Long> snapshotTombstones;
+        Map<String, PostingList> snapshotPostings;
+        lock.readLock().lock();
+        try {
+            snapshotMaxPostId = maxPostId;
+            snapshotPostCount = postCount;
+            snapshotTombstones = new ArrayList<>(tombstones);
+            snapshotPostings = new HashMap<>(postings.size() * 2);
+            for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+                snapshotPostings.put(entry.getKey(), entry.getValue().snapshot());
+            }
+            // Changes from here on make the index dirty again
+            dirty = false;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Path target = Paths.get(segmentPath);
+        Path temp = Paths.get(segmentPath + ".tmp");
+        try {
+            if (target.getParent() != null) {
+                Files.createDirectories(target.getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SEGMENT_MAGIC);
+                out.writeLong(snapshotMaxPostId);
+                out.writeLong(snapshotPostCount);
+                out.writeInt(snapshotTombstones.size());
+                for (long postId : snapshotTombstones) {
+                    out.writeLong(postId);
+                }
+                out.writeInt(snapshotPostings.size());
+                for (Map.Entry<String, PostingList> entry : snapshotPostings.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    entry.getValue().write(out);
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            log.warn("Could not write search index segment {}", segmentPath, e);
+            return;
+        }
+        lastSegmentWriteMs = System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Index size
+     */
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (PostingList list : postings.values()) {
+                bytes += list.bytes();
+            }
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("posts", postCount);
+            stats.put("terms", postings.size());
+            stats.put("postingBytes", bytes);
+            stats.put("tombstones", tombstones.size());
+            stats.put("lastSegmentWriteMs", lastSegmentWriteMs);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addUnlocked(long postId, String content) {
+        List<String> tokens = Tokenizer.tokenize(content);
+        Map<String, List<Integer>> termPositions = new HashMap<>();
+        for (int position = 0; position < tokens.size(); position++) {
+            termPositions.computeIfAbsent(tokens.get(position), term -> new ArrayList<>()).add(position);
+        }
+        for (Map.Entry<String, List<Integer>> entry : termPositions.entrySet()) {
+            List<Integer> list = entry.getValue();
+            int[] positions = new int[list.size()];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = list.get(i);
+            }
+            postings.computeIfAbsent(entry.getKey(), term -> new PostingList()).add(postId, positions);
+        }
+        tombstones.remove(postId);
+        maxPostId = Math.max(maxPostId, postId);
+        postCount++;
+    }
+
+    /**
+     * Tombstone posts that are in the loaded segment but no longer in the table
+     * (deleted while the application was down). Skipped when the counts agree.
+     */
+    private void dropDeletedSinceSegment(JdbcTemplate jdbc) {
+        Long stored = jdbc.queryForObject("select count(*) from posts where id <= ?", Long.class, maxPostId);
+        if (stored == null || stored == postCount) {
+            return;
+        }
+        long[][] ids = {new long[1024]};
+        int[] count = {0};
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(fetchSize);
+        streaming.query("select id from posts where id <= ? order by id", rs -> {
+            if (count[0] == ids[0].length) {
+                ids[0] = Arrays.copyOf(ids[0], count[0] * 2);
+            }
+            ids[0][count[0]++] = rs.getLong(1);
+        }, maxPostId);
+
+        Set<Long> deleted = new HashSet<>();
+        for (PostingList list : postings.values()) {
+            for (int b = 0; b < list.blocks(); b++) {
+                PostingList.Block block = list.block(b);
+                for (int i = 0; i < block.size; i++) {
+                    long postId = block.ids[i];
+                    if (!tombstones.contains(postId) && Arrays.binarySearch(ids[0], 0, count[0], postId) < 0) {
+                        deleted.add(postId);
+                    }
+                }
+            }
+        }
+        tombstones.addAll(deleted);
+        postCount -= deleted.size();
+        if (tombstones.size() > Math.max(1000, postCount * purgeRatio)) {
+            purge();
+        }
+        dirty = !deleted.isEmpty();
+        log.info("Search index: {} posts deleted since the segment was written", deleted.size());
+    }
+
+    /**
+     * Rewrite the posting lists without deleted posts (caller holds the write lock)
+     */
+    private void purge() {
+        Map<String, PostingList> purged = new HashMap<>();
+        for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+            PostingList list = entry.getValue().without(tombstones);
+            if (list.size() > 0) {
+                purged.put(entry.getKey(), list);
+            }
+        }
+        postings = purged;
+        tombstones.clear();
+    }
+
+    /**
+     * Look the post up in every other term's list, collecting positions
+     */
+    private boolean matchesAll(PostingList[] lists, int skip, long postId, int[][] positions,
+                               PostingList.Block[][] caches) {
+        for (int t = 0; t < lists.length; t++) {
+            if (t == skip) {
+                continue;
+            }
+            positions[t] = lists[t].positions(postId, caches[t]);
+            if (positions[t] == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check every phrase: some start position p of its first term with term j at p + j
+     */
+    private boolean matchesPhrases(SearchQuery query, int[][] positions) {
+        List<String> terms = query.getTerms();
+        for (List<String> phrase : query.getPhrases()) {
+            int[] first = positions[terms.indexOf(phrase.get(0))];
+            boolean matched = false;
+            for (int i = 0; i < first.length && !matched; i++) {
+                matched = true;
+                for (int j = 1; j < phrase.size() && matched; j++) {
+                    int[] next = positions[terms.indexOf(phrase.get(j))];
+                    matched = Arrays.binarySearch(next, first[i] + j) >= 0;
+                }
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if a segment was loaded
+     */
+    private boolean readSegment() {
+        if (segmentPath == null || segmentPath.isEmpty() || !Files.exists(Paths.get(segmentPath))) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(Paths.get(segmentPath))))) {
+            if (in.readInt() != SEGMENT_MAGIC) {
+                log.warn("Ignoring search index segment {} with unknown format", segmentPath);
+                return false;
+            }
+            long segmentMaxPostId = in.readLong();
+            long segmentPostCount = in.readLong();
+            Set<Long> segmentTombstones = new HashSet<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                segmentTombstones.add(in.readLong());
+            }
+            Map<String, PostingList> segmentPostings = new HashMap<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                String term = in.readUTF();
+                segmentPostings.put(term, PostingList.read(in));
+            }
+            postings = segmentPostings;
+            tombstones.addAll(segmentTombstones);
+            maxPostId = segmentMaxPostId;
+            postCount = segmentPostCount;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read search index segment {}, rebuilding", segmentPath, e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.twitter.search;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * PostingList - Compressed list of the posts containing one term
+ * SOLID: Single Responsibility - Only stores (post ID, positions) entries of a term
+ *
+ * Entries are kept in ascending post ID order. Post IDs are time-ordered, so
+ * new posts almost always append at the end. Entries are grouped into blocks
+ * of up to {@value #BLOCK_SIZE}; a sealed block is a byte array of varints:
+ * each post ID as the delta from the previous one, then its term positions,
+ * also delta-encoded. Each block's first and last ID are kept uncompressed,
+ * so a block can be skipped, or found by binary search, without decoding.
+ * The newest entries live in an uncompressed tail until a block is full.
+ *
+ * Not thread-safe; PostSearchIndex guards it with its read/write lock.
+ * {@link #snapshot} is the exception: every change either writes past the
+ * lengths a snapshot copied or swaps in new arrays, so a snapshot can be
+ * read without the lock while the list keeps changing.
+ */
+final class PostingList {
+    
+    static final int BLOCK_SIZE = 128;
+    
+    private byte[] data = new byte[0];
+    private int dataLength;
+    private long[] blockFirst = new long[0];
+    private long[] blockLast = new long[0];
+    private int[] blockOffset = new int[0];
+    private int blockCount;
+    
+    private long[] tailIds = new long[4];
+    private int[][] tailPositions = new int[4][];
+    private int tailSize;
+    
+    private int size;
+    
+    /**
+     * Add a post
+     * @param postId - Post ID
+     * @param positions - Ascending positions of the term in the post
+     */
+    void add(long postId, int[] positions) {
+        if (size > 0 && postId <= lastId()) {
+            if (!contains(postId)) {
+                insertOutOfOrder(postId, positions);
+            }
+            return;
+        }
+        if (tailSize == tailIds.length) {
+            tailIds = Arrays.copyOf(tailIds, tailSize * 2);
+            tailPositions = Arrays.copyOf(tailPositions, tailSize * 2);
+        }
+        tailIds[tailSize] = postId;
+        tailPositions[tailSize] = positions;
+        tailSize++;
+        size++;
+        if (tailSize == BLOCK_SIZE) {
+            sealTail();
+        }
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    /**
+     * Approximate memory held by the list
+     */
+    long bytes() {
+        return data.length + blockCount * 20L + tailIds.length * 16L;
+    }
+    
+    /**
+     * Number of blocks, counting a non-empty tail as the last one
+     */
+    int blocks() {
+        return blockCount + (tailSize > 0 ? 1 : 0);
+    }
+    
+    /**
+     * Smallest post ID in a block
+     */
+    long first(int block) {
+        return block < blockCount ? blockFirst[block] : tailIds[0];
+    }
+    
+    /**
+     * Decode one block
+     * @param block - Block index (blocks() - 1 is the newest)
+     * @return Entries of the block, ascending by post ID
+     */
+    Block block(int block) {
+        if (block == blockCount) {
+            return new Block(tailIds, tailPositions, tailSize);
+        }
+        int end = block + 1 < blockCount ? blockOffset[block + 1] : dataLength;
+        int[] cursor = {blockOffset[block]};
+        long[] ids = new long[BLOCK_SIZE];
+        int[][] positions = new int[BLOCK_SIZE][];
+        int count = 0;
+        long previous = blockFirst[block];
+        while (cursor[0] < end) {
+            previous += readVarLong(cursor);
+            ids[count] = previous;
+            int[] termPositions = new int[(int) readVarLong(cursor)];
+            int position = 0;
+            for (int i = 0; i < termPositions.length; i++) {
+                position += (int) readVarLong(cursor);
+                termPositions[i] = position;
+            }
+            positions[count] = termPositions;
+            count++;
+        }
+        return new Block(ids, positions, count);
+    }
+    
+    /**
+     * Positions of the term in a post
+     * @param postId - Post ID
+     * @param cache - Last block decoded by the caller for this list (updated in place)
+     * @return Positions, or null if the post does not contain the term
+     */
+    int[] positions(long postId, Block[] cache) {
+        int block = findBlock(postId);
+        if (block < 0) {
+            return null;
+        }
+        if (cache[0] == null || cache[0].index != block) {
+            cache[0] = block(block);
+            cache[0].index = block;
+        }
+        Block decoded = cache[0];
+        int pos = Arrays.binarySearch(decoded.ids, 0, decoded.size, postId);
+        return pos >= 0 ? decoded.positions[pos] : null;
+    }
+    
+    /**
+     * Copy of the list without the given posts
+     * @param removed - Post IDs to drop
+     */
+    PostingList without(Set<Long> removed) {
+        PostingList copy = new PostingList();
+        for (int b = 0; b < blocks(); b++) {
+            Block block = block(b);
+            for (int i = 0; i < block.size; i++) {
+                if (!removed.contains(block.ids[i])) {
+                    copy.add(block.ids[i], block.positions[i]);
+                }
+            }
+        }
+        return copy;
+    }
+    
+    /**
+     * Frozen view of the list as it is now, sharing its arrays (no copying).
+     * Only for reading: adding to a snapshot would write into the shared arrays.
+     */
+    PostingList snapshot() {
+        PostingList copy = new PostingList();
+        copy.copyFrom(this);
+        return copy;
+    }
+    
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(size);
+        out.writeInt(blockCount);
+        for (int b = 0; b < blockCount; b++) {
+            out.writeLong(blockFirst[b]);
+            out.writeLong(blockLast[b]);
+            out.writeInt(blockOffset[b]);
+        }
+        out.writeInt(dataLength);
+        out.write(data, 0, dataLength);
+        out.writeInt(tailSize);
+        for (int i = 0; i < tailSize; i++) {
+            out.writeLong(tailIds[i]);
+            out.writeInt(tailPositions[i].length);
+            for (int position : tailPositions[i]) {
+                out.writeInt(position);
+            }
+        }
+    }
+    
+    static PostingList read(DataInputStream in) throws IOException {
+        PostingList list = new PostingList();
+        list.size = in.readInt();
+        list.blockCount = in.readInt();
+        list.blockFirst = new long[list.blockCount];
+        list.blockLast = new long[list.blockCount];
+        list.blockOffset = new int[list.blockCount];
+        for (int b = 0; b < list.blockCount; b++) {
+            list.blockFirst[b] = in.readLong();
+            list.blockLast[b] = in.readLong();
+            list.blockOffset[b] = in.readInt();
+        }
+        list.dataLength = in.readInt();
+        list.data = new byte[list.dataLength];
+        in.readFully(list.data);
+        list.tailSize = in.readInt();
+        list.tailIds = new long[Math.max(4, list.tailSize)];
+        list.tailPositions = new int[list.tailIds.length][];
+        for (int i = 0; i < list.tailSize; i++) {
+            list.tailIds[i] = in.readLong();
+            int[] positions = new int[in.readInt()];
+            for (int p = 0; p < positions.length; p++) {
+                positions[p] = in.readInt();
+            }
+            list.tailPositions[i] = positions;
+        }
+        return list;
+    }
+    
+    private long lastId() {
+        return tailSize > 0 ? tailIds[tailSize - 1] : blockLast[blockCount - 1];
+    }
+    
+    private boolean contains(long postId) {
+        return positions(postId, new Block[1]) != null;
+    }
+    
+    /**
+     * Block that would hold a post ID, or -1
+     */
+    private int findBlock(long postId) {
+        int low = 0;
+        int high = blocks() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long last = mid < blockCount ? blockLast[mid] : tailIds[tailSize - 1];
+            if (last < postId) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low < blocks() && first(low) <= postId ? low : -1;
+    }
+    
+    /**
+     * Rare (IDs from another node's clock): rebuild the list with the entry in order
+     */
+    private void insertOutOfOrder(long postId, int[] positions) {
+        PostingList rebuilt = new PostingList();
+        boolean inserted = false;
+        for (int b = 0; b < blocks(); b++) {
+            Block block = block(b);
+            for (int i = 0; i < block.size; i++) {
+                if (!inserted && postId < block.ids[i]) {
+                    rebuilt.add(postId, positions);
+                    inserted = true;
+                }
+                rebuilt.add(block.ids[i], block.positions[i]);
+            }
+        }
+        copyFrom(rebuilt);
+    }
+    
+    private void copyFrom(PostingList other) {
+        data = other.data;
+        dataLength = other.dataLength;
+        blockFirst = other.blockFirst;
+        blockLast = other.blockLast;
+        blockOffset = other.blockOffset;
+        blockCount = other.blockCount;
+        tailIds = other.tailIds;
+        tailPositions = other.tailPositions;
+        tailSize = other.tailSize;
+        size = other.size;
+    }
+    
+    private void sealTail() {
+        if (blockCount == blockFirst.length) {
+            int capacity = Math.max(4, blockCount * 2);
+            blockFirst = Arrays.copyOf(blockFirst, capacity);
+            blockLast = Arrays.copyOf(blockLast, capacity);
+            blockOffset = Arrays.copyOf(blockOffset, capacity);
+        }
+        blockFirst[blockCount] = tailIds[0];
+        blockLast[blockCount] = tailIds[tailSize - 1];
+        blockOffset[blockCount] = dataLength;
+        long previous = tailIds[0];
+        for (int i = 0; i < tailSize; i++) {
+            writeVarLong(tailIds[i] - previous);
+            previous = tailIds[i];
+            int[] positions = tailPositions[i];
+            writeVarLong(positions.length);
+            int position = 0;
+            for (int p : positions) {
+                writeVarLong(p - position);
+                position = p;
+            }
+        }
+        blockCount++;
+        tailIds = new long[4];
+        tailPositions = new int[4][];
+        tailSize = 0;
+    }
+    
+    private void writeVarLong(long value) {
+        if (dataLength + 10 > data.length) {
+            data = Arrays.copyOf(data, Math.max(64, data.length * 2));
+        }
+        while ((value & ~0x7FL) != 0) {
+            data[dataLength++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[dataLength++] = (byte) value;
+    }
+    
+    private long readVarLong(int[] cursor) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[cursor[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+    
+    /**
+     * Decoded entries of one block
+     */
+    static final class Block {
+        final long[] ids;
+        final int[][] positions;
+        final int size;
+        int index = -1;
+        
+        Block(long[] ids, int[][] positions, int size) {
+            this.ids = ids;
+            this.positions = positions;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.twitter.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * SearchQuery - Parsed full-text query
+ * SOLID: Single Responsibility - Only turns query text into required terms and phrases
+ *
+ * Syntax: whitespace-separated words and "quoted phrases", all of which must
+ * match (boolean AND). Words are tokenized like post content, so "#java" finds
+ * posts containing the term java. An unterminated quote runs to the end.
+ */
+public final class SearchQuery {
+    
+    private final List<String> terms;
+    private final List<List<String>> phrases;
+    
+    private SearchQuery(List<String> terms, List<List<String>> phrases) {
+        this.terms = terms;
+        this.phrases = phrases;
+    }
+    
+    /**
+     * Parse query text
+     * @param text - Query, e.g. {@code java "hello world"}
+     * @return Parsed query
+     * @throws IllegalArgumentException if the query contains no searchable term
+     */
+    public static SearchQuery parse(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        List<List<String>> phrases = new ArrayList<>();
+        if (text != null) {
+            String[] parts = text.split("\"", -1);
+            for (int i = 0; i < parts.length; i++) {
+                List<String> tokens = Tokenizer.tokenize(parts[i]);
+                terms.addAll(tokens);
+                if (i % 2 == 1 && tokens.size() > 1) {
+                    // Inside quotes: a single word needs no position check
+                    phrases.add(tokens);
+                }
+            }
+        }
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain at least one word");
+        }
+        return new SearchQuery(Collections.unmodifiableList(new ArrayList<>(terms)),
+                Collections.unmodifiableList(phrases));
+    }
+    
+    /**
+     * Distinct terms every result must contain
+     */
+    public List<String> getTerms() {
+        return terms;
+    }
+    
+    /**
+     * Phrases (term sequences) every result must contain contiguously
+     */
+    public List<List<String>> getPhrases() {
+        return phrases;
+    }
+}
@@ -0,0 +1,46 @@
+package com.twitter.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Tokenizer - Splits post content into index terms
+ * SOLID: Single Responsibility - Only turns text into terms
+ *
+ * Terms are maximal runs of letters and digits, lower-cased, so "#Java," and
+ * "java" are the same term. A term's position is its index in the returned
+ * list, which phrase queries rely on. Overlong runs are cut at
+ * {@value #MAX_TERM_LENGTH} characters.
+ */
+final class Tokenizer {
+    
+    static final int MAX_TERM_LENGTH = 64;
+    
+    private Tokenizer() {
+    }
+    
+    /**
+     * Terms of a text in order of appearance
+     * @param text - Post content or query text
+     * @return Terms (may repeat)
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean inTerm = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (inTerm && start < 0) {
+                start = i;
+            } else if (!inTerm && start >= 0) {
+                String term = text.substring(start, Math.min(i, start + MAX_TERM_LENGTH));
+                terms.add(term.toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
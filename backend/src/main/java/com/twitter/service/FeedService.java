@@ -0,0 +1,304 @@
+package com.twitter.service;
+
+import com.twitter.feed.FeedQueryEngine;
+import com.twitter.feed.HomeTimelineStore;
+import com.twitter.graph.SocialGraphIndex;
+import com.twitter.pagination.CursorPage;
+import com.twitter.pagination.PageQuery;
+import com.twitter.projection.PostView;
+import com.twitter.repository.PostRepository;
+import com.twitter.version.ResourceType;
+import com.twitter.version.ResourceVersions;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FeedService - Business logic for home timelines
+ * SOLID: Single Responsibility - Builds and serves users' home feeds
+ *
+ * Hybrid fan-out: posts from normal authors are pushed into the materialized
+ * timeline of each follower (fan-out on write). Authors above the celebrity
+ * threshold skip write-time fan-out; their posts are pulled and merged into
+ * readers' feeds at read time, so the cost of a single post stays bounded.
+ * The set of celebrities is built from the graph index at startup and kept
+ * current on every follow and unfollow, so neither posting nor reading a feed
+ * needs a query to tell who is one.
+ *
+ * Feed assembly is timed per path (served from the materialized timeline,
+ * rebuilt after a miss, or paged from the database) and feed sizes are recorded.
+ */
+@Service
+public class FeedService {
+
+    @Autowired
+    private HomeTimelineStore timelineStore;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private SocialGraphIndex socialGraphIndex;
+
+    @Autowired
+    private FeedQueryEngine feedQueryEngine;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${feed.fanout.celebrity-threshold:10000}")
+    private long celebrityThreshold;
+
+    /** Re-slices after pruning deleted posts before a page is read from the database instead */
+    private static final int MAX_HYDRATE_ATTEMPTS = 3;
+
+    /** How a feed page was assembled */
+    private enum AssemblyPath { TIMELINE, REBUILD, DATABASE }
+
+    private final Map<AssemblyPath, Timer> assemblyTimers = new EnumMap<>(AssemblyPath.class);
+    private DistributionSummary feedSize;
+    private final Set<Long> celebrities = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        celebrities.addAll(socialGraphIndex.getUsersWithMoreFollowersThan(celebrityThreshold));
+
+        for (AssemblyPath path : AssemblyPath.values()) {
+            assemblyTimers.put(path, Timer.builder("feed.assembly")
+                    .description("Time to assemble one page of a home feed")
+                    .tag("path", path.name().toLowerCase(Locale.ROOT))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        feedSize = DistributionSummary.builder("feed.size")
+                .description("Posts returned per home feed page")
+                .baseUnit("posts")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Check whether an author has too many followers for write-time fan-out
+     * @param authorId - Author ID
+     * @return true if the author's posts should be pulled at read time
+     */
+    public boolean isCelebrity(Long authorId) {
+        return celebrities.contains(authorId);
+    }
+
+    /**
+     * Re-check an author after their follower count changed (called after the graph index is updated).
+     * Crossing the threshold changes how every follower's feed is assembled, so all feed versions move.
+     * @param authorId - Followed user ID
+     */
+    public void followersChanged(Long authorId) {
+        boolean changed;
+        synchronized (celebrities) {
+            if (socialGraphIndex.getFollowerCount(authorId) > celebrityThreshold) {
+                changed = celebrities.add(authorId);
+            } else {
+                changed = celebrities.remove(authorId);
+            }
+        }
+        if (changed) {
+            resourceVersions.bumpAll(ResourceType.FEED);
+        }
+    }
+
+    /**
+     * Get one page of a user's home feed
+     * @param userId - Reader ID
+     * @param page - Keyset page (limit, before/after cursor)
+     * @return Page of posts (newest first)
+     */
+    public CursorPage<PostView> getHomeFeed(Long userId, PageQuery page) {
+        long start = System.nanoTime();
+        AssemblyPath path = AssemblyPath.TIMELINE;
+        List<Long> celebrityIds = getCelebrityFollowingIds(userId);
+
+        HomeTimelineStore.Slice slice = timelineStore.slice(userId, page);
+        if (slice == null) {
+            path = AssemblyPath.REBUILD;
+            if (rebuildTimeline(userId, celebrityIds)) {
+                // Still null if the timeline was evicted right away
+                slice = timelineStore.slice(userId, page);
+            }
+        }
+
+        List<PostView> rows = null;
+        for (int attempt = 0; attempt < MAX_HYDRATE_ATTEMPTS && slice != null && slice.isComplete(); attempt++) {
+            long[] postIds = slice.getPostIds();
+            rows = hydrate(userId, postIds);
+            if (rows.size() == postIds.length) {
+                break;
+            }
+            // Deleted posts were pruned from the timeline: slice again, so the page is full
+            // and CursorPage still sees the extra row that tells it a next page exists
+            rows = null;
+            slice = timelineStore.slice(userId, page);
+        }
+        if (rows != null) {
+            if (!celebrityIds.isEmpty()) {
+                // Pull side: merge in the matching posts of followed celebrities
+                rows = merge(rows, feedQueryEngine.authors(celebrityIds, page), page);
+            }
+        } else {
+            // Deeper than the materialized timeline (or it could not be rebuilt, or kept
+            // losing deleted posts): page through the database
+            rows = feedQueryEngine.feed(userId, page);
+            path = AssemblyPath.DATABASE;
+        }
+        assemblyTimers.get(path).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        feedSize.record(rows.size());
+        return CursorPage.of(rows, page, PostService::cursorOf);
+    }
+
+    /**
+     * ETag of a user's home feed, without reading it: the materialized
+     * timeline's version, then the post versions of followed celebrities
+     * (whose posts are pulled in at read time) as a separate part.
+     * Any change to which celebrities the reader follows moves the FEED version
+     * (follows and unfollows invalidate the timeline, threshold crossings bump
+     * every feed), so for one FEED version the celebrity set is fixed and the
+     * sum of their versions only grows.
+     * @param userId - Reader ID
+     */
+    public String getHomeFeedETag(Long userId) {
+        long version = resourceVersions.get(ResourceType.FEED, userId);
+        long celebrityVersion = 0;
+        for (Long celebrityId : getCelebrityFollowingIds(userId)) {
+            celebrityVersion += resourceVersions.get(ResourceType.AUTHOR_POSTS, celebrityId);
+        }
+        return resourceVersions.format(ResourceType.FEED, version, celebrityVersion);
+    }
+
+    /**
+     * Rebuild a cold (never loaded or evicted) timeline from the database.
+     * Only push-delivered authors are materialized; celebrities are pulled on read.
+     * @param userId - Reader ID
+     * @param celebrityIds - Followed authors above the celebrity threshold
+     * @return true if the timeline was installed, false if it was invalidated while loading
+     */
+    public boolean rebuildTimeline(Long userId, List<Long> celebrityIds) {
+        // Posts fanned out from here on are kept by the store while the database is read
+        long loadToken = timelineStore.beginLoad(userId);
+        List<Long> followingIds = getFollowingIds(userId);
+        followingIds.removeAll(new HashSet<>(celebrityIds));
+
+        List<PostView> posts = feedQueryEngine.authors(followingIds, PageQuery.first(timelineStore.getCapacity()));
+        if (posts.size() > timelineStore.getCapacity()) {
+            posts = posts.subList(0, timelineStore.getCapacity());
+        }
+
+        long[] timestamps = new long[posts.size()];
+        long[] postIds = new long[posts.size()];
+        for (int i = 0; i < posts.size(); i++) {
+            timestamps[i] = posts.get(i).getTimestamp();
+            postIds[i] = posts.get(i).getId();
+        }
+        return timelineStore.completeLoad(userId, loadToken, timestamps, postIds);
+    }
+
+    /**
+     * Drop a user's timeline, e.g. after they follow or unfollow someone
+     * @param userId - Reader ID
+     */
+    public void invalidateTimeline(Long userId) {
+        timelineStore.invalidate(userId);
+    }
+
+    private List<Long> getFollowingIds(Long userId) {
+        long[] ids = socialGraphIndex.getFollowingIds(userId);
+        List<Long> followingIds = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            followingIds.add(id);
+        }
+        return followingIds;
+    }
+
+    /**
+     * Followed authors above the celebrity threshold (graph index + celebrity set, no query).
+     * Walks whichever of the two sets is smaller.
+     */
+    private List<Long> getCelebrityFollowingIds(Long userId) {
+        List<Long> celebrityIds = new ArrayList<>();
+        if (celebrities.isEmpty()) {
+            return celebrityIds;
+        }
+        if (celebrities.size() < socialGraphIndex.getFollowingCount(userId)) {
+            for (Long id : celebrities) {
+                if (socialGraphIndex.isFollowing(userId, id)) {
+                    celebrityIds.add(id);
+                }
+            }
+        } else {
+            for (long id : socialGraphIndex.getFollowingIds(userId)) {
+                if (celebrities.contains(id)) {
+                    celebrityIds.add(id);
+                }
+            }
+        }
+        return celebrityIds;
+    }
+
+    /**
+     * Merge two candidate lists into fetch order, dropping duplicates
+     */
+    private List<PostView> merge(List<PostView> pushed, List<PostView> pulled, PageQuery page) {
+        Map<Long, PostView> merged = new HashMap<>();
+        for (PostView post : pushed) {
+            merged.put(post.getId(), post);
+        }
+        for (PostView post : pulled) {
+            merged.putIfAbsent(post.getId(), post);
+        }
+        List<PostView> result = new ArrayList<>(merged.values());
+        result.sort(page.fetchOrder(PostView::getTimestamp, PostView::getId));
+        return result;
+    }
+
+    /**
+     * Load posts for timeline entries, keeping timeline order.
+     * Entries whose post no longer exists are pruned from the timeline
+     * (deletes do not touch timelines), so the result can be short.
+     */
+    private List<PostView> hydrate(Long userId, long[] postIds) {
+        List<Long> ids = new ArrayList<>(postIds.length);
+        for (long id : postIds) {
+            ids.add(id);
+        }
+
+        Map<Long, PostView> byId = new HashMap<>();
+        for (PostView post : postRepository.findViewsByIdIn(ids)) {
+            byId.put(post.getId(), post);
+        }
+
+        List<PostView> feed = new ArrayList<>(postIds.length);
+        for (long id : postIds) {
+            PostView post = byId.get(id);
+            if (post != null) {
+                feed.add(post);
+            } else {
+                timelineStore.remove(userId, id);
+            }
+        }
+        return feed;
+    }
+}
@@ -1,11 +1,19 @@
 package com.twitter.service;
 
+import com.twitter.counter.CounterType;
+import com.twitter.counter.UserCounterStore;
+import com.twitter.feed.FeedQueryEngine;
+import com.twitter.graph.FollowEdge;
+import com.twitter.graph.SocialGraphIndex;
 import com.twitter.model.Follow;
-import com.twitter.model.Post;
+import com.twitter.pagination.CursorPage;
+import com.twitter.pagination.PageQuery;
+import com.twitter.projection.PostView;
 import com.twitter.repository.FollowRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -21,6 +29,18 @@ public class FollowService {
     @Autowired
     private NotificationService notificationService;
     
+    @Autowired
+    private FeedService feedService;
+    
+    @Autowired
+    private FeedQueryEngine feedQueryEngine;
+    
+    @Autowired
+    private UserCounterStore userCounterStore;
+    
+    @Autowired
+    private SocialGraphIndex socialGraphIndex;
+    
     /**
      * Follow a user (with duplicate prevention)
      * @param followerId - User who wants to follow
@@ -33,19 +53,30 @@ public class FollowService {
             throw new IllegalArgumentException("User cannot follow themselves");
         }
         
-        // ✅ CHECK IF ALREADY FOLLOWING (Prevents duplicates)
-        List<Follow> existingFollows = followRepository.findByFollowerIdAndFollowingId(followerId, followingId);
-        if (!existingFollows.isEmpty()) {
+        // ✅ CLAIM THE EDGE FIRST (Prevents duplicates) - only one concurrent follow can add it
+        if (!socialGraphIndex.addEdge(followerId, followingId)) {
             throw new IllegalArgumentException("You are already following this user");
         }
         
         // Create new follow relationship
-        Follow follow = new Follow(followerId, followingId);
-        Follow savedFollow = followRepository.save(follow);
+        Follow savedFollow;
+        try {
+            savedFollow = followRepository.save(new Follow(followerId, followingId));
+        } catch (RuntimeException e) {
+            // Release the claim so the follow can be retried
+            socialGraphIndex.removeEdge(followerId, followingId);
+            throw e;
+        }
+        userCounterStore.add(CounterType.FOLLOWERS, followingId, 1);
+        userCounterStore.add(CounterType.FOLLOWING, followerId, 1);
+        feedService.followersChanged(followingId);
+        
+        // Follower's home timeline now misses the new followee's posts
+        feedService.invalidateTimeline(followerId);
         
-        // Create notification for the user being followed
+        // Create notification for the user being followed (coalesced with other recent follows)
         String message = "User " + followerId + " followed you!";
-        notificationService.createNotification(followingId, message, "FOLLOW");
+        notificationService.createNotification(followingId, followerId, message, "FOLLOW");
         
         return savedFollow;
     }
@@ -56,32 +87,47 @@ public class FollowService {
      * @param followingId - User to be unfollowed
      */
     public void unfollowUser(Long followerId, Long followingId) {
-        List<Follow> follows = followRepository.findByFollowerIdAndFollowingId(followerId, followingId);
-        
-        if (follows.isEmpty()) {
+        if (!socialGraphIndex.isFollowing(followerId, followingId)) {
             throw new IllegalArgumentException("You are not following this user");
         }
         
         // Delete all follow relationships (should only be one due to duplicate prevention)
-        followRepository.deleteAll(follows);
+        int deleted = followRepository.deleteByFollowerIdAndFollowingId(followerId, followingId);
+        socialGraphIndex.removeEdge(followerId, followingId);
+        userCounterStore.add(CounterType.FOLLOWERS, followingId, -deleted);
+        userCounterStore.add(CounterType.FOLLOWING, followerId, -deleted);
+        feedService.followersChanged(followingId);
+        feedService.invalidateTimeline(followerId);
     }
     
     /**
-     * Get all users that a specific user is following
+     * Get users that a specific user is following (from the graph index)
      * @param userId - User ID
-     * @return List of follow relationships
+     * @param afterId - Last followed user ID of the previous page (0 for the first page)
+     * @param limit - Page size
+     * @return List of follow relationships (ascending by followed user ID)
      */
-    public List<Follow> getFollowing(Long userId) {
-        return followRepository.findByFollowerId(userId);
+    public List<FollowEdge> getFollowing(Long userId, long afterId, int limit) {
+        List<FollowEdge> edges = new ArrayList<>();
+        for (long followingId : socialGraphIndex.getFollowingIds(userId, afterId, limit)) {
+            edges.add(new FollowEdge(userId, followingId));
+        }
+        return edges;
     }
     
     /**
-     * Get all followers of a specific user
+     * Get followers of a specific user (from the graph index)
      * @param userId - User ID
-     * @return List of follow relationships
+     * @param afterId - Last follower ID of the previous page (0 for the first page)
+     * @param limit - Page size
+     * @return List of follow relationships (ascending by follower ID)
      */
-    public List<Follow> getFollowers(Long userId) {
-        return followRepository.findByFollowingId(userId);
+    public List<FollowEdge> getFollowers(Long userId, long afterId, int limit) {
+        List<FollowEdge> edges = new ArrayList<>();
+        for (long followerId : socialGraphIndex.getFollowerIds(userId, afterId, limit)) {
+            edges.add(new FollowEdge(followerId, userId));
+        }
+        return edges;
     }
     
     /**
@@ -91,8 +137,7 @@ public class FollowService {
      * @return true if following, false otherwise
      */
     public boolean isFollowing(Long followerId, Long followingId) {
-        List<Follow> follows = followRepository.findByFollowerIdAndFollowingId(followerId, followingId);
-        return !follows.isEmpty();
+        return socialGraphIndex.isFollowing(followerId, followingId);
     }
     
     /**
@@ -101,7 +146,7 @@ public class FollowService {
      * @return Number of users this user is following
      */
     public long getFollowingCount(Long userId) {
-        return followRepository.countByFollowerId(userId);
+        return userCounterStore.get(CounterType.FOLLOWING, userId);
     }
     
     /**
@@ -110,11 +155,17 @@ public class FollowService {
      * @return Number of followers this user has
      */
     public long getFollowerCount(Long userId) {
-        return followRepository.countByFollowingId(userId);
+        return userCounterStore.get(CounterType.FOLLOWERS, userId);
     }
 
-    public List<Post> getUserFeed(Long userId) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'getUserFeed'");
+    /**
+     * Get one page of a user's feed straight from the database
+     * (single join query, or a k-way merge for very large follow lists)
+     * @param userId - Reader ID
+     * @param page - Keyset page (limit, before/after cursor)
+     * @return Page of posts from followed users (newest first)
+     */
+    public CursorPage<PostView> getUserFeed(Long userId, PageQuery page) {
+        return CursorPage.of(feedQueryEngine.feed(userId, page), page, PostService::cursorOf);
     }
 }
@@ -1,12 +1,27 @@
 package com.twitter.service;
 
+import com.twitter.counter.CounterType;
+import com.twitter.counter.UserCounterStore;
 import com.twitter.model.Notification;
+import com.twitter.notification.NotificationCoalescer;
+import com.twitter.notification.NotificationManager;
+import com.twitter.notification.NotificationStore;
+import com.twitter.notification.NotificationStreamHub;
+import com.twitter.pagination.Cursor;
+import com.twitter.pagination.CursorPage;
+import com.twitter.pagination.PageQuery;
+import com.twitter.projection.NotificationView;
 import com.twitter.repository.NotificationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * NotificationService - Business logic for notifications
@@ -19,6 +34,24 @@ public class NotificationService {
     @Autowired
     private NotificationRepository notificationRepository;
     
+    @Autowired
+    private NotificationManager notificationManager;
+    
+    @Autowired
+    private NotificationStore notificationStore;
+    
+    @Autowired
+    private NotificationStreamHub notificationStreamHub;
+    
+    @Autowired
+    private NotificationCoalescer notificationCoalescer;
+    
+    @Autowired
+    private UserCounterStore userCounterStore;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
     /**
      * Create and save a new notification
      * @param userId - User receiving notification
@@ -27,17 +60,77 @@ public class NotificationService {
      * @return Saved notification
      */
     public Notification createNotification(Long userId, String message, String type) {
+        return createNotification(userId, null, message, type);
+    }
+    
+    /**
+     * Create a notification caused by another user. Within the coalescing window
+     * it is merged into the recipient's open aggregate of the same type instead
+     * of becoming a new row.
+     * @param userId - User receiving notification
+     * @param actorId - User who caused it (null: never coalesced)
+     * @param message - Notification message (used when a new row is written)
+     * @param type - Notification type (POST, FOLLOW, etc)
+     * @return Saved notification, or null if it was merged into an aggregate
+     */
+    public Notification createNotification(Long userId, Long actorId, String message, String type) {
+        if (notificationCoalescer.absorb(userId, actorId, type)) {
+            return null;
+        }
         Notification notification = new Notification(userId, message, type);
-        return notificationRepository.save(notification);
+        if (actorId != null) {
+            notification.setActorSample(List.of(actorId));
+        }
+        Notification saved = notificationRepository.save(notification);
+        userCounterStore.add(CounterType.UNREAD_NOTIFICATIONS, userId, 1);
+        notificationManager.notifyListeners(saved);
+        notificationCoalescer.open(saved, actorId);
+        return saved;
+    }
+    
+    /**
+     * Get one page of notifications for a user
+     * @param userId - User ID
+     * @param page - Keyset page (limit, before/after cursor)
+     * @return Page of notifications (newest first)
+     */
+    public CursorPage<NotificationView> getUserNotifications(Long userId, PageQuery page) {
+        List<NotificationView> rows;
+        if (page.isBefore()) {
+            Cursor before = page.getBefore();
+            rows = notificationRepository.findByUserIdBefore(userId, before.getTimestamp(), before.getId(), page.pageable());
+        } else if (page.isAfter()) {
+            Cursor after = page.getAfter();
+            rows = notificationRepository.findByUserIdAfter(userId, after.getTimestamp(), after.getId(), page.pageable());
+        } else {
+            rows = getRecentNotifications(userId, page.getLimit() + 1);
+        }
+        return CursorPage.of(rows, page, n -> Cursor.of(n.getCreatedAt(), n.getId()));
     }
     
     /**
-     * Get all notifications for a user
+     * Newest notifications of a user, served from NotificationStore when possible
      * @param userId - User ID
-     * @return List of all notifications (newest first)
+     * @param count - Number of notifications wanted
+     * @return Notifications (newest first)
      */
-    public List<Notification> getUserNotifications(Long userId) {
-        return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    private List<NotificationView> getRecentNotifications(Long userId, int count) {
+        int capacity = notificationStore.getPerUserCapacity();
+        if (count > capacity) {
+            return notificationRepository.findByUserIdOrderByCreatedAtDescIdDesc(userId, PageRequest.of(0, count));
+        }
+        
+        List<NotificationView> cached = notificationStore.recent(userId, count);
+        if (cached != null) {
+            return cached;
+        }
+        
+        // Miss: load the user's newest notifications and cache them
+        long loadToken = notificationStore.beginLoad(userId);
+        List<NotificationView> rows = notificationRepository.findByUserIdOrderByCreatedAtDescIdDesc(
+                userId, PageRequest.of(0, capacity));
+        notificationStore.completeLoad(userId, loadToken, rows, rows.size() < capacity);
+        return rows.size() > count ? new ArrayList<>(rows.subList(0, count)) : rows;
     }
     
     /**
@@ -45,17 +138,17 @@ public class NotificationService {
      * @param userId - User ID
      * @return List of unread notifications
      */
-    public List<Notification> getUnreadNotifications(Long userId) {
+    public List<NotificationView> getUnreadNotifications(Long userId) {
         return notificationRepository.findByUserIdAndIsReadFalseOrderByCreatedAtDesc(userId);
     }
     
     /**
-     * Get count of unread notifications
+     * Get count of unread notifications (materialized counter, O(1))
      * @param userId - User ID
      * @return Number of unread notifications
      */
     public long getUnreadCount(Long userId) {
-        return notificationRepository.countByUserIdAndIsReadFalse(userId);
+        return userCounterStore.get(CounterType.UNREAD_NOTIFICATIONS, userId);
     }
     
     /**
@@ -67,18 +160,103 @@ public class NotificationService {
         Optional<Notification> notificationOpt = notificationRepository.findById(notificationId);
         if (notificationOpt.isPresent()) {
             Notification notification = notificationOpt.get();
+            notificationCoalescer.close(notification.getUserId());
+            if (notificationRepository.markReadIfUnread(notificationId) == 1) {
+                userCounterStore.add(CounterType.UNREAD_NOTIFICATIONS, notification.getUserId(), -1);
+                notificationStore.markRead(notification.getUserId(), notificationId);
+                notificationStreamHub.unreadCountChanged(notification.getUserId());
+            }
             notification.setRead(true);
-            return notificationRepository.save(notification);
+            return notification;
         }
         return null;
     }
     
+    /**
+     * Mark every unread notification of a user as read (one UPDATE)
+     * @param userId - User ID
+     * @return Number of notifications marked
+     */
+    public int markAllAsRead(Long userId) {
+        return markAsReadUpTo(userId, Long.MAX_VALUE);
+    }
+    
+    /**
+     * Mark a user's unread notifications up to an ID as read (one UPDATE).
+     * IDs are time-ordered, so this clears everything the client has seen.
+     * A coalesced aggregate keeps its ID when it is refreshed, so one the client
+     * has seen is cleared together with any actors it gained since.
+     * @param userId - User ID
+     * @param maxId - Highest notification ID to mark (inclusive)
+     * @return Number of notifications marked
+     */
+    public int markAsReadUpTo(Long userId, long maxId) {
+        notificationCoalescer.close(userId);
+        int marked = notificationRepository.markReadUpTo(userId, maxId);
+        if (marked > 0) {
+            userCounterStore.add(CounterType.UNREAD_NOTIFICATIONS, userId, -marked);
+            notificationStreamHub.unreadCountChanged(userId);
+        }
+        notificationStore.markReadUpTo(userId, maxId);
+        return marked;
+    }
+    
+    /**
+     * Delete some of a user's notifications by ID
+     * @param userId - User ID
+     * @param ids - Notification IDs (IDs of other users' notifications are ignored)
+     * @return Number of notifications deleted
+     */
+    public int deleteNotifications(Long userId, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return bulkDelete(userId, isRead -> notificationRepository.deleteByIds(userId, ids, isRead));
+    }
+    
+    /**
+     * Delete a user's notifications created before a time
+     * @param userId - User ID
+     * @param createdBefore - Epoch millis (exclusive)
+     * @return Number of notifications deleted
+     */
+    public int deleteNotificationsOlderThan(Long userId, long createdBefore) {
+        return bulkDelete(userId, isRead -> notificationRepository.deleteOlderThan(userId, createdBefore, isRead));
+    }
+    
+    /**
+     * Run a set-based delete in one transaction, split by read state so the
+     * unread counter is decremented by exactly the number of unread rows removed
+     */
+    private int bulkDelete(Long userId, Function<Boolean, Integer> deleteWhereRead) {
+        notificationCoalescer.close(userId);
+        int[] deleted = transactionTemplate.execute(status ->
+                new int[] {deleteWhereRead.apply(false), deleteWhereRead.apply(true)});
+        if (deleted[0] > 0) {
+            userCounterStore.add(CounterType.UNREAD_NOTIFICATIONS, userId, -deleted[0]);
+            notificationStreamHub.unreadCountChanged(userId);
+        }
+        if (deleted[0] + deleted[1] > 0) {
+            notificationStore.invalidate(userId);
+        }
+        return deleted[0] + deleted[1];
+    }
+    
     /**
      * Delete a notification
      * @param notificationId - Notification ID
      */
     public void deleteNotification(Long notificationId) {
-        notificationRepository.deleteById(notificationId);
+        Optional<Notification> notification = notificationRepository.findById(notificationId);
+        if (notification.isPresent()) {
+            notificationCoalescer.close(notification.get().getUserId());
+            notificationRepository.delete(notification.get());
+            if (!notification.get().isRead()) {
+                userCounterStore.add(CounterType.UNREAD_NOTIFICATIONS, notification.get().getUserId(), -1);
+            }
+            notificationStore.remove(notification.get().getUserId(), notificationId);
+            notificationStreamHub.unreadCountChanged(notification.get().getUserId());
+        }
     }
     
     /**
@@ -1,13 +1,27 @@
 package com.twitter.service;
 
-import com.twitter.model.Follow;
+import com.twitter.counter.CounterType;
+import com.twitter.counter.UserCounterStore;
 import com.twitter.model.Post;
-import com.twitter.repository.FollowRepository;
+import com.twitter.notification.NotificationFanoutEngine;
+import com.twitter.notification.PostCreatedEvent;
+import com.twitter.pagination.Cursor;
+import com.twitter.pagination.CursorPage;
+import com.twitter.pagination.PageQuery;
+import com.twitter.projection.PostView;
 import com.twitter.repository.PostRepository;
+import com.twitter.search.PostSearchIndex;
+import com.twitter.search.SearchQuery;
+import com.twitter.trends.TrendingEngine;
+import com.twitter.version.ResourceType;
+import com.twitter.version.ResourceVersions;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -21,13 +35,26 @@ public class PostService {
     private PostRepository postRepository;
     
     @Autowired
-    private FollowRepository followRepository;
+    private FeedService feedService;
     
     @Autowired
-    private NotificationService notificationService;
+    private NotificationFanoutEngine fanoutEngine;
+    
+    @Autowired
+    private PostSearchIndex searchIndex;
+    
+    @Autowired
+    private TrendingEngine trendingEngine;
+    
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
+    @Autowired
+    private UserCounterStore userCounterStore;
     
     /**
-     * Create a new post and notify all followers
+     * Create a new post and queue it for delivery to all followers
+     * (notifications and home timelines are written by NotificationFanoutEngine)
      * @param userId - User creating the post
      * @param content - Post content
      * @return Created post
@@ -43,26 +70,45 @@ public class PostService {
         
         Post post = new Post(userId, content);
         Post savedPost = postRepository.save(post);
+        userCounterStore.add(CounterType.POSTS, userId, 1);
+        searchIndex.add(savedPost.getId(), savedPost.getContent());
+        trendingEngine.record(savedPost.getContent(), savedPost.getTimestamp());
+        resourceVersions.bump(ResourceType.AUTHOR_POSTS, userId);
         
-        // Get all followers of this user
-        List<Follow> followers = followRepository.findByFollowingId(userId);
-        
-        // Create notification for each follower
-        String message = "User " + userId + " posted: " + content;
-        for (Follow follow : followers) {
-            notificationService.createNotification(follow.getFollowerId(), message, "POST");
-        }
+        // The post is durable; fan-out to followers happens off the request thread.
+        // Celebrities skip the timeline push (readers pull their posts) but still notify followers.
+        fanoutEngine.submit(new PostCreatedEvent(savedPost, !feedService.isCelebrity(userId)));
         
         return savedPost;
     }
     
     /**
-     * Get all posts by a specific user
+     * Get one page of posts by a specific user
+     * @param userId - User ID
+     * @param page - Keyset page (limit, before/after cursor)
+     * @return Page of posts (newest first)
+     */
+    public CursorPage<PostView> getUserPosts(Long userId, PageQuery page) {
+        List<PostView> rows;
+        if (page.isBefore()) {
+            Cursor before = page.getBefore();
+            rows = postRepository.findByUserIdBefore(userId, before.getTimestamp(), before.getId(), page.pageable());
+        } else if (page.isAfter()) {
+            Cursor after = page.getAfter();
+            rows = postRepository.findByUserIdAfter(userId, after.getTimestamp(), after.getId(), page.pageable());
+        } else {
+            rows = postRepository.findByUserIdOrderByTimestampDescIdDesc(userId, page.pageable());
+        }
+        return CursorPage.of(rows, page, PostService::cursorOf);
+    }
+    
+    /**
+     * Number of posts by a user (materialized counter, constant time)
      * @param userId - User ID
-     * @return List of posts
+     * @return Post count
      */
-    public List<Post> getUserPosts(Long userId) {
-        return postRepository.findByUserIdOrderByTimestampDesc(userId);  // ✅ CORRECTED
+    public long getPostCount(Long userId) {
+        return userCounterStore.get(CounterType.POSTS, userId);
     }
     
     /**
@@ -80,14 +126,81 @@ public class PostService {
      * @param postId - Post ID to delete
      */
     public void deletePost(Long postId) {
-        postRepository.deleteById(postId);
+        Optional<Post> post = postRepository.findById(postId);
+        if (post.isEmpty() || postRepository.deleteIfExists(postId) == 0) {
+            return;
+        }
+        userCounterStore.add(CounterType.POSTS, post.get().getUserId(), -1);
+        searchIndex.remove(postId);
+        // The post may sit in any number of feeds
+        resourceVersions.bumpAll(ResourceType.FEED);
+    }
+    
+    /**
+     * Full-text search over post content (in-memory index, newest first)
+     * @param text - Query: words and "quoted phrases", all of which must match
+     * @param page - Keyset page (limit, before cursor)
+     * @return Page of matching posts (newest first)
+     */
+    public CursorPage<PostView> searchPosts(String text, PageQuery page) {
+        if (page.isAfter()) {
+            throw new IllegalArgumentException("Search results can only be paged with 'before'");
+        }
+        SearchQuery query = SearchQuery.parse(text);
+        long beforeId = page.isBefore() ? page.getBefore().getId() : Long.MAX_VALUE;
+        int wanted = page.getLimit() + 1;
+        
+        List<PostView> rows = new ArrayList<>(wanted);
+        while (rows.size() < wanted) {
+            long[] ids = searchIndex.search(query, beforeId, wanted - rows.size());
+            if (ids.length == 0) {
+                break;
+            }
+            List<Long> idList = new ArrayList<>(ids.length);
+            for (long id : ids) {
+                idList.add(id);
+            }
+            Map<Long, PostView> byId = new HashMap<>();
+            for (PostView post : postRepository.findViewsByIdIn(idList)) {
+                byId.put(post.getId(), post);
+            }
+            for (long id : ids) {
+                PostView post = byId.get(id);
+                // Missing only while a concurrent deletePost has not reached the index yet
+                if (post != null) {
+                    rows.add(post);
+                }
+            }
+            beforeId = ids[ids.length - 1];
+        }
+        return CursorPage.of(rows, page, PostService::cursorOf);
+    }
+    
+    /**
+     * Get one page of all posts (for debugging/admin)
+     * @param page - Keyset page (limit, before/after cursor)
+     * @return Page of posts (newest first)
+     */
+    public CursorPage<PostView> getAllPosts(PageQuery page) {
+        List<PostView> rows;
+        if (page.isBefore()) {
+            Cursor before = page.getBefore();
+            rows = postRepository.findAllBefore(before.getTimestamp(), before.getId(), page.pageable());
+        } else if (page.isAfter()) {
+            Cursor after = page.getAfter();
+            rows = postRepository.findAllAfter(after.getTimestamp(), after.getId(), page.pageable());
+        } else {
+            rows = postRepository.findAllByOrderByTimestampDescIdDesc(page.pageable());
+        }
+        return CursorPage.of(rows, page, PostService::cursorOf);
     }
     
     /**
-     * Get all posts (for debugging/admin)
-     * @return List of all posts
+     * Keyset position of a post
+     * @param post - Post
+     * @return Cursor on (timestamp, id)
      */
-    public List<Post> getAllPosts() {
-        return postRepository.findAll();  // ✅ CORRECTED
+    public static Cursor cursorOf(PostView post) {
+        return Cursor.of(post.getTimestamp(), post.getId());
     }
 }
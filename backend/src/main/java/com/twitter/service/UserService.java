@@ -1,11 +1,27 @@
 package com.twitter.service;
 
+import com.twitter.cache.UserCache;
+import com.twitter.counter.UserCounterStore;
 import com.twitter.model.User;
+import com.twitter.pagination.Cursor;
+import com.twitter.pagination.CursorPage;
+import com.twitter.pagination.PageQuery;
+import com.twitter.projection.UserSummary;
 import com.twitter.repository.UserRepository;
+import com.twitter.version.ResourceType;
+import com.twitter.version.ResourceVersions;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * UserService - Business Logic for Users
@@ -19,6 +35,18 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private UserCounterStore userCounterStore;
+    
+    @Autowired
+    private UserCache userCache;
+    
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
+    @Value("${users.batch.max-ids:200}")
+    private int maxBatchIds;
+    
     // Create new user
     public User createUser(String username, String email) {
         // Check if user already exists
@@ -28,30 +56,109 @@ public class UserService {
         }
         
         User user = new User(username, email);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userCounterStore.createUser(saved.getId());
+        return saved;
     }
     
-    // Get user by ID
+    // Get user by ID (served from the user cache when possible)
     public User getUserById(Long id) {
-        return userRepository.findById(id)
+        User cached = userCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long loadToken = userCache.beginLoad();
+        User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found: " + id));
+        userCache.put(user, loadToken);
+        return user;
+    }
+    
+    // Get many users at once: cached ones from memory, the rest with one IN query.
+    // Returned in request order; unknown IDs are skipped.
+    public List<User> getUsersByIds(Collection<Long> ids) {
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        if (distinct.size() > maxBatchIds) {
+            throw new IllegalArgumentException("At most " + maxBatchIds + " user IDs per request");
+        }
+        return loadUsers(distinct);
     }
     
-    // Get all users
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    // Author summaries keyed by user ID (for ?expand=author side maps)
+    public Map<Long, UserSummary> getUserSummaries(Collection<Long> ids) {
+        Map<Long, UserSummary> summaries = new LinkedHashMap<>();
+        for (User user : loadUsers(new LinkedHashSet<>(ids))) {
+            summaries.put(user.getId(), UserSummary.of(user));
+        }
+        return summaries;
+    }
+    
+    private List<User> loadUsers(Set<Long> distinct) {
+        Map<Long, User> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : distinct) {
+            User cached = userCache.get(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long loadToken = userCache.beginLoad();
+            for (User user : userRepository.findByIdIn(missing)) {
+                found.put(user.getId(), user);
+                userCache.put(user, loadToken);
+            }
+        }
+        List<User> result = new ArrayList<>(found.size());
+        for (Long id : distinct) {
+            User user = found.get(id);
+            if (user != null) {
+                result.add(user);
+            }
+        }
+        return result;
     }
     
-    // Get user by username
+    // Get one page of users (newest first, keyset-paginated)
+    public CursorPage<User> getAllUsers(PageQuery page) {
+        List<User> rows;
+        if (page.isBefore()) {
+            Cursor before = page.getBefore();
+            rows = userRepository.findAllBefore(before.getTimestamp(), before.getId(), page.pageable());
+        } else if (page.isAfter()) {
+            Cursor after = page.getAfter();
+            rows = userRepository.findAllAfter(after.getTimestamp(), after.getId(), page.pageable());
+        } else {
+            rows = userRepository.findAllByOrderByCreatedAtDescIdDesc(page.pageable());
+        }
+        return CursorPage.of(rows, page, u -> Cursor.of(u.getCreatedAt(), u.getId()));
+    }
+    
+    // Get user by username (served from the user cache when possible)
     public User getUserByUsername(String username) {
-        return userRepository.findByUsername(username)
+        User cached = userCache.getByUsername(username);
+        if (cached != null) {
+            return cached;
+        }
+        long loadToken = userCache.beginLoad();
+        User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found: " + username));
+        userCache.put(user, loadToken);
+        return user;
     }
     
-    // Update user bio
+    // Update user bio (always from the database, then drop the cached copy)
     public User updateUserBio(Long id, String bio) {
-        User user = getUserById(id);
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found: " + id));
         user.setBio(bio);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userCache.invalidate(id);
+        resourceVersions.bump(ResourceType.PROFILE, id);
+        // Feeds with ?expand=author embed the bio
+        resourceVersions.bumpAll(ResourceType.FEED);
+        return saved;
     }
 }
@@ -0,0 +1,76 @@
+package com.twitter.trends;
+
+import java.util.Arrays;
+
+/**
+ * CountMinSketch - Approximate frequency counts in fixed memory
+ * SOLID: Single Responsibility - Only counts keys approximately
+ *
+ * depth rows of width counters. A key increments one counter per row, chosen
+ * by double hashing; its estimate is the smallest of those counters, which
+ * never under-counts and over-counts by at most about total / width with
+ * high probability. Sketches of the same shape can be subtracted, which is
+ * how expired time slices leave a window.
+ *
+ * Not thread-safe; callers synchronize.
+ */
+final class CountMinSketch {
+    
+    private final int depth;
+    private final int width;
+    private final int[] counters;
+    
+    CountMinSketch(int depth, int width) {
+        this.depth = depth;
+        this.width = width;
+        this.counters = new int[depth * width];
+    }
+    
+    void add(long hash, int count) {
+        for (int row = 0; row < depth; row++) {
+            counters[row * width + column(hash, row)] += count;
+        }
+    }
+    
+    int estimate(long hash) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters[row * width + column(hash, row)]);
+        }
+        return min;
+    }
+    
+    /**
+     * Remove another sketch's counts (it must have been added to this one)
+     */
+    void subtract(CountMinSketch other) {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] -= other.counters[i];
+        }
+    }
+    
+    void clear() {
+        Arrays.fill(counters, 0);
+    }
+    
+    /**
+     * 64-bit FNV-1a hash of a key
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+    
+    /**
+     * Kirsch-Mitzenmacher double hashing: row i uses h1 + i * h2
+     */
+    private int column(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return Math.floorMod(h1 + row * h2, width);
+    }
+}
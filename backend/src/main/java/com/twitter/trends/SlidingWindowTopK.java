@@ -0,0 +1,129 @@
+package com.twitter.trends;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SlidingWindowTopK - Heavy hitters over a sliding time window in constant memory
+ * SOLID: Single Responsibility - Only tracks the most frequent keys of one window
+ *
+ * The window is a ring of time slices, each with its own Count-Min sketch,
+ * plus one sketch holding the sum of all live slices. Recording adds to the
+ * current slice and the sum; when a slice expires it is subtracted from the
+ * sum and cleared, so the window slides in steps of one slice.
+ *
+ * A bounded candidate set keeps the keys with the highest estimates: a key
+ * enters when there is room or when it beats the weakest candidate.
+ * Candidates are re-estimated as slices expire, so fading keys drop out.
+ *
+ * Thread-safe (all methods synchronize on the instance).
+ */
+final class SlidingWindowTopK {
+    
+    private final String name;
+    private final long sliceMs;
+    private final CountMinSketch[] slices;
+    private final CountMinSketch window;
+    private final int capacity;
+    private final Map<String, Integer> candidates = new HashMap<>();
+    private long currentSlice;
+    
+    SlidingWindowTopK(String name, long windowMs, int sliceCount, int depth, int width, int capacity) {
+        this.name = name;
+        this.sliceMs = windowMs / sliceCount;
+        this.slices = new CountMinSketch[sliceCount];
+        for (int i = 0; i < sliceCount; i++) {
+            slices[i] = new CountMinSketch(depth, width);
+        }
+        this.window = new CountMinSketch(depth, width);
+        this.capacity = capacity;
+    }
+    
+    String getName() {
+        return name;
+    }
+    
+    int getCandidateCount() {
+        return candidates.size();
+    }
+    
+    /**
+     * Count one occurrence of each key
+     * @param keys - Distinct keys
+     * @param now - Event time (epoch millis)
+     */
+    synchronized void record(List<String> keys, long now) {
+        advance(now);
+        CountMinSketch slice = slices[(int) (currentSlice % slices.length)];
+        for (String key : keys) {
+            long hash = CountMinSketch.hash(key);
+            slice.add(hash, 1);
+            window.add(hash, 1);
+            offer(key, window.estimate(hash));
+        }
+    }
+    
+    /**
+     * Most frequent keys of the window
+     * @param limit - Maximum number of keys
+     * @param now - Current time (epoch millis)
+     * @return Keys with approximate counts, highest first
+     */
+    synchronized List<TrendingTag> top(int limit, long now) {
+        advance(now);
+        List<TrendingTag> result = new ArrayList<>(candidates.size());
+        for (Map.Entry<String, Integer> candidate : candidates.entrySet()) {
+            result.add(new TrendingTag(candidate.getKey(), candidate.getValue()));
+        }
+        result.sort((a, b) -> a.getCount() != b.getCount()
+                ? Long.compare(b.getCount(), a.getCount())
+                : a.getTag().compareTo(b.getTag()));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+    
+    private void offer(String key, int estimate) {
+        if (candidates.containsKey(key) || candidates.size() < capacity) {
+            candidates.put(key, estimate);
+            return;
+        }
+        String weakest = null;
+        int weakestCount = Integer.MAX_VALUE;
+        for (Map.Entry<String, Integer> candidate : candidates.entrySet()) {
+            if (candidate.getValue() < weakestCount) {
+                weakest = candidate.getKey();
+                weakestCount = candidate.getValue();
+            }
+        }
+        if (estimate > weakestCount) {
+            candidates.remove(weakest);
+            candidates.put(key, estimate);
+        }
+    }
+    
+    /**
+     * Expire the slices that fell out of the window and re-estimate candidates
+     */
+    private void advance(long now) {
+        long slice = now / sliceMs;
+        if (slice <= currentSlice) {
+            return;
+        }
+        if (slice - currentSlice >= slices.length) {
+            for (CountMinSketch expired : slices) {
+                expired.clear();
+            }
+            window.clear();
+        } else {
+            for (long s = currentSlice + 1; s <= slice; s++) {
+                CountMinSketch expired = slices[(int) (s % slices.length)];
+                window.subtract(expired);
+                expired.clear();
+            }
+        }
+        currentSlice = slice;
+        candidates.replaceAll((key, count) -> window.estimate(CountMinSketch.hash(key)));
+        candidates.values().removeIf(count -> count <= 0);
+    }
+}
@@ -0,0 +1,117 @@
+package com.twitter.trends;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * TrendingEngine - Trending hashtags over sliding windows
+ * SOLID: Single Responsibility - Only turns the stream of new posts into hashtag trends
+ *
+ * Fed by PostService for every new post. Hashtags are counted once per post
+ * in three sliding windows (5 minutes, 1 hour, 24 hours), each a ring of
+ * Count-Min sketches plus a bounded top-K candidate set, so memory stays
+ * constant however many distinct hashtags appear. Reading the trends only
+ * sorts the candidates; it never touches the database.
+ */
+@Component
+public class TrendingEngine {
+    
+    private static final Pattern HASHTAG = Pattern.compile("#([\\p{L}\\p{N}_]{1,64})");
+    
+    @Value("${trends.sketch.depth:4}")
+    private int depth;
+    
+    @Value("${trends.sketch.width:2048}")
+    private int width;
+    
+    @Value("${trends.top-k.capacity:100}")
+    private int capacity;
+    
+    private final Map<String, SlidingWindowTopK> windows = new LinkedHashMap<>();
+    private final LongAdder postsSeen = new LongAdder();
+    private final LongAdder hashtagsSeen = new LongAdder();
+    
+    @PostConstruct
+    public void init() {
+        windows.put("5m", new SlidingWindowTopK("5m", TimeUnit.MINUTES.toMillis(5), 10, depth, width, capacity));
+        windows.put("1h", new SlidingWindowTopK("1h", TimeUnit.HOURS.toMillis(1), 12, depth, width, capacity));
+        windows.put("24h", new SlidingWindowTopK("24h", TimeUnit.HOURS.toMillis(24), 24, depth, width, capacity));
+    }
+    
+    /**
+     * Count the hashtags of a new post
+     * @param content - Post content
+     * @param timestamp - Post time (epoch millis)
+     */
+    public void record(String content, long timestamp) {
+        postsSeen.increment();
+        List<String> tags = extractHashtags(content);
+        if (tags.isEmpty()) {
+            return;
+        }
+        hashtagsSeen.add(tags.size());
+        for (SlidingWindowTopK window : windows.values()) {
+            window.record(tags, timestamp);
+        }
+    }
+    
+    /**
+     * Top hashtags of a window
+     * @param window - "5m", "1h" or "24h"
+     * @param limit - Maximum number of hashtags
+     * @return Hashtags (without '#') with approximate counts, highest first
+     * @throws IllegalArgumentException for an unknown window
+     */
+    public List<TrendingTag> getTrends(String window, int limit) {
+        SlidingWindowTopK topK = windows.get(window);
+        if (topK == null) {
+            throw new IllegalArgumentException("Unknown window '" + window + "', expected one of " + windows.keySet());
+        }
+        return topK.top(Math.max(0, limit), System.currentTimeMillis());
+    }
+    
+    /**
+     * Input counts and candidate set sizes
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> candidates = new LinkedHashMap<>();
+        for (SlidingWindowTopK window : windows.values()) {
+            synchronized (window) {
+                candidates.put(window.getName(), window.getCandidateCount());
+            }
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("posts", postsSeen.sum());
+        stats.put("hashtags", hashtagsSeen.sum());
+        stats.put("candidates", candidates);
+        stats.put("sketchBytesPerWindowSlice", 4L * depth * width);
+        return stats;
+    }
+    
+    /**
+     * Distinct lower-cased hashtags of a text, without the '#'
+     */
+    static List<String> extractHashtags(String content) {
+        Set<String> tags = new LinkedHashSet<>();
+        if (content != null) {
+            Matcher matcher = HASHTAG.matcher(content);
+            while (matcher.find()) {
+                tags.add(matcher.group(1).toLowerCase(Locale.ROOT));
+            }
+        }
+        return new ArrayList<>(tags);
+    }
+}
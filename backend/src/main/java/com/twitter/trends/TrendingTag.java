@@ -0,0 +1,24 @@
+package com.twitter.trends;
+
+/**
+ * TrendingTag - One entry of a trends list
+ * SOLID: Single Responsibility - Only carries a hashtag and its approximate count
+ */
+public final class TrendingTag {
+    
+    private final String tag;
+    private final long count;
+    
+    public TrendingTag(String tag, long count) {
+        this.tag = tag;
+        this.count = count;
+    }
+    
+    public String getTag() {
+        return tag;
+    }
+    
+    public long getCount() {
+        return count;
+    }
+}
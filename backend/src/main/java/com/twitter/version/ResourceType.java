@@ -0,0 +1,25 @@
+package com.twitter.version;
+
+/**
+ * ResourceType - Per-user state whose changes are versioned for HTTP validators
+ * SOLID: Open/Closed - New versioned resources are added here, not in ResourceVersions
+ */
+public enum ResourceType {
+    NOTIFICATIONS("n"),   // a user's notification list
+    FEED("f"),            // a reader's materialized home timeline
+    AUTHOR_POSTS("a"),    // an author's own posts (celebrity posts are pulled into feeds)
+    PROFILE("p");         // a user's profile fields
+    
+    private final String tag;
+    
+    ResourceType(String tag) {
+        this.tag = tag;
+    }
+    
+    /**
+     * Short prefix used in ETags
+     */
+    public String getTag() {
+        return tag;
+    }
+}
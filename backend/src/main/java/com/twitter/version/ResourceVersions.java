@@ -0,0 +1,124 @@
+package com.twitter.version;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * ResourceVersions - Version counters behind the ETags of polled endpoints
+ * SOLID: Single Responsibility - Only tracks whether per-user state may have changed
+ *
+ * Every change to a user's notifications, home timeline or profile bumps a
+ * counter; an endpoint's ETag is derived from the counters alone, so a
+ * matching If-None-Match is answered with 304 before any query runs or any
+ * body is serialized.
+ *
+ * - Counters are striped by user ID into a fixed array per resource type, so
+ *   memory is constant. Two users sharing a stripe only ever cause an
+ *   unnecessary 200, never a wrong 304.
+ * - A per-type generation bumps all users at once, for rare global changes
+ *   (e.g. a deleted post may sit in any number of feeds).
+ * - Counters live in memory and restart at zero, so ETags carry the boot
+ *   epoch; validators from before a restart never match.
+ * - Writers bump after their change is visible and endpoints read the version
+ *   before the data, so a response is never older than its ETag.
+ */
+@Component
+public class ResourceVersions {
+    
+    @Value("${etag.version-stripes:65536}")
+    private int stripeCount;
+    
+    private final String bootEpoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<ResourceType, AtomicLongArray> stripes = new EnumMap<>(ResourceType.class);
+    private final Map<ResourceType, AtomicLong> generations = new EnumMap<>(ResourceType.class);
+    
+    @PostConstruct
+    public void init() {
+        // Power of two, so a stripe is a mask away
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        for (ResourceType type : ResourceType.values()) {
+            stripes.put(type, new AtomicLongArray(size));
+            generations.put(type, new AtomicLong());
+        }
+    }
+    
+    /**
+     * Record a change to one user's resource
+     * @param type - Resource type
+     * @param userId - Owner of the resource
+     */
+    public void bump(ResourceType type, long userId) {
+        AtomicLongArray array = stripes.get(type);
+        array.incrementAndGet(stripeOf(userId, array.length()));
+    }
+    
+    /**
+     * Record a change that may affect every user's resource of a type
+     * @param type - Resource type
+     */
+    public void bumpAll(ResourceType type) {
+        generations.get(type).incrementAndGet();
+    }
+    
+    /**
+     * Current version of a user's resource (only ever grows)
+     * @param type - Resource type
+     * @param userId - Owner of the resource
+     */
+    public long get(ResourceType type, long userId) {
+        AtomicLongArray array = stripes.get(type);
+        return generations.get(type).get() + array.get(stripeOf(userId, array.length()));
+    }
+    
+    /**
+     * Strong ETag of a user's resource
+     * @param type - Resource type
+     * @param userId - Owner of the resource
+     */
+    public String etag(ResourceType type, long userId) {
+        return format(type, get(type, userId));
+    }
+    
+    /**
+     * Strong ETag for a version combined from several counters
+     * @param type - Resource type the response represents
+     * @param version - Combined version (must grow whenever any of its parts changes)
+     */
+    public String format(ResourceType type, long version) {
+        return "\"" + type.getTag() + "." + bootEpoch + "." + Long.toString(version, 36) + "\"";
+    }
+    
+    /**
+     * Strong ETag for a version with a dependent part, kept as two separate components
+     * @param type - Resource type the response represents
+     * @param version - Main version
+     * @param subVersion - Part that only has to grow while the main version stays the same
+     */
+    public String format(ResourceType type, long version, long subVersion) {
+        return "\"" + type.getTag() + "." + bootEpoch + "." + Long.toString(version, 36)
+                + "." + Long.toString(subVersion, 36) + "\"";
+    }
+    
+    /**
+     * Global generations per type
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("bootEpoch", bootEpoch);
+        stats.put("stripes", stripes.get(ResourceType.FEED).length());
+        generations.forEach((type, generation) -> stats.put(type.name() + ".generation", generation.get()));
+        return stats;
+    }
+    
+    private static int stripeOf(long userId, int size) {
+        long h = userId * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (size - 1);
+    }
+}
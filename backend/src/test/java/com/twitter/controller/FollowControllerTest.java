@@ -0,0 +1,177 @@
+package com.twitter.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.twitter.metrics.StatementCapture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * FollowControllerTest - Statement budgets of the follow endpoints
+ *
+ * Follower lists and counts are served from the social graph index and the
+ * materialized counters without a statement, whatever the number of followers.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:follow-controller-test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "search.index.path="
+})
+@AutoConfigureMockMvc
+class FollowControllerTest {
+
+    private static final AtomicInteger users = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private long author;
+    private final List<Long> followers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        author = createUser();
+        followers.clear();
+        for (int i = 0; i < 25; i++) {
+            long follower = createUser();
+            followers.add(follower);
+            follow(follower, author).andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void followAndUnfollow() throws Exception {
+        long other = createUser();
+        try (StatementCapture capture = StatementCapture.start()) {
+            follow(other, author).andExpect(status().isOk());
+            capture.assertCount(1);
+        }
+        try (StatementCapture capture = StatementCapture.start()) {
+            mockMvc.perform(post("/api/follows/unfollow").contentType(MediaType.APPLICATION_JSON)
+                            .content(json(Map.of("followerId", other, "followingId", author))))
+                    .andExpect(status().isOk());
+            capture.assertCount(1);
+        }
+    }
+
+    @Test
+    void concurrentFollowsCountOnce() throws Exception {
+        long other = createUser();
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                statuses.add(pool.submit(() -> {
+                    start.await();
+                    return follow(other, author).andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+            int succeeded = 0;
+            for (Future<Integer> status : statuses) {
+                if (status.get() == 200) {
+                    succeeded++;
+                }
+            }
+            assertEquals(1, succeeded);
+        } finally {
+            pool.shutdownNow();
+        }
+        mockMvc.perform(get("/api/follows/{userId}/counts", author))
+                .andExpect(jsonPath("$.followers").value(26));
+        mockMvc.perform(get("/api/follows/{userId}/counts", other))
+                .andExpect(jsonPath("$.following").value(1));
+    }
+
+    @Test
+    void followersPage() throws Exception {
+        try (StatementCapture capture = StatementCapture.start()) {
+            mockMvc.perform(get("/api/follows/{userId}/followers", author).param("limit", "20"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(20));
+            capture.assertCount(0);
+        }
+    }
+
+    @Test
+    void followingPage() throws Exception {
+        try (StatementCapture capture = StatementCapture.start()) {
+            mockMvc.perform(get("/api/follows/{userId}/following", followers.get(0)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(1));
+            capture.assertCount(0);
+        }
+    }
+
+    @Test
+    void countsAreMaterialized() throws Exception {
+        mockMvc.perform(get("/api/follows/{userId}/counts", author)).andExpect(status().isOk());
+        try (StatementCapture capture = StatementCapture.start()) {
+            mockMvc.perform(get("/api/follows/{userId}/counts", author))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.followers").value(25))
+                    .andExpect(jsonPath("$.following").value(0))
+                    .andExpect(jsonPath("$.posts").value(0));
+            capture.assertCount(0);
+        }
+    }
+
+    @Test
+    void followedFeed() throws Exception {
+        createPost(author, "hello followers");
+        try (StatementCapture capture = StatementCapture.start()) {
+            mockMvc.perform(get("/api/follows/{userId}/feed", followers.get(0)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(1));
+            capture.assertCount(2).assertNoRepeatsOver(1);
+        }
+    }
+
+    private long createUser() throws Exception {
+        String name = "follow-user-" + users.incrementAndGet();
+        String body = mockMvc.perform(post("/api/users").contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("username", name, "email", name + "@example.com", "password", "secret123"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+
+    private void createPost(long userId, String content) throws Exception {
+        mockMvc.perform(post("/api/posts").contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("userId", userId, "content", content))))
+                .andExpect(status().isOk());
+    }
+
+    private ResultActions follow(long followerId, long followingId) throws Exception {
+        return mockMvc.perform(post("/api/follows/follow").contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("followerId", followerId, "followingId", followingId))));
+    }
+
+    private String json(Object value) throws Exception {
+        return objectMapper.writeValueAsString(value);
+    }
+}
@@ -0,0 +1,194 @@
+package com.twitter.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.twitter.metrics.StatementCapture;
+import com.twitter.notification.NotificationFanoutEngine;
+import com.twitter.pagination.CursorPage;
+import com.twitter.service.PostService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * PostControllerTest - Statement budgets of the post endpoints
+ *
+ * Each request runs on the test thread, so StatementCapture sees exactly the
+ * statements it executed. Counts are pinned so an N+1 (or any new query on
+ * a hot path) fails the build instead of showing up in production metrics.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:post-controller-test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "search.index.path="
+})
+@AutoConfigureMockMvc
+class PostControllerTest {
+
+    private static final AtomicInteger users = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private NotificationFanoutEngine fanoutEngine;
+
+    @Autowired
+    private PostService postService;
+
+    private long reader;
+    private final List<Long> authors = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        reader = createUser();
+        authors.clear();
+        for (int i = 0; i < 20; i++) {
+            long author = createUser();
+            authors.add(author);
+            for (int p = 0; p < 3; p++) {
+                createPost(author, "post " + p + " by author " + i + " about java");
+            }
+            follow(reader, author);
+        }
+    }
+
+    @Test
+    void createPost() throws Exception {
+        try (StatementCapture capture = StatementCapture.start()) {
+            createPost(authors.get(0), "hello world");
+            capture.assertCount(1);
+        }
+    }
+
+    @Test
+    void userPostsPage() throws Exception {
+        try (StatementCapture capture = StatementCapture.start()) {
+            mockMvc.perform(get("/api/posts/user/{userId}", authors.get(0)).param("expand", "author"))
+                    .andExpect(status().isOk());
+            capture.assertCount(2).assertNoRepeatsOver(1);
+        }
+    }
+
+    @Test
+    void coldHomeFeedHasNoNPlusOne() throws Exception {
+        try (StatementCapture capture = StatementCapture.start()) {
+            mockMvc.perform(get("/api/posts/feed/{userId}", reader).param("limit", "20").param("expand", "author"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items.length()").value(20));
+            capture.assertCount(3).assertNoRepeatsOver(1);
+        }
+    }
+
+    @Test
+    void warmHomeFeed() throws Exception {
+        mockMvc.perform(get("/api/posts/feed/{userId}", reader)).andExpect(status().isOk());
+        try (StatementCapture capture = StatementCapture.start()) {
+            mockMvc.perform(get("/api/posts/feed/{userId}", reader).param("limit", "20"))
+                    .andExpect(status().isOk());
+            capture.assertCount(1);
+        }
+    }
+
+    @Test
+    void unchangedHomeFeedRunsNoStatements() throws Exception {
+        String etag = settledFeedETag();
+        try (StatementCapture capture = StatementCapture.start()) {
+            mockMvc.perform(get("/api/posts/feed/{userId}", reader).header("If-None-Match", etag))
+                    .andExpect(status().isNotModified());
+            capture.assertCount(0);
+        }
+    }
+
+    @Test
+    void deletedPostsDoNotShortenHomeFeedPage() throws Exception {
+        settledFeedETag();
+        String body = mockMvc.perform(get("/api/posts/feed/{userId}", reader).param("limit", "5"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode page = objectMapper.readTree(body);
+        postService.deletePost(page.get(0).get("id").asLong());
+        postService.deletePost(page.get(1).get("id").asLong());
+
+        mockMvc.perform(get("/api/posts/feed/{userId}", reader).param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[0].id").value(page.get(2).get("id").asLong()))
+                .andExpect(header().exists(CursorPage.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void searchPage() throws Exception {
+        try (StatementCapture capture = StatementCapture.start()) {
+            mockMvc.perform(get("/api/posts/search").param("q", "java").param("limit", "20").param("expand", "author"))
+                    .andExpect(status().isOk());
+            capture.assertCount(2).assertNoRepeatsOver(1);
+        }
+    }
+
+    /**
+     * ETag of the reader's feed once setUp's posts are done fanning out
+     * (fan-out workers push into the reader's timeline asynchronously)
+     */
+    private String settledFeedETag() throws Exception {
+        String previous = null;
+        for (int attempt = 0; attempt < 50; attempt++) {
+            String etag = mockMvc.perform(get("/api/posts/feed/{userId}", reader))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader("ETag");
+            if (etag.equals(previous) && fanoutEngine.getQueueDepth() == 0) {
+                return etag;
+            }
+            previous = etag;
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Feed ETag of user " + reader + " did not settle");
+    }
+
+    private long createUser() throws Exception {
+        String name = "post-user-" + users.incrementAndGet();
+        return id(mockMvc.perform(post("/api/users").contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("username", name, "email", name + "@example.com", "password", "secret123"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private long createPost(long userId, String content) throws Exception {
+        return id(mockMvc.perform(post("/api/posts").contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("userId", userId, "content", content))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private void follow(long followerId, long followingId) throws Exception {
+        mockMvc.perform(post("/api/follows/follow").contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("followerId", followerId, "followingId", followingId))))
+                .andExpect(status().isOk());
+    }
+
+    private String json(Object value) throws Exception {
+        return objectMapper.writeValueAsString(value);
+    }
+
+    private long id(String body) throws Exception {
+        JsonNode node = objectMapper.readTree(body);
+        return node.get("id").asLong();
+    }
+}
@@ -0,0 +1,131 @@
+package com.twitter.counter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StripedCounterTest {
+
+    @Test
+    void unloadedUserHasNoValueButKeepsItsDelta() {
+        StripedCounter counter = new StripedCounter(4, 100, 1000);
+        counter.add(7, 3);
+
+        assertNull(counter.get(7));
+        assertEquals(3, counter.pending(7));
+        assertEquals(13, counter.load(7, 10, () -> true));
+        assertEquals(13, counter.get(7));
+    }
+
+    @Test
+    void staleBaseIsNotInstalled() {
+        StripedCounter counter = new StripedCounter(4, 100, 1000);
+        counter.add(7, 1);
+
+        assertNull(counter.load(7, 10, () -> false));
+        assertNull(counter.get(7));
+        assertEquals(12, counter.load(7, 11, () -> true));
+    }
+
+    @Test
+    void loadedBaseIsKeptOverLaterLoads() {
+        StripedCounter counter = new StripedCounter(4, 100, 1000);
+        counter.load(7, 10, () -> true);
+
+        assertEquals(10, counter.load(7, 99, () -> false));
+    }
+
+    @Test
+    void drainFoldsDeltasIntoBases() {
+        StripedCounter counter = new StripedCounter(4, 100, 1000);
+        counter.load(1, 10, () -> true);
+        counter.add(1, 2);
+        counter.add(2, -1);
+
+        Map<Long, Long> drained = counter.drain();
+
+        assertEquals(Map.of(1L, 2L, 2L, -1L), drained);
+        assertEquals(12, counter.get(1));
+        assertEquals(0, counter.pending(1));
+        // User 2 was never loaded; nothing is left to keep for it
+        assertEquals(1, counter.size());
+        assertTrue(counter.drain().isEmpty());
+    }
+
+    @Test
+    void restorePutsBackAFailedDrain() {
+        StripedCounter counter = new StripedCounter(4, 100, 1000);
+        counter.load(1, 10, () -> true);
+        counter.add(1, 5);
+        counter.add(2, 4);
+
+        Map<Long, Long> drained = counter.drain();
+        counter.add(1, 1);
+        counter.restore(drained);
+
+        assertEquals(16, counter.get(1));
+        assertEquals(6, counter.pending(1));
+        assertEquals(4, counter.pending(2));
+        assertEquals(Map.of(1L, 6L, 2L, 4L), counter.pendingSnapshot());
+    }
+
+    @Test
+    void adjustShiftsOnlyLoadedBases() {
+        StripedCounter counter = new StripedCounter(4, 100, 1000);
+        counter.load(1, 10, () -> true);
+        counter.add(2, 1);
+
+        counter.adjust(1, -3);
+        counter.adjust(2, -3);
+
+        assertEquals(7, counter.get(1));
+        assertEquals(1, counter.pending(2));
+    }
+
+    @Test
+    void hotUsersGoThroughTheLockFreeLane() throws Exception {
+        StripedCounter counter = new StripedCounter(4, 100, 1000);
+        counter.load(1, 5000, () -> true);
+        assertEquals(1, counter.hotSize());
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        CountDownLatch done = new CountDownLatch(4);
+        for (int t = 0; t < 4; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    counter.add(1, 1);
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        assertEquals(45_000, counter.get(1));
+        assertEquals(40_000, counter.pendingSnapshot().get(1L));
+        assertEquals(Map.of(1L, 40_000L), counter.drain());
+        assertEquals(45_000, counter.get(1));
+        assertEquals(0, counter.pending(1));
+    }
+
+    @Test
+    void cleanCellsOverCapacityAreDroppedOnDrain() {
+        StripedCounter counter = new StripedCounter(1, 2, 1000);
+        for (long id = 1; id <= 3; id++) {
+            counter.load(id, id, () -> true);
+        }
+
+        counter.drain();
+
+        assertEquals(0, counter.size());
+        assertNull(counter.get(1));
+    }
+}
@@ -0,0 +1,97 @@
+package com.twitter.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SortedLongSetTest {
+
+    @Test
+    void addKeepsOrderAndRejectsDuplicates() {
+        SortedLongSet set = new SortedLongSet();
+
+        assertTrue(set.add(5));
+        assertTrue(set.add(1));
+        assertTrue(set.add(9));
+        assertFalse(set.add(5));
+
+        assertEquals(3, set.size());
+        assertArrayEquals(new long[] {1, 5, 9}, set.after(Long.MIN_VALUE, 10));
+    }
+
+    @Test
+    void removeShiftsTheTail() {
+        SortedLongSet set = new SortedLongSet();
+        for (long v = 1; v <= 5; v++) {
+            set.add(v);
+        }
+
+        assertTrue(set.remove(3));
+        assertFalse(set.remove(3));
+        assertFalse(set.contains(3));
+
+        assertArrayEquals(new long[] {1, 2, 4, 5}, set.after(0, 10));
+    }
+
+    @Test
+    void sealSortsAndDeduplicatesAppends() {
+        SortedLongSet set = new SortedLongSet();
+        for (long v : new long[] {7, 3, 7, 1, 3}) {
+            set.append(v);
+        }
+        set.seal();
+
+        assertEquals(3, set.size());
+        assertArrayEquals(new long[] {1, 3, 7}, set.after(0, 10));
+        assertTrue(set.add(2));
+        assertArrayEquals(new long[] {1, 2, 3, 7}, set.after(0, 10));
+    }
+
+    @Test
+    void sealOfEmptySet() {
+        SortedLongSet set = new SortedLongSet();
+        set.seal();
+
+        assertEquals(0, set.size());
+        assertArrayEquals(new long[0], set.after(0, 10));
+    }
+
+    @Test
+    void afterPagesFromAnExclusiveBound() {
+        SortedLongSet set = new SortedLongSet();
+        for (long v = 10; v <= 100; v += 10) {
+            set.add(v);
+        }
+
+        assertArrayEquals(new long[] {40, 50}, set.after(30, 2));
+        assertArrayEquals(new long[] {40, 50}, set.after(35, 2));
+        assertArrayEquals(new long[] {90, 100}, set.after(80, 5));
+        assertArrayEquals(new long[0], set.after(100, 5));
+        assertArrayEquals(new long[] {10, 20, 30}, set.after(Long.MIN_VALUE, 3));
+        assertEquals(10, set.after(0, Integer.MAX_VALUE).length);
+    }
+
+    @Test
+    void matchesATreeSetUnderRandomChanges() {
+        Random random = new Random(42);
+        SortedLongSet set = new SortedLongSet();
+        TreeSet<Long> expected = new TreeSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            long v = random.nextInt(500);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(v), set.add(v));
+            } else {
+                assertEquals(expected.remove(v), set.remove(v));
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), set.after(-1, Integer.MAX_VALUE));
+    }
+}
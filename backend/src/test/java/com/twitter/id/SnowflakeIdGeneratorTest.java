@@ -0,0 +1,111 @@
+package com.twitter.id;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnowflakeIdGeneratorTest {
+
+    @Test
+    void layoutIsTimestampNodeSequence() {
+        SnowflakeIdGenerator generator = newGenerator(5);
+        long before = System.currentTimeMillis();
+        long id = generator.nextId();
+        long after = System.currentTimeMillis();
+
+        assertEquals(5, (id >>> 9) & 0b111);
+        assertTrue(SnowflakeIdGenerator.timestampOf(id) >= before);
+        assertTrue(SnowflakeIdGenerator.timestampOf(id) <= after);
+        // 53 bits: exact as a JavaScript number
+        assertTrue(id < 1L << 53);
+        assertTrue(SnowflakeIdGenerator.isGenerated(id));
+    }
+
+    @Test
+    void idsAreUniqueAndIncreasing() {
+        SnowflakeIdGenerator generator = newGenerator(0);
+        Set<Long> ids = new HashSet<>();
+        long previous = 0;
+        for (int i = 0; i < 100_000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            assertTrue(ids.add(id));
+            previous = id;
+        }
+    }
+
+    @Test
+    void exhaustedSequenceMovesToTheNextMillisecond() {
+        SnowflakeIdGenerator generator = newGenerator(0);
+        long ahead = System.currentTimeMillis() - SnowflakeIdGenerator.EPOCH + 1000;
+        ReflectionTestUtils.setField(generator, "lastTimestamp", ahead);
+        ReflectionTestUtils.setField(generator, "sequence", 510L);
+
+        long last = generator.nextId();
+        long next = generator.nextId();
+
+        assertEquals(511, last & 0x1FF);
+        assertEquals(0, next & 0x1FF);
+        assertEquals(SnowflakeIdGenerator.timestampOf(last) + 1, SnowflakeIdGenerator.timestampOf(next));
+    }
+
+    @Test
+    void smallClockStepBackKeepsCountingFromTheLastTimestamp() {
+        SnowflakeIdGenerator generator = newGenerator(0);
+        long ahead = System.currentTimeMillis() - SnowflakeIdGenerator.EPOCH + 1000;
+        ReflectionTestUtils.setField(generator, "lastTimestamp", ahead);
+
+        long id = generator.nextId();
+
+        assertEquals(ahead + SnowflakeIdGenerator.EPOCH, SnowflakeIdGenerator.timestampOf(id));
+        assertTrue(generator.nextId() > id);
+    }
+
+    @Test
+    void largeClockStepBackFails() {
+        SnowflakeIdGenerator generator = newGenerator(0);
+        long ahead = System.currentTimeMillis() - SnowflakeIdGenerator.EPOCH + 60_000;
+        ReflectionTestUtils.setField(generator, "lastTimestamp", ahead);
+
+        assertThrows(IllegalStateException.class, generator::nextId);
+    }
+
+    @Test
+    void invalidNodeIdIsRejected() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator();
+        ReflectionTestUtils.setField(generator, "nodeId", 8L);
+
+        assertThrows(IllegalStateException.class, generator::init);
+    }
+
+    @Test
+    void timeRangesMapToIdRanges() {
+        long time = SnowflakeIdGenerator.EPOCH + 123_456_789L;
+
+        assertEquals(time, SnowflakeIdGenerator.timestampOf(SnowflakeIdGenerator.minIdAt(time)));
+        assertEquals(0, SnowflakeIdGenerator.minIdAt(SnowflakeIdGenerator.EPOCH - 1000));
+        assertTrue(SnowflakeIdGenerator.minIdAt(time + 1) > SnowflakeIdGenerator.minIdAt(time) + 0x1FF);
+    }
+
+    @Test
+    void legacyIdsLieBelowFirstId() {
+        assertFalse(SnowflakeIdGenerator.isGenerated(1));
+        assertFalse(SnowflakeIdGenerator.isGenerated(SnowflakeIdGenerator.FIRST_ID - 1));
+        assertTrue(SnowflakeIdGenerator.isGenerated(SnowflakeIdGenerator.FIRST_ID));
+        assertTrue(SnowflakeIdGenerator.FIRST_ID < SnowflakeIdGenerator.minIdAt(System.currentTimeMillis()));
+    }
+
+    private static SnowflakeIdGenerator newGenerator(long nodeId) {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator();
+        ReflectionTestUtils.setField(generator, "nodeId", nodeId);
+        ReflectionTestUtils.setField(generator, "maxClockSkewMs", 5000L);
+        return generator;
+    }
+}
@@ -0,0 +1,102 @@
+package com.twitter.pagination;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CursorPageTest {
+
+    /** Rows are IDs; a row's timestamp is its ID times 10 */
+    private static Cursor cursorOf(Long id) {
+        return Cursor.of(id * 10, id);
+    }
+
+    @Test
+    void firstPageWithMoreRows() {
+        PageQuery query = PageQuery.of(null, null, 3);
+
+        CursorPage<Long> page = CursorPage.of(List.of(9L, 8L, 7L, 6L), query, CursorPageTest::cursorOf);
+
+        assertEquals(List.of(9L, 8L, 7L), page.getItems());
+        assertEquals(7L, Cursor.decode(page.getNextCursor()).getId());
+        assertEquals(9L, Cursor.decode(page.getPrevCursor()).getId());
+    }
+
+    @Test
+    void lastPageHasNoNextCursor() {
+        PageQuery query = PageQuery.of(Cursor.of(70, 7).encode(), null, 3);
+
+        CursorPage<Long> page = CursorPage.of(List.of(6L, 5L), query, CursorPageTest::cursorOf);
+
+        assertEquals(List.of(6L, 5L), page.getItems());
+        assertNull(page.getNextCursor());
+        assertEquals(6L, Cursor.decode(page.getPrevCursor()).getId());
+    }
+
+    @Test
+    void afterPageIsFetchedOldestFirstAndReturnedNewestFirst() {
+        PageQuery query = PageQuery.of(null, Cursor.of(50, 5).encode(), 2);
+        List<Long> fetched = new ArrayList<>(List.of(8L, 6L, 7L));
+        fetched.sort(query.fetchOrder(id -> id * 10, id -> id));
+
+        CursorPage<Long> page = CursorPage.of(fetched, query, CursorPageTest::cursorOf);
+
+        assertEquals(List.of(7L, 6L), page.getItems());
+        // Older rows always exist behind an after page
+        assertEquals(6L, Cursor.decode(page.getNextCursor()).getId());
+        assertEquals(7L, Cursor.decode(page.getPrevCursor()).getId());
+    }
+
+    @Test
+    void emptyAfterPageKeepsThePollingCursor() {
+        String after = Cursor.of(50, 5).encode();
+
+        CursorPage<Long> page = CursorPage.of(List.of(), PageQuery.of(null, after, 2), CursorPageTest::cursorOf);
+
+        assertEquals(List.of(), page.getItems());
+        assertNull(page.getNextCursor());
+        assertEquals(after, page.getPrevCursor());
+    }
+
+    @Test
+    void cursorsGoInHeaders() {
+        CursorPage<Long> page = CursorPage.of(List.of(3L, 2L), PageQuery.of(null, null, 1), CursorPageTest::cursorOf);
+
+        ResponseEntity<List<Long>> plain = page.toResponseEntity();
+        assertEquals(List.of(3L), plain.getBody());
+        assertEquals(page.getNextCursor(), plain.getHeaders().getFirst(CursorPage.NEXT_CURSOR_HEADER));
+        assertEquals(page.getPrevCursor(), plain.getHeaders().getFirst(CursorPage.PREV_CURSOR_HEADER));
+
+        ResponseEntity<Map<String, Object>> withSide = page.toResponseEntity("authors", Map.of(3L, "alice"));
+        assertEquals(List.of(3L), withSide.getBody().get("items"));
+        assertEquals(Map.of(3L, "alice"), withSide.getBody().get("authors"));
+    }
+
+    @Test
+    void emptyFirstPageHasNoCursors() {
+        ResponseEntity<List<Long>> response = CursorPage.of(List.<Long>of(), PageQuery.first(10), CursorPageTest::cursorOf)
+                .toResponseEntity();
+
+        assertFalse(response.getHeaders().containsKey(CursorPage.NEXT_CURSOR_HEADER));
+        assertFalse(response.getHeaders().containsKey(CursorPage.PREV_CURSOR_HEADER));
+    }
+
+    @Test
+    void pageQueryClampsLimitAndRejectsBothCursors() {
+        String token = Cursor.of(1, 1).encode();
+
+        assertEquals(PageQuery.DEFAULT_LIMIT, PageQuery.of(null, null, null).getLimit());
+        assertEquals(PageQuery.MAX_LIMIT, PageQuery.of(null, null, 10_000).getLimit());
+        assertEquals(1, PageQuery.of(null, null, 0).getLimit());
+        assertEquals(PageQuery.MAX_LIMIT + 1, PageQuery.of(null, null, 10_000).pageable().getPageSize());
+        assertThrows(IllegalArgumentException.class, () -> PageQuery.of(token, token, 10));
+    }
+}
@@ -0,0 +1,41 @@
+package com.twitter.pagination;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CursorTest {
+
+    @Test
+    void encodeDecodeRoundTrips() {
+        Cursor cursor = Cursor.decode(Cursor.of(1_700_000_000_123L, 987_654_321_012L).encode());
+
+        assertEquals(1_700_000_000_123L, cursor.getTimestamp());
+        assertEquals(987_654_321_012L, cursor.getId());
+    }
+
+    @Test
+    void tokensAreUrlSafeWithoutPadding() {
+        for (long id = 0; id < 100; id++) {
+            String token = Cursor.of(Long.MAX_VALUE - id, -id).encode();
+            assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+            assertEquals(-id, Cursor.decode(token).getId());
+        }
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        String noSeparator = Base64.getUrlEncoder().encodeToString("12345".getBytes(StandardCharsets.UTF_8));
+        String notNumbers = Base64.getUrlEncoder().encodeToString("a:b".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IllegalArgumentException.class, () -> Cursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> Cursor.decode(noSeparator));
+        assertThrows(IllegalArgumentException.class, () -> Cursor.decode(notNumbers));
+        assertThrows(IllegalArgumentException.class, () -> Cursor.decode(""));
+    }
+}
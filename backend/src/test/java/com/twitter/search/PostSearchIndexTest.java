@@ -0,0 +1,69 @@
+package com.twitter.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class PostSearchIndexTest {
+
+    private final PostSearchIndex index = newIndex();
+
+    @Test
+    void allTermsMustMatchNewestFirst() {
+        index.add(1, "java and spring");
+        index.add(2, "spring only");
+        index.add(3, "Spring with #Java");
+
+        assertArrayEquals(new long[] {3, 1}, search("java spring"));
+        assertArrayEquals(new long[] {3, 2, 1}, search("spring"));
+        assertArrayEquals(new long[0], search("kotlin"));
+    }
+
+    @Test
+    void phrasesMustBeContiguousAndInOrder() {
+        index.add(1, "hello world");
+        index.add(2, "world hello");
+        index.add(3, "hello big world");
+        index.add(4, "say hello, world! then hello again");
+
+        assertArrayEquals(new long[] {4, 1}, search("\"hello world\""));
+        assertArrayEquals(new long[] {2}, search("\"world hello\""));
+        assertArrayEquals(new long[] {3}, search("\"hello big world\""));
+    }
+
+    @Test
+    void repeatedTermInAPhrase() {
+        index.add(1, "go go gadget");
+        index.add(2, "go gadget go");
+
+        assertArrayEquals(new long[] {1}, search("\"go go\""));
+        assertArrayEquals(new long[] {2, 1}, search("\"go gadget\""));
+    }
+
+    @Test
+    void removedPostsAndPagingBound() {
+        for (long id = 1; id <= 300; id++) {
+            index.add(id, "post number " + id);
+        }
+        index.remove(300);
+
+        assertArrayEquals(new long[] {299, 298}, searchBefore("post", Long.MAX_VALUE, 2));
+        assertArrayEquals(new long[] {128, 127, 126}, searchBefore("post", 129, 3));
+        assertArrayEquals(new long[] {42}, search("\"number 42\""));
+    }
+
+    private long[] search(String query) {
+        return searchBefore(query, Long.MAX_VALUE, 10);
+    }
+
+    private long[] searchBefore(String query, long beforeId, int limit) {
+        return index.search(SearchQuery.parse(query), beforeId, limit);
+    }
+
+    private static PostSearchIndex newIndex() {
+        PostSearchIndex index = new PostSearchIndex();
+        ReflectionTestUtils.setField(index, "purgeRatio", 0.1);
+        return index;
+    }
+}
@@ -0,0 +1,163 @@
+package com.twitter.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostingListTest {
+
+    @Test
+    void fullTailIsSealedIntoACompressedBlock() {
+        PostingList list = new PostingList();
+        for (int i = 0; i < PostingList.BLOCK_SIZE + 3; i++) {
+            list.add(id(i), new int[] {i % 7, 100 + i});
+        }
+
+        assertEquals(PostingList.BLOCK_SIZE + 3, list.size());
+        assertEquals(2, list.blocks());
+        assertEquals(id(0), list.first(0));
+        assertEquals(id(PostingList.BLOCK_SIZE), list.first(1));
+
+        PostingList.Block sealed = list.block(0);
+        assertEquals(PostingList.BLOCK_SIZE, sealed.size);
+        for (int i = 0; i < sealed.size; i++) {
+            assertEquals(id(i), sealed.ids[i]);
+            assertArrayEquals(new int[] {i % 7, 100 + i}, sealed.positions[i]);
+        }
+        assertEquals(3, list.block(1).size);
+    }
+
+    @Test
+    void varintsRoundTripLargeDeltas() {
+        PostingList list = new PostingList();
+        long[] gaps = {1, 127, 128, 16_384, 1L << 35, 1L << 56};
+        long[] ids = new long[PostingList.BLOCK_SIZE];
+        long id = 0;
+        for (int i = 0; i < ids.length; i++) {
+            id += gaps[i % gaps.length];
+            ids[i] = id;
+            list.add(id, new int[] {0, 127, 128, 16_384, Integer.MAX_VALUE});
+        }
+
+        PostingList.Block block = list.block(0);
+        assertEquals(ids.length, block.size);
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(ids[i], block.ids[i]);
+            assertArrayEquals(new int[] {0, 127, 128, 16_384, Integer.MAX_VALUE}, block.positions[i]);
+        }
+    }
+
+    @Test
+    void positionsAreFoundInSealedBlocksAndTheTail() {
+        PostingList list = new PostingList();
+        for (int i = 0; i < 300; i++) {
+            list.add(id(i), new int[] {i});
+        }
+        PostingList.Block[] cache = new PostingList.Block[1];
+
+        assertArrayEquals(new int[] {5}, list.positions(id(5), cache));
+        assertArrayEquals(new int[] {6}, list.positions(id(6), cache));
+        assertArrayEquals(new int[] {299}, list.positions(id(299), cache));
+        assertNull(list.positions(id(5) + 1, cache));
+        assertNull(list.positions(id(300), cache));
+        assertNull(list.positions(0, cache));
+    }
+
+    @Test
+    void outOfOrderInsertKeepsIdsAscending() {
+        PostingList list = new PostingList();
+        for (int i = 0; i < 200; i++) {
+            list.add(id(i) + 1, new int[] {i});
+        }
+        list.add(id(10), new int[] {42});
+        list.add(id(10), new int[] {43});
+        list.add(id(10) + 1, new int[] {44});
+
+        assertEquals(201, list.size());
+        assertArrayEquals(new int[] {42}, list.positions(id(10), new PostingList.Block[1]));
+        assertArrayEquals(new int[] {10}, list.positions(id(10) + 1, new PostingList.Block[1]));
+        List<Long> all = ids(list);
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1) < all.get(i));
+        }
+    }
+
+    @Test
+    void withoutDropsTheGivenPosts() {
+        PostingList list = new PostingList();
+        for (int i = 0; i < 200; i++) {
+            list.add(id(i), new int[] {i});
+        }
+
+        PostingList copy = list.without(Set.of(id(0), id(150), id(199)));
+
+        assertEquals(197, copy.size());
+        assertEquals(200, list.size());
+        assertNull(copy.positions(id(150), new PostingList.Block[1]));
+        assertArrayEquals(new int[] {151}, copy.positions(id(151), new PostingList.Block[1]));
+        assertEquals(id(1), copy.first(0));
+    }
+
+    @Test
+    void snapshotIsUnaffectedByLaterAdds() {
+        PostingList list = new PostingList();
+        for (int i = 0; i < 100; i++) {
+            list.add(id(i), new int[] {i});
+        }
+        PostingList snapshot = list.snapshot();
+        List<Long> before = ids(snapshot);
+
+        for (int i = 100; i < 400; i++) {
+            list.add(id(i), new int[] {i});
+        }
+        list.add(id(50) + 1, new int[] {0});
+
+        assertEquals(100, snapshot.size());
+        assertEquals(before, ids(snapshot));
+        assertEquals(401, list.size());
+    }
+
+    @Test
+    void segmentFormatRoundTrips() throws Exception {
+        PostingList list = new PostingList();
+        for (int i = 0; i < 300; i++) {
+            list.add(id(i), new int[] {i, i + 2});
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        list.write(new DataOutputStream(bytes));
+
+        PostingList read = PostingList.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(list.size(), read.size());
+        assertEquals(ids(list), ids(read));
+        assertArrayEquals(new int[] {7, 9}, read.positions(id(7), new PostingList.Block[1]));
+        read.add(id(300), new int[] {0});
+        assertEquals(301, read.size());
+    }
+
+    private static long id(int i) {
+        return 1_000_000L + i * 1000L;
+    }
+
+    private static List<Long> ids(PostingList list) {
+        List<Long> ids = new ArrayList<>();
+        for (int b = 0; b < list.blocks(); b++) {
+            PostingList.Block block = list.block(b);
+            for (int i = 0; i < block.size; i++) {
+                ids.add(block.ids[i]);
+            }
+        }
+        return ids;
+    }
+}
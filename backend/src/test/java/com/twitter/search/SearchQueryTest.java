@@ -0,0 +1,58 @@
+package com.twitter.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchQueryTest {
+
+    @Test
+    void tokenizerLowerCasesRunsOfLettersAndDigits() {
+        assertEquals(List.of("hello", "java", "world", "2024", "a1b2"),
+                Tokenizer.tokenize("Hello, #Java-world! 2024 a1b2"));
+        assertEquals(List.of("über", "café"), Tokenizer.tokenize("Über café"));
+        assertTrue(Tokenizer.tokenize("  ...  ").isEmpty());
+        assertTrue(Tokenizer.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void tokenizerCutsOverlongTerms() {
+        String term = Tokenizer.tokenize("x".repeat(100) + " y").get(0);
+
+        assertEquals(Tokenizer.MAX_TERM_LENGTH, term.length());
+        assertEquals("y", Tokenizer.tokenize("x".repeat(100) + " y").get(1));
+    }
+
+    @Test
+    void wordsAreDistinctTerms() {
+        SearchQuery query = SearchQuery.parse("Java #java spring");
+
+        assertEquals(List.of("java", "spring"), query.getTerms());
+        assertTrue(query.getPhrases().isEmpty());
+    }
+
+    @Test
+    void quotedWordsBecomePhrases() {
+        SearchQuery query = SearchQuery.parse("java \"Hello, World\" \"single\" spring");
+
+        assertEquals(List.of("java", "hello", "world", "single", "spring"), query.getTerms());
+        assertEquals(List.of(List.of("hello", "world")), query.getPhrases());
+    }
+
+    @Test
+    void unterminatedQuoteRunsToTheEnd() {
+        SearchQuery query = SearchQuery.parse("java \"good morning");
+
+        assertEquals(List.of(List.of("good", "morning")), query.getPhrases());
+    }
+
+    @Test
+    void queryWithoutWordsIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> SearchQuery.parse(" \"!!\" "));
+        assertThrows(IllegalArgumentException.class, () -> SearchQuery.parse(null));
+    }
+}
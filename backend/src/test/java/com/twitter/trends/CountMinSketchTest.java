@@ -0,0 +1,56 @@
+package com.twitter.trends;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountMinSketchTest {
+
+    @Test
+    void estimatesAreExactWithoutCollisions() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        sketch.add(CountMinSketch.hash("java"), 3);
+        sketch.add(CountMinSketch.hash("spring"), 1);
+
+        assertEquals(3, sketch.estimate(CountMinSketch.hash("java")));
+        assertEquals(1, sketch.estimate(CountMinSketch.hash("spring")));
+        assertEquals(0, sketch.estimate(CountMinSketch.hash("kotlin")));
+    }
+
+    @Test
+    void neverUnderCountsAndOverCountsBoundedly() {
+        CountMinSketch sketch = new CountMinSketch(4, 256);
+        int total = 0;
+        for (int key = 0; key < 1000; key++) {
+            sketch.add(CountMinSketch.hash("tag" + key), key % 10 + 1);
+            total += key % 10 + 1;
+        }
+
+        int overCounted = 0;
+        for (int key = 0; key < 1000; key++) {
+            int estimate = sketch.estimate(CountMinSketch.hash("tag" + key));
+            assertTrue(estimate >= key % 10 + 1);
+            if (estimate - (key % 10 + 1) > 2 * total / 256) {
+                overCounted++;
+            }
+        }
+        assertTrue(overCounted < 50, overCounted + " keys over-counted by more than 2 * total / width");
+    }
+
+    @Test
+    void subtractRemovesAnotherSketchsCounts() {
+        CountMinSketch window = new CountMinSketch(4, 64);
+        CountMinSketch slice = new CountMinSketch(4, 64);
+        long java = CountMinSketch.hash("java");
+        window.add(java, 5);
+        slice.add(java, 2);
+        window.add(java, 2);
+
+        window.subtract(slice);
+        assertEquals(5, window.estimate(java));
+
+        window.clear();
+        assertEquals(0, window.estimate(java));
+    }
+}
@@ -0,0 +1,74 @@
+package com.twitter.trends;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlidingWindowTopKTest {
+
+    private static final long SLICE_MS = 1000;
+
+    /** 4 slices of one second, starting at a slice boundary */
+    private final SlidingWindowTopK topK = new SlidingWindowTopK("test", 4 * SLICE_MS, 4, 4, 1024, 3);
+    private final long start = 1_000_000 * SLICE_MS;
+
+    @Test
+    void ranksByCountThenTag() {
+        record(start, "java", "spring");
+        record(start, "java", "kotlin");
+        record(start, "java", "spring");
+
+        assertEquals(List.of("java 3", "spring 2", "kotlin 1"), top(10, start));
+        assertEquals(List.of("java 3"), top(1, start));
+    }
+
+    @Test
+    void expiredSlicesLeaveTheWindow() {
+        record(start, "java");
+        record(start, "java");
+        record(start + SLICE_MS, "java", "spring");
+        record(start + 2 * SLICE_MS, "spring");
+
+        assertEquals(List.of("java 3", "spring 2"), top(10, start + 3 * SLICE_MS));
+        // The first slice expires once the window moves past it
+        assertEquals(List.of("spring 2", "java 1"), top(10, start + 4 * SLICE_MS));
+        assertEquals(List.of("spring 1"), top(10, start + 5 * SLICE_MS));
+        assertTrue(top(10, start + 6 * SLICE_MS).isEmpty());
+        assertEquals(0, topK.getCandidateCount());
+    }
+
+    @Test
+    void gapLongerThanTheWindowClearsEverything() {
+        record(start, "java");
+        record(start + SLICE_MS, "spring");
+
+        assertTrue(top(10, start + 100 * SLICE_MS).isEmpty());
+        record(start + 100 * SLICE_MS, "kotlin");
+        assertEquals(List.of("kotlin 1"), top(10, start + 100 * SLICE_MS));
+    }
+
+    @Test
+    void strongerKeyReplacesTheWeakestCandidate() {
+        record(start, "a", "b", "c");
+        record(start, "a", "b");
+        record(start, "d");
+        assertEquals(List.of("a 2", "b 2", "c 1"), top(10, start));
+
+        record(start, "d");
+        assertEquals(List.of("a 2", "b 2", "d 2"), top(10, start));
+    }
+
+    private void record(long now, String... keys) {
+        topK.record(List.of(keys), now);
+    }
+
+    private List<String> top(int limit, long now) {
+        return topK.top(limit, now).stream()
+                .map(tag -> tag.getTag() + " " + tag.getCount())
+                .collect(Collectors.toList());
+    }
+}
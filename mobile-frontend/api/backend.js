@@ -5,10 +5,18 @@ const API_URL = `http://${COMPUTER_IP}:8080/api`;
 
 // ==================== Users API ====================
 
+// Follows X-Next-Cursor through every page
 export const getUsers = async () => {
   try {
-    const response = await axios.get(`${API_URL}/users`);
-    return response.data;
+    const users = [];
+    let cursor = null;
+    do {
+      const params = cursor ? { limit: 200, before: cursor } : { limit: 200 };
+      const response = await axios.get(`${API_URL}/users`, { params });
+      users.push(...response.data);
+      cursor = response.headers['x-next-cursor'];
+    } while (cursor);
+    return users;
   } catch (error) {
     console.error('Error fetching users:', error);
     return [];
@@ -42,11 +50,12 @@ export const createPost = async (userId, content) => {
 
 export const getFeed = async (userId) => {
   try {
-    const response = await axios.get(`${API_URL}/posts/feed/${userId}`);
+    // Authors come back in the same response: { items, authors: { userId: { id, username, bio } } }
+    const response = await axios.get(`${API_URL}/posts/feed/${userId}`, { params: { expand: 'author' } });
     return response.data;
   } catch (error) {
     console.error('Error fetching feed:', error);
-    return [];
+    return { items: [], authors: {} };
   }
 };
 
@@ -108,6 +117,17 @@ export const getFollowers = async (userId) => {
   }
 };
 
+// Follower, following and post counts: { followers, following, posts }
+export const getCounts = async (userId) => {
+  try {
+    const response = await axios.get(`${API_URL}/follows/${userId}/counts`);
+    return response.data;
+  } catch (error) {
+    console.error('Error fetching counts:', error);
+    return { followers: 0, following: 0, posts: 0 };
+  }
+};
+
 // ==================== Notifications API ====================
 
 export const getNotifications = async (userId) => {
@@ -11,29 +11,24 @@ import {
   Alert,
 } from 'react-native';
 import PostCard from '../components/PostCard';
-import { getFeed, createPost, getUsers } from '../api/backend';
+import { getFeed, createPost } from '../api/backend';
 
 const FeedScreen = ({ currentUserId }) => {
   const [posts, setPosts] = useState([]);
-  const [users, setUsers] = useState([]);
+  const [authors, setAuthors] = useState({});
   const [refreshing, setRefreshing] = useState(false);
   const [modalVisible, setModalVisible] = useState(false);
   const [postContent, setPostContent] = useState('');
 
   useEffect(() => {
     loadFeed();
-    loadUsers();
   }, [currentUserId]);
 
-  const loadUsers = async () => {
-    const userData = await getUsers();
-    setUsers(userData);
-  };
-
   const loadFeed = async () => {
     if (!currentUserId) return;
     const feedData = await getFeed(currentUserId);
-    setPosts(feedData);
+    setPosts(feedData.items);
+    setAuthors(feedData.authors);
   };
 
   const onRefresh = async () => {
@@ -70,8 +65,8 @@ const FeedScreen = ({ currentUserId }) => {
   };
 
   const getUsernameById = (userId) => {
-    const user = users.find(u => u.id === userId);
-    return user ? user.username : `User ${userId}`;
+    const author = authors[userId];
+    return author ? author.username : `User ${userId}`;
   };
 
   if (!currentUserId) {
@@ -11,8 +11,7 @@ import PostCard from '../components/PostCard';
 import {
   getUsers,
   getUserPosts,
-  getFollowers,
-  getFollowing,
+  getCounts,
 } from '../api/backend';
 
 const ProfileScreen = ({ currentUserId, onUserChange }) => {
@@ -43,15 +42,15 @@ const ProfileScreen = ({ currentUserId, onUserChange }) => {
   const loadProfile = async () => {
     if (!currentUserId) return;
 
+    // Newest page of posts; the totals come from the materialized counters
     const userPosts = await getUserPosts(currentUserId);
-    const followers = await getFollowers(currentUserId);
-    const following = await getFollowing(currentUserId);
+    const counts = await getCounts(currentUserId);
 
     setPosts(userPosts);
     setStats({
-      posts: userPosts.length,
-      followers: followers.length,
-      following: following.length,
+      posts: counts.posts,
+      followers: counts.followers,
+      following: counts.following,
     });
   };
 
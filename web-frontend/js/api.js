@@ -4,13 +4,20 @@ const API_URL = 'http://localhost:8080/api';
 // ==================== Users API ====================
 
 /**
- * Get all users
- * @returns {Promise<Array>} Array of user objects
+ * Get all users, following X-Next-Cursor through every page
+ * @returns {Promise<Array>} Array of user objects (newest first)
  */
 async function getUsers() {
     try {
-        const response = await fetch(`${API_URL}/users`);
-        return await response.json();
+        const users = [];
+        let cursor = null;
+        do {
+            const query = cursor ? `?limit=200&before=${encodeURIComponent(cursor)}` : '?limit=200';
+            const response = await fetch(`${API_URL}/users${query}`);
+            users.push(...await response.json());
+            cursor = response.headers.get('X-Next-Cursor');
+        } while (cursor);
+        return users;
     } catch (error) {
         console.error('Error fetching users:', error);
         return [];
@@ -56,23 +63,39 @@ async function createPostAPI(userId, content) {
     }
 }
 
+/**
+ * Get many users in one request
+ * @param {Array<Number>} userIds - User IDs
+ * @returns {Promise<Array>} Array of user objects (unknown IDs are skipped)
+ */
+async function getUsersByIds(userIds) {
+    try {
+        const response = await fetch(`${API_URL}/users/batch?ids=${userIds.join(',')}`);
+        return await response.json();
+    } catch (error) {
+        console.error('Error fetching users:', error);
+        return [];
+    }
+}
+
 /**
  * Get feed for a user (posts from users they follow + their own posts)
+ * Authors are embedded in the same response (?expand=author)
  * @param {Number} userId - User ID
- * @returns {Promise<Array>} Array of posts
+ * @returns {Promise<Object>} { items: Array of posts, authors: { userId: { id, username, bio } } }
  */
 async function getFeed(userId) {
     try {
-        const response = await fetch(`${API_URL}/posts/feed/${userId}`);
+        const response = await fetch(`${API_URL}/posts/feed/${userId}?expand=author`);
         return await response.json();
     } catch (error) {
         console.error('Error fetching feed:', error);
-        return [];
+        return { items: [], authors: {} };
     }
 }
 
 /**
- * Get all posts by a specific user
+ * Get the newest posts by a specific user (first page; the total is in getFollowCounts)
  * @param {Number} userId - User ID
  * @returns {Promise<Array>} Array of posts
  */
@@ -153,6 +176,21 @@ async function getFollowing(userId) {
     }
 }
 
+/**
+ * Get follower, following and post counts of a user
+ * @param {Number} userId - User ID
+ * @returns {Promise<Object>} { followers, following, posts }
+ */
+async function getFollowCounts(userId) {
+    try {
+        const response = await fetch(`${API_URL}/follows/${userId}/counts`);
+        return await response.json();
+    } catch (error) {
+        console.error('Error fetching follow counts:', error);
+        return { followers: 0, following: 0, posts: 0 };
+    }
+}
+
 /**
  * Get followers of a specific user
  * @param {Number} userId - User ID
@@ -201,6 +239,26 @@ async function getUnreadCount(userId) {
     }
 }
 
+/**
+ * Open a live notification stream (Server-Sent Events) for a user
+ * @param {Number} userId - User ID
+ * @param {Object} handlers - onNotification(notification), onUnreadCount(count), onResync()
+ * @returns {EventSource} Open stream; call close() to stop it
+ */
+function openNotificationStream(userId, handlers) {
+    const stream = new EventSource(`${API_URL}/notifications/${userId}/stream`);
+    stream.addEventListener('notification', (event) => {
+        handlers.onNotification && handlers.onNotification(JSON.parse(event.data));
+    });
+    stream.addEventListener('unread-count', (event) => {
+        handlers.onUnreadCount && handlers.onUnreadCount(JSON.parse(event.data).unreadCount);
+    });
+    stream.addEventListener('resync', () => {
+        handlers.onResync && handlers.onResync();
+    });
+    return stream;
+}
+
 /**
  * Mark a notification as read
  * @param {Number} notificationId - Notification ID
@@ -221,6 +279,23 @@ async function markNotificationAsRead(notificationId) {
     }
 }
 
+/**
+ * Mark all notifications of a user as read (one request)
+ * @param {Number} userId - User ID
+ * @returns {Promise<Object>} { marked }
+ */
+async function markAllNotificationsAsRead(userId) {
+    try {
+        const response = await fetch(`${API_URL}/notifications/${userId}/read-all`, {
+            method: 'POST'
+        });
+        return await response.json();
+    } catch (error) {
+        console.error('Error marking all notifications as read:', error);
+        return null;
+    }
+}
+
 /**
  * Delete a notification
  * @param {Number} notificationId - Notification ID
@@ -137,6 +137,7 @@ async function switchUser() {
         await updateUserNotifications();
     } else {
         document.getElementById('feed').innerHTML = '<p class="placeholder">Select a user to view their feed</p>';
+        stopNotificationRefresh();
         await updateNotificationBadge();
     }
 }
@@ -255,7 +256,7 @@ async function loadFeed() {
         return;
     }
     
-    const posts = await getFeed(currentUserId);
+    const { items: posts, authors } = await getFeed(currentUserId);
     const feedDiv = document.getElementById('feed');
     
     if (posts.length === 0) {
@@ -263,18 +264,22 @@ async function loadFeed() {
         return;
     }
     
-    feedDiv.innerHTML = posts.map(post => `
+    feedDiv.innerHTML = posts.map(post => {
+        const author = authors[post.userId];
+        const name = author ? author.username : `User ${post.userId}`;
+        return `
         <div class="post-card">
             <div class="post-header">
-                <div class="post-avatar">U${post.userId}</div>
+                <div class="post-avatar">${author ? name.charAt(0).toUpperCase() : `U${post.userId}`}</div>
                 <div class="post-info">
-                    <h4>User ${post.userId}</h4>
+                    <h4>${name}</h4>
                     <span class="post-time">${formatTime(post.timestamp)}</span>
                 </div>
             </div>
             <div class="post-content">${post.content}</div>
         </div>
-    `).join('');
+    `;
+    }).join('');
 }
 
 // ==================== Notification Management ====================
@@ -339,7 +344,14 @@ async function updateNotificationBadge() {
         return;
     }
     
-    const unreadCount = await getUnreadCount(currentUserId);
+    setNotificationBadge(await getUnreadCount(currentUserId));
+}
+
+/**
+ * Show an unread count on the notification badge
+ * @param {Number} unreadCount - Number of unread notifications
+ */
+function setNotificationBadge(unreadCount) {
     const badge = document.getElementById('notification-badge');
     
     if (badge) {
@@ -364,6 +376,18 @@ async function handleMarkAsRead(notificationId) {
     await updateNotificationBadge();
 }
 
+/**
+ * Mark all of the current user's notifications as read and refresh
+ */
+async function handleMarkAllAsRead() {
+    if (!currentUserId) {
+        return;
+    }
+    await markAllNotificationsAsRead(currentUserId);
+    await loadNotifications();
+    await updateNotificationBadge();
+}
+
 /**
  * Delete notification and refresh
  * @param {Number} notificationId - Notification ID
@@ -374,12 +398,36 @@ async function handleDeleteNotification(notificationId) {
     await updateNotificationBadge();
 }
 
+let notificationStream = null;
+
 /**
- * Start auto-refreshing notifications every 5 seconds
+ * Start live notification updates for the current user.
+ * Uses the server-sent event stream when the browser supports it
+ * (EventSource reconnects and resumes by itself), otherwise polls every 5 seconds.
  */
 function startNotificationRefresh() {
-    if (notificationRefreshInterval) {
-        clearInterval(notificationRefreshInterval);
+    stopNotificationRefresh();
+    
+    if (!currentUserId) {
+        return;
+    }
+    
+    if (window.EventSource) {
+        notificationStream = openNotificationStream(currentUserId, {
+            onNotification: () => {
+                if (notificationDropdownOpen) {
+                    loadNotifications();
+                }
+            },
+            onUnreadCount: (unreadCount) => setNotificationBadge(unreadCount),
+            onResync: () => {
+                updateNotificationBadge();
+                if (notificationDropdownOpen) {
+                    loadNotifications();
+                }
+            }
+        });
+        return;
     }
     
     notificationRefreshInterval = setInterval(async () => {
@@ -393,9 +441,13 @@ function startNotificationRefresh() {
 }
 
 /**
- * Stop auto-refreshing notifications
+ * Stop live notification updates
  */
 function stopNotificationRefresh() {
+    if (notificationStream) {
+        notificationStream.close();
+        notificationStream = null;
+    }
     if (notificationRefreshInterval) {
         clearInterval(notificationRefreshInterval);
         notificationRefreshInterval = null;
@@ -424,10 +476,9 @@ async function loadProfile() {
     }
     
     // Get user info
-    const users = await getUsers();
-    const currentUser = users.find(u => u.id === currentUserId);
+    const currentUser = await getUserById(currentUserId);
     
-    if (currentUser) {
+    if (currentUser && currentUser.id) {
         document.getElementById('profile-info').innerHTML = `
             <div class="profile-header">
                 <div class="profile-avatar-large">${currentUser.username.charAt(0).toUpperCase()}</div>
@@ -439,15 +490,14 @@ async function loadProfile() {
         `;
     }
     
-    // Get user's posts
+    // Get user's newest posts
     const posts = await getUserPosts(currentUserId);
-    document.getElementById('posts-count').textContent = posts.length;
     
-    // Get followers/following counts
-    const followers = await getFollowers(currentUserId);
-    const following = await getFollowing(currentUserId);
-    document.getElementById('followers-count').textContent = followers.length;
-    document.getElementById('following-count').textContent = following.length;
+    // Get post/followers/following counts
+    const counts = await getFollowCounts(currentUserId);
+    document.getElementById('posts-count').textContent = counts.posts;
+    document.getElementById('followers-count').textContent = counts.followers;
+    document.getElementById('following-count').textContent = counts.following;
     
     // Display user's posts
     const myPostsDiv = document.getElementById('my-posts');